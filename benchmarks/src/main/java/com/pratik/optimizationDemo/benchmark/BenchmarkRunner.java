@@ -0,0 +1,38 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ *
+ * Same command line as the stock JMH launcher, but always attaches the GC
+ * profiler so every run reports allocation rate (gc.alloc.rate.norm, bytes
+ * per operation) next to the timings. Per-row allocation is what regresses
+ * first in this code, so it is tracked by default.
+ *
+ * Usage:
+ * <pre>
+ * ./mvnw install -DskipTests
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar              # everything
+ * java -jar benchmarks/target/benchmarks.jar RowMapper    # regex filter
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
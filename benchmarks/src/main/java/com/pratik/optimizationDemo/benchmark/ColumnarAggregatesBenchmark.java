@@ -0,0 +1,91 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row objects vs {@link ColumnarAggregates} for a full report.
+ *
+ * fill* shows the container's own allocation per report (compare
+ * gc.alloc.rate.norm from the default GC profiler); sum* shows the cost of a
+ * downstream total. Input strings are built once per row in setup, as a JDBC
+ * driver would return them: the object report keeps all of them alive, the
+ * columnar one only the first occurrence of each id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarAggregatesBenchmark {
+
+    private static final int DIMENSIONS = 10;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private String[] itemIds;
+    private String[] dimensionIds;
+    private List<MetricAggregate> objectReport;
+    private ColumnarAggregates columnarReport;
+
+    @Setup
+    public void setUp() {
+        itemIds = new String[rows];
+        dimensionIds = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            itemIds[i] = "I-" + (i / DIMENSIONS);
+            dimensionIds[i] = "D" + (i % DIMENSIONS);
+        }
+        objectReport = fillObjects();
+        columnarReport = fillColumnar();
+    }
+
+    @Benchmark
+    public List<MetricAggregate> fillObjects() {
+        List<MetricAggregate> report = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            report.add(new MetricAggregate(itemIds[i], dimensionIds[i], i % 50, i % 7, i % 3));
+        }
+        return report;
+    }
+
+    @Benchmark
+    public ColumnarAggregates fillColumnar() {
+        ColumnarAggregates report = new ColumnarAggregates(rows);
+        for (int i = 0; i < rows; i++) {
+            report.add(itemIds[i], dimensionIds[i], i % 50, i % 7, i % 3);
+        }
+        return report;
+    }
+
+    @Benchmark
+    public long sumPassedObjects() {
+        long total = 0;
+        for (MetricAggregate row : objectReport) {
+            total += row.getPassed();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumPassedColumnar() {
+        return columnarReport.totalPassed();
+    }
+}
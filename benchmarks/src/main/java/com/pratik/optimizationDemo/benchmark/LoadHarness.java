@@ -0,0 +1,231 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Reproduces the slow vs optimized comparison from the readme on an
+ * embedded HSQLDB database in Oracle syntax mode.
+ *
+ * STEPS:
+ * 1. Create the schema (harness-schema.sql), no indexes yet
+ * 2. Bulk-generate entity_catalog and entity_event with JDBC batch inserts
+ * 3. Build the production indexes (harness-indexes.sql) on the loaded data
+ * 4. At increasing positions in the group's keyspace, time
+ *    fetchAggregatesSlow (OFFSET) against fetchAggregatesOptimized (keyset)
+ *    and print the median of several runs
+ *
+ * Embedded optimizers are not Oracle's, so absolute numbers differ from
+ * production; the point is a repeatable curve of how each query scales
+ * with offset and volume on the same data.
+ *
+ * CONFIGURATION (system properties):
+ * - harness.url         JDBC URL (default in-memory, roughly 0.5 GB heap per
+ *                       1M events; for tens of millions use a disk-backed URL,
+ *                       see the usage example). The schema is recreated on every run
+ * - harness.items       items in group G001 (default 100000)
+ * - harness.events      entity_event rows (default 5000000)
+ * - harness.tenants     tenants sharing the events (default 5)
+ * - harness.dimensions  dimensions per item (default 4)
+ * - harness.limit       items per batch (default 1000)
+ * - harness.runs        measured runs per point (default 3)
+ * - harness.positions   keyspace positions as fractions (default 0,0.1,0.25,0.5,0.9)
+ * - harness.timeout     per-query timeout in seconds (default 30, the
+ *                       production timeout); timed-out points print "timeout"
+ *
+ * Usage:
+ * <pre>
+ * java -Xmx2g -cp benchmarks/target/benchmarks.jar com.pratik.optimizationDemo.benchmark.LoadHarness
+ *
+ * java -Dharness.events=50000000 -Dharness.items=500000 \
+ *      -Dharness.url="jdbc:hsqldb:file:./target/harness/report;sql.syntax_ora=true;hsqldb.default_table_type=cached;hsqldb.log_data=false;shutdown=true" \
+ *      -cp benchmarks/target/benchmarks.jar com.pratik.optimizationDemo.benchmark.LoadHarness
+ * </pre>
+ */
+public final class LoadHarness {
+
+    private static final long TENANT_ID = 1001L;
+    private static final String GROUP_ID = "G001";
+    private static final int LOAD_BATCH = 10_000;
+    private static final String DEFAULT_URL = "jdbc:hsqldb:mem:harness;sql.syntax_ora=true";
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) {
+        String url = System.getProperty("harness.url", DEFAULT_URL);
+        int items = Integer.getInteger("harness.items", 100_000);
+        long events = Long.getLong("harness.events", 5_000_000L);
+        int tenants = Integer.getInteger("harness.tenants", 5);
+        int dimensions = Integer.getInteger("harness.dimensions", 4);
+        int limit = Integer.getInteger("harness.limit", 1000);
+        int runs = Integer.getInteger("harness.runs", 3);
+        int timeoutSeconds = Integer.getInteger("harness.timeout", 30);
+        double[] positions = Arrays.stream(System.getProperty("harness.positions", "0,0.1,0.25,0.5,0.9").split(","))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, "SA", "", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+            load(dataSource, jdbcTemplate, items, events, tenants, dimensions);
+
+            JdbcTemplate timedTemplate = new JdbcTemplate(dataSource);
+            timedTemplate.setQueryTimeout(timeoutSeconds);
+            ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+            compare(new ReportDao(timedTemplate, metrics, new IdentifierDictionaries(new ReportProperties(), metrics), SqlDialect.ORACLE, SlowQueryLog.disabled()), items, limit, runs, positions);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static void load(
+            SingleConnectionDataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            int items,
+            long events,
+            int tenants,
+            int dimensions) {
+
+        System.out.printf("Loading %,d items and %,d events (%d tenants, %d dimensions)%n",
+                items, events, tenants, dimensions);
+        long start = System.currentTimeMillis();
+
+        jdbcTemplate.execute("DROP SCHEMA PUBLIC CASCADE");
+        new ResourceDatabasePopulator(new ClassPathResource("harness-schema.sql")).execute(dataSource);
+
+        for (int from = 0; from < items; from += LOAD_BATCH) {
+            int first = from;
+            int size = Math.min(LOAD_BATCH, items - from);
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO entity_catalog (item_id, group_id, item_name)
+                VALUES (?, ?, ?)
+                """, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int item = first + i + 1;
+                        ps.setString(1, itemId(item));
+                        ps.setString(2, GROUP_ID);
+                        ps.setString(3, "Item " + item);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                });
+        }
+
+        // Event N belongs to item (N mod items); successive sweeps over the
+        // items move to the next dimension, then to the next tenant
+        long now = System.currentTimeMillis();
+        long itemsTimesDimensions = (long) items * dimensions;
+        for (long from = 0; from < events; from += LOAD_BATCH) {
+            long first = from;
+            int size = (int) Math.min(LOAD_BATCH, events - from);
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO entity_event
+                    (source_id, item_id, dimension_id, tenant_id, status, last_seen_time, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        long n = first + i;
+                        ps.setLong(1, n);
+                        ps.setString(2, itemId((int) (n % items) + 1));
+                        ps.setString(3, String.format("D%03d", (n / items) % dimensions + 1));
+                        ps.setLong(4, TENANT_ID + (n / itemsTimesDimensions) % tenants);
+                        ps.setInt(5, (int) ((n / 7) % 3));
+                        ps.setTimestamp(6, new Timestamp(now - (n % 43_200) * 60_000));
+                        ps.setTimestamp(7, new Timestamp(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                });
+
+            if ((from + size) % 1_000_000 == 0 || from + size == events) {
+                System.out.printf("  %,d / %,d events%n", from + size, events);
+            }
+        }
+
+        new ResourceDatabasePopulator(new ClassPathResource("harness-indexes.sql")).execute(dataSource);
+
+        System.out.printf("Load complete in %,d ms%n%n", System.currentTimeMillis() - start);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void compare(ReportDao reportDao, int items, int limit, int runs, double[] positions) {
+        System.out.printf("%-10s %12s %12s %10s %10s %8s%n",
+                "position", "offset", "slow (ms)", "keyset(ms)", "rows", "speedup");
+
+        for (double position : positions) {
+            int offset = (int) (items * position);
+            // Keyset equivalent of OFFSET n: the n-th item_id, "" for the start
+            String lastSeenId = offset == 0 ? "" : itemId(offset);
+
+            int[] rows = {0};
+            long slowMs = median(runs, () -> reportDao.fetchAggregatesSlow(TENANT_ID, GROUP_ID, offset, limit).size());
+            long keysetMs = median(runs, () -> rows[0] = reportDao.fetchAggregatesOptimized(
+                    TENANT_ID, GROUP_ID, lastSeenId, limit).rows().size());
+
+            System.out.printf("%-10s %,12d %12s %10s %,10d %8s%n",
+                    String.format("%.0f%%", position * 100), offset, format(slowMs), format(keysetMs), rows[0],
+                    slowMs < 0 || keysetMs < 0
+                            ? "-"
+                            : String.format("%.1fx", (double) slowMs / Math.max(1, keysetMs)));
+        }
+    }
+
+    /**
+     * One untimed warm-up run, then the median wall time of {@code runs} runs.
+     *
+     * @return median milliseconds, or -1 if the query hit the timeout
+     */
+    private static long median(int runs, IntSupplier query) {
+        try {
+            query.getAsInt();
+
+            List<Long> timings = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                query.getAsInt();
+                timings.add((System.nanoTime() - start) / 1_000_000);
+            }
+            timings.sort(null);
+            return timings.get(timings.size() / 2);
+        } catch (QueryTimeoutException e) {
+            return -1;
+        }
+    }
+
+    private static String itemId(int item) {
+        return String.format("I-%07d", item);
+    }
+
+    private static String format(long millis) {
+        return millis < 0 ? "timeout" : String.format("%,d", millis);
+    }
+}
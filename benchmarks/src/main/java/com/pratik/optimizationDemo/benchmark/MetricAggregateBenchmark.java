@@ -0,0 +1,51 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction, derived metrics and formatting of {@link MetricAggregate}.
+ *
+ * Fields are non-final so the JIT cannot constant-fold the inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricAggregateBenchmark {
+
+    private String itemId = "I-000123";
+    private String dimensionId = "D002";
+    private long passed = 42;
+    private long failed = 7;
+    private long error = 1;
+
+    private MetricAggregate aggregate = new MetricAggregate(itemId, dimensionId, passed, failed, error);
+
+    @Benchmark
+    public MetricAggregate construct() {
+        return new MetricAggregate(itemId, dimensionId, passed, failed, error);
+    }
+
+    @Benchmark
+    public double passRatePercentage() {
+        return aggregate.getPassRatePercentage();
+    }
+
+    @Benchmark
+    public String formatToString() {
+        return aggregate.toString();
+    }
+}
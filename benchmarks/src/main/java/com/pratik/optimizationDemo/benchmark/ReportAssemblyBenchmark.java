@@ -0,0 +1,99 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.service.ReportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of assembling a full report in {@link ReportService#generateReport}.
+ *
+ * The DAO is replaced by a stub that returns the same pre-built batch until
+ * {@code rows} have been served, so the measurement isolates the batch loop
+ * and the {@code allResults.addAll} accumulation (ArrayList growth and
+ * copying) from query and mapping costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ReportAssemblyBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        List<MetricAggregate> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new MetricAggregate(String.format("I-%06d", i), "D00" + (i % 4), i, 1, 0));
+        }
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+        reportService = new ReportService(
+                new RepeatingBatchDao(batch, rows / BATCH_SIZE, metrics),
+                new ReportProperties(),
+                new SimpleAsyncTaskExecutor(),
+                metrics);
+    }
+
+    @Benchmark
+    public List<MetricAggregate> generateReport() {
+        return reportService.generateReport(1001L, "G001", BATCH_SIZE);
+    }
+
+    /**
+     * Serves {@code batches} copies of the same batch, then an empty one.
+     * Not thread-safe; each benchmark invocation is single-threaded.
+     */
+    private static final class RepeatingBatchDao extends ReportDao {
+
+        private static final AggregateBatch EMPTY = new AggregateBatch(List.of(), 0, null);
+
+        private final AggregateBatch batch;
+        private final int batches;
+        private int served;
+
+        RepeatingBatchDao(List<MetricAggregate> batch, int batches, ReportMetrics metrics) {
+            super(null, metrics, IdentifierDictionaries.disabled(), SqlDialect.ORACLE, SlowQueryLog.disabled());
+            this.batch = new AggregateBatch(batch, batch.size(), batch.get(batch.size() - 1).getItemId());
+            this.batches = batches;
+        }
+
+        @Override
+        public AggregateBatch fetchAggregatesOptimized(
+                Long tenantId, String groupId, String lastSeenId, int limit) {
+            if ("".equals(lastSeenId)) {
+                served = 0;
+            }
+            return served++ < batches ? batch : EMPTY;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pratik.optimizationDemo.benchmark;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of {@link ReportDao#rowMapper}, with and without identifier
+ * interning.
+ *
+ * The ResultSet is an in-memory proxy, so this measures only the mapping
+ * and the MetricAggregate allocation, not the driver. The proxy hands out
+ * fresh Strings on every call, as a real driver does; the interned variant
+ * pays a dictionary lookup per id in exchange for not retaining them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private final RowMapper<MetricAggregate> plainMapper =
+            ReportDao.rowMapper(IdentifierDictionaries.disabled());
+    private final RowMapper<MetricAggregate> internedMapper = ReportDao.rowMapper(
+            new IdentifierDictionaries(new ReportProperties(),
+                    new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties())));
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        Map<String, Long> longs = Map.of("passed", 42L, "failed", 7L, "error", 1L);
+
+        resultSet = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getString" -> "item_id".equals(args[0])
+                            ? new String("I-000123")
+                            : new String("D002");
+                    case "getLong" -> longs.get((String) args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public MetricAggregate mapRow() throws SQLException {
+        return plainMapper.mapRow(resultSet, 0);
+    }
+
+    @Benchmark
+    public MetricAggregate mapRowInterned() throws SQLException {
+        return internedMapper.mapRow(resultSet, 0);
+    }
+}
@@ -0,0 +1,11 @@
+-- Same indexes as sql/schema.sql; built once after loading, which is far
+-- cheaper than maintaining them row by row during the bulk insert
+CREATE INDEX idx_entity_catalog_group_item ON entity_catalog (group_id, item_id);
+CREATE INDEX idx_entity_catalog_item ON entity_catalog (item_id);
+CREATE INDEX idx_entity_event_tenant_item ON entity_event (tenant_id, item_id);
+CREATE INDEX idx_entity_event_item_dimension ON entity_event (item_id, dimension_id);
+CREATE INDEX idx_entity_event_tenant ON entity_event (tenant_id);
+CREATE INDEX idx_entity_event_updated_at ON entity_event (updated_at);
+CREATE INDEX idx_entity_event_tenant_updated ON entity_event (tenant_id, updated_at);
+CREATE INDEX idx_entity_event_tenant_item_seen ON entity_event (tenant_id, item_id, last_seen_time, dimension_id, status);
+CREATE UNIQUE INDEX uk_entity_event_source ON entity_event (tenant_id, source_id, item_id, dimension_id);
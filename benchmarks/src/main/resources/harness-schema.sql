@@ -0,0 +1,24 @@
+-- =============================================================================
+-- HSQLDB (Oracle syntax mode) version of sql/schema.sql for the load harness
+-- Indexes are created by harness-indexes.sql AFTER the bulk load
+-- =============================================================================
+
+CREATE TABLE entity_catalog (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_id         VARCHAR(50) NOT NULL,
+    group_id        VARCHAR(50) NOT NULL,
+    item_name       VARCHAR(255),
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE entity_event (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    tenant_id       BIGINT NOT NULL,
+    status          TINYINT DEFAULT 0 NOT NULL,
+    last_seen_time  TIMESTAMP,
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -42,7 +42,22 @@ CREATE TABLE entity_event (
     -- This composite index is KEY to the optimization
     INDEX idx_entity_event_tenant_item (tenant_id, item_id),
     INDEX idx_entity_event_item_dimension (item_id, dimension_id),
-    INDEX idx_entity_event_tenant (tenant_id)
+    INDEX idx_entity_event_tenant (tenant_id),
+
+    -- Drives the incremental rollup refresh (updated_at > watermark)
+    INDEX idx_entity_event_updated_at (updated_at),
+
+    -- Drives per-tenant delta reports (tenant_id = ? AND updated_at > since)
+    INDEX idx_entity_event_tenant_updated (tenant_id, updated_at),
+
+    -- Drives trend reports: per item, a range scan over just the time
+    -- window; dimension_id and status are covered, so TRUNC bucketing
+    -- never visits the table
+    INDEX idx_entity_event_tenant_item_seen (tenant_id, item_id, last_seen_time, dimension_id, status),
+
+    -- One row per scanner result; the ingestion MERGE matches on it
+    -- (see EventIngestDao)
+    UNIQUE KEY uk_entity_event_source (tenant_id, source_id, item_id, dimension_id)
 );
 
 -- -----------------------------------------------------------------------------
@@ -69,6 +84,53 @@ CREATE TABLE group_def (
     created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- -----------------------------------------------------------------------------
+-- Table: entity_event_rollup
+-- Pre-aggregated pass/fail/error counts per tenant-item-dimension
+-- One row per combination: ~items x dimensions, independent of event volume
+-- Maintained incrementally from entity_event.updated_at (see RollupService)
+-- -----------------------------------------------------------------------------
+CREATE TABLE entity_event_rollup (
+    tenant_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    passed          BIGINT NOT NULL DEFAULT 0,
+    failed          BIGINT NOT NULL DEFAULT 0,
+    error           BIGINT NOT NULL DEFAULT 0,
+    refreshed_at    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- Same leading columns as idx_entity_event_tenant_item, so the rollup
+    -- read path joins to entity_catalog exactly like the optimized query
+    PRIMARY KEY (tenant_id, item_id, dimension_id)
+);
+
+-- -----------------------------------------------------------------------------
+-- Table: rollup_watermark
+-- Highest entity_event.updated_at already folded into a rollup
+-- -----------------------------------------------------------------------------
+CREATE TABLE rollup_watermark (
+    rollup_name     VARCHAR(50) PRIMARY KEY,
+    last_updated_at TIMESTAMP NOT NULL
+);
+
+-- -----------------------------------------------------------------------------
+-- Table: entity_event_counter
+-- Checkpoint of the in-memory write-through counters (see EventCounterService)
+-- Same shape as entity_event_rollup; its watermark is the rollup_watermark
+-- row 'entity_event_counter'
+-- -----------------------------------------------------------------------------
+CREATE TABLE entity_event_counter (
+    tenant_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    passed          BIGINT NOT NULL DEFAULT 0,
+    failed          BIGINT NOT NULL DEFAULT 0,
+    error           BIGINT NOT NULL DEFAULT 0,
+    checkpointed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (tenant_id, item_id, dimension_id)
+);
+
 -- =============================================================================
 -- INDEX ANALYSIS NOTES
 -- =============================================================================
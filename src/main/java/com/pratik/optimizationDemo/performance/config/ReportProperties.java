@@ -0,0 +1,304 @@
+package com.pratik.optimizationDemo.performance.config;
+
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tunables for report generation, bound from the {@code report.*} namespace
+ * in application.yaml.
+ */
+@Data
+@ConfigurationProperties(prefix = "report")
+public class ReportProperties {
+
+    private final Prefetch prefetch = new Prefetch();
+
+    private final Parallel parallel = new Parallel();
+
+    private final Execution execution = new Execution();
+
+    private final Rollup rollup = new Rollup();
+
+    private final Cache cache = new Cache();
+
+    private final Delta delta = new Delta();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Adaptive adaptive = new Adaptive();
+
+    private final Interning interning = new Interning();
+
+    private final Jobs jobs = new Jobs();
+
+    private final Checkpoint checkpoint = new Checkpoint();
+
+    private final Ingest ingest = new Ingest();
+
+    private final Counters counters = new Counters();
+
+    private final Sql sql = new Sql();
+
+    private final Plans plans = new Plans();
+
+    private final SlowQueries slowQueries = new SlowQueries();
+
+    @Data
+    public static class Prefetch {
+
+        // Batches fetched ahead of the consumer. 1 already overlaps the next
+        // query with the current callback; higher values absorb jitter at the
+        // cost of holding more batches in memory. Streaming reports, exports
+        // and report jobs all use the pipeline; 0 runs them serially.
+        private int depth = 2;
+
+        // Upper bound on concurrently running prefetch producers.
+        // When exhausted, pipelined reports fall back to the serial loop.
+        private int maxConcurrentPipelines = 8;
+    }
+
+    @Data
+    public static class Parallel {
+
+        // Number of item_id ranges a group is split into.
+        private int partitions = 8;
+
+        // Worker threads shared by all parallel reports. Each worker holds
+        // one DB connection while its query runs, so keep this well below
+        // the connection pool size.
+        private int maxWorkers = 8;
+
+        // Groups smaller than this per partition are not worth splitting.
+        private int minItemsPerPartition = 10_000;
+    }
+
+    @Data
+    public static class Execution {
+
+        // PLATFORM runs report endpoints on the servlet request thread (the
+        // original behaviour). VIRTUAL releases the request thread and runs
+        // the report on a virtual thread; requires a Java 21+ runtime.
+        // VIRTUAL responses are async requests and end after
+        // spring.mvc.async.request-timeout, not the container's 30s default.
+        private Mode mode = Mode.PLATFORM;
+
+        // Reports allowed to run DB work at the same time, across all
+        // endpoints. Keep below the connection pool size.
+        private int maxConcurrentDbWork = 16;
+
+        // How long a report waits for a slot before failing with 503.
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+
+        // How long /report/stream and /report/export may keep writing before
+        // the container ends the response. Replaces
+        // spring.mvc.async.request-timeout for the download only, since full
+        // exports outlive it; 0 means no limit.
+        private Duration streamTimeout = Duration.ofHours(1);
+
+        public enum Mode {
+            PLATFORM,
+            VIRTUAL
+        }
+    }
+
+    @Data
+    public static class Rollup {
+
+        // Run the scheduled incremental refresh (see RollupRefreshJob).
+        private boolean refreshEnabled = false;
+
+        // Delay between the end of one refresh and the start of the next.
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        // Maximum span of updated_at folded in by a single refresh.
+        private Duration maxWindow = Duration.ofHours(6);
+
+        // How far before the watermark each refresh starts recounting.
+        // An updated_at at or just before the watermark can become visible
+        // after the watermark was taken: it shares the watermark's second
+        // (TIMESTAMP precision is one second on MySQL) or its writer's
+        // transaction was still open. The margin must cover both. The delta
+        // and counter recount margins are sized the same way.
+        private Duration recountMargin = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Cache {
+
+        // Serve /report/optimized through CachedReportService.
+        private boolean enabled = false;
+
+        // How long a report stays valid after it was generated.
+        private Duration ttl = Duration.ofSeconds(60);
+
+        // Total rows held across all cached reports; large reports evict
+        // many small ones rather than blowing the heap.
+        private long maxRows = 2_000_000;
+    }
+
+    @Data
+    public static class Delta {
+
+        // How far before the newest change a delta's returned watermark is
+        // placed, so the next delta reports that stretch again. Sized like
+        // rollup.recount-margin.
+        private Duration recountMargin = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Metrics {
+
+        // Distinct (tenant, group) pairs that get their own tag values; later
+        // ones are reported as tenant=other, group=other to bound time-series
+        // cardinality. One budget for the pair, because every pair is its own
+        // series on every tenant-tagged meter.
+        private int maxTenantGroupTags = 200;
+    }
+
+    @Data
+    public static class Adaptive {
+
+        // Let reports without an explicit batch size tune it per tenant.
+        private boolean enabled = false;
+
+        // Latency each keyset batch should take.
+        private Duration targetBatchLatency = Duration.ofMillis(500);
+
+        private int minBatchSize = 100;
+
+        private int maxBatchSize = 10_000;
+
+        // Tenants whose learned batch size is remembered between reports.
+        private int maxRememberedTenants = 10_000;
+    }
+
+    @Data
+    public static class Interning {
+
+        // Deduplicate item_id / dimension_id Strings while mapping rows.
+        private boolean enabled = true;
+
+        // Item ids kept canonical; beyond this, ids are evicted.
+        private long maxItemIds = 500_000;
+
+        private long maxDimensionIds = 10_000;
+    }
+
+    @Data
+    public static class Jobs {
+
+        // Background report jobs running at the same time.
+        private int workers = 4;
+
+        // Jobs waiting for a worker; further submissions are rejected (503).
+        private int queueCapacity = 50;
+
+        // Where finished reports are spooled; empty = <java.io.tmpdir>/report-jobs.
+        private String spoolDir = "";
+
+        // Finished jobs and their files are deleted after this long.
+        private Duration retention = Duration.ofHours(1);
+
+        // How often expired jobs are cleaned up.
+        private Duration cleanupInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Checkpoint {
+
+        // Where resumable reports keep their cursor; empty = <java.io.tmpdir>/report-checkpoints.
+        private String dir = "";
+
+        // Commit output and save the cursor every N batches. Lower = less
+        // work repeated after a failure, more flushes while running.
+        private int everyBatches = 10;
+    }
+
+    @Data
+    public static class Ingest {
+
+        // Submissions buffered between the endpoint and the flusher. When
+        // full, submissions are rejected with 429 instead of queueing
+        // unboundedly in memory.
+        private int queueCapacity = 100_000;
+
+        // Submissions accepted per request; larger requests are rejected
+        // with 400 so one client cannot take the whole queue at once.
+        private int maxRequestSize = 10_000;
+
+        // A flush is written when this many submissions are buffered...
+        private int batchSize = 1_000;
+
+        // ...or when the oldest buffered submission has waited this long.
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        // Attempts per flush before its rows are dropped and counted.
+        private int maxAttempts = 3;
+
+        private Duration retryBackoff = Duration.ofMillis(500);
+
+        // How long shutdown waits for the queue to drain.
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Counters {
+
+        // Keep write-through counters of ingested events in memory and serve
+        // /report/counters from them. Needs the entity_event_counter table.
+        private boolean enabled = false;
+
+        // Independently locked partitions of the counter map.
+        private int shards = 64;
+
+        // How often changed counters are written to entity_event_counter.
+        // Longer = fewer writes, more events to recount after a crash.
+        private Duration checkpointInterval = Duration.ofMinutes(1);
+
+        // How far before the checkpoint watermark recovery starts recounting.
+        // Sized like rollup.recount-margin, with the ingestion flush as the
+        // writer transaction.
+        private Duration recountMargin = Duration.ofSeconds(30);
+
+        // Counter rows per checkpoint JDBC batch.
+        private int checkpointBatchSize = 1_000;
+    }
+
+    @Data
+    public static class Sql {
+
+        // Database the report SQL is rendered for. Empty = detected from the
+        // DataSource at startup (see SqlDialectConfig).
+        private SqlDialect dialect;
+    }
+
+    @Data
+    public static class Plans {
+
+        // EXPLAIN the guarded report queries once the application is ready.
+        // Off by default: hard-parsing at every start is wasted work when
+        // nobody watches the result.
+        private boolean checkOnStartup = false;
+
+        // Bind values the queries are explained with. Plans can depend on
+        // them (histograms, bind peeking), so pick a large, typical tenant.
+        private long sampleTenantId = 1001L;
+        private String sampleGroupId = "G001";
+        private int sampleLimit = 1_000;
+    }
+
+    @Data
+    public static class SlowQueries {
+
+        // Record ReportDao queries slower than the threshold.
+        private boolean enabled = true;
+
+        private Duration threshold = Duration.ofSeconds(1);
+
+        // Slow queries kept in memory; the oldest are dropped first.
+        private int capacity = 200;
+    }
+}
@@ -0,0 +1,29 @@
+package com.pratik.optimizationDemo.performance.config;
+
+import com.pratik.optimizationDemo.performance.controller.StreamTimeoutInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Async request handling for the report endpoints.
+ *
+ * Report downloads outlive spring.mvc.async.request-timeout, so the dispatch
+ * writing their body gets report.execution.stream-timeout instead (see
+ * StreamTimeoutInterceptor). Every other async phase keeps the normal
+ * timeout.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReportWebConfig implements WebMvcConfigurer {
+
+    private final ReportProperties properties;
+
+    public ReportWebConfig(ReportProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new StreamTimeoutInterceptor(properties));
+    }
+}
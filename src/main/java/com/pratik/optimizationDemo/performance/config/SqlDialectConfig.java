@@ -0,0 +1,47 @@
+package com.pratik.optimizationDemo.performance.config;
+
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Chooses the SqlDialect every DAO renders its SQL with.
+ *
+ * report.sql.dialect wins when set. Otherwise the database is identified
+ * from the DataSource's metadata once at startup; if that fails (database
+ * down, unknown product) the Oracle dialect the queries were originally
+ * written for is used.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SqlDialectConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlDialectConfig.class);
+
+    @Bean
+    public SqlDialect sqlDialect(ReportProperties properties, DataSource dataSource) {
+        SqlDialect configured = properties.getSql().getDialect();
+        if (configured != null) {
+            log.info("Using configured SQL dialect {}", configured);
+            return configured;
+        }
+
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+            SqlDialect detected = SqlDialect.fromProductName(product);
+            log.info("Detected SQL dialect {} for {}", detected, product);
+            return detected;
+        } catch (MetaDataAccessException | IllegalArgumentException e) {
+            log.warn("Could not detect the SQL dialect, falling back to {}: {}",
+                    SqlDialect.ORACLE, e.getMessage());
+            return SqlDialect.ORACLE;
+        }
+    }
+}
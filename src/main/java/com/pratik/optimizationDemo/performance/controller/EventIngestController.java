@@ -0,0 +1,42 @@
+package com.pratik.optimizationDemo.performance.controller;
+
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import com.pratik.optimizationDemo.performance.service.EventIngestService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk submission of scanner results.
+ *
+ * <pre>
+ * POST /performance/events   [ {sourceId, itemId, dimensionId, tenantId, status, lastSeenTime}, ... ]
+ *   202  all accepted, written asynchronously within report.ingest.flush-interval
+ *   400  invalid submission or too many per request, nothing accepted
+ *   429  queue full, nothing accepted; retry with backoff
+ *   503  ingestion not running
+ * </pre>
+ */
+@RestController
+@RequestMapping("/performance/events")
+public class EventIngestController {
+
+    private final EventIngestService eventIngestService;
+
+    public EventIngestController(EventIngestService eventIngestService) {
+        this.eventIngestService = eventIngestService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody List<EventSubmission> submissions) {
+        int accepted = eventIngestService.submit(submissions);
+        return ResponseEntity.accepted().body(Map.of(
+                "accepted", accepted,
+                "buffered", eventIngestService.buffered()));
+    }
+}
@@ -1,26 +1,88 @@
 package com.pratik.optimizationDemo.performance.controller;
 
 import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.export.MetricAggregateWriter;
+import com.pratik.optimizationDemo.performance.export.ReportFormat;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.DeltaReport;
 import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.RollupRefresh;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.service.AllGroupsReportService;
+import com.pratik.optimizationDemo.performance.service.CachedReportService;
+import com.pratik.optimizationDemo.performance.service.CounterReportService;
+import com.pratik.optimizationDemo.performance.service.ParallelReportService;
+import com.pratik.optimizationDemo.performance.service.ReportExecutor;
 import com.pratik.optimizationDemo.performance.service.ReportService;
+import com.pratik.optimizationDemo.performance.service.RollupService;
+import com.pratik.optimizationDemo.performance.service.WorstItemsReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/performance")
 public class PerformanceTestController {
 
+    static final String LAST_ITEM_ID_HEADER = "X-Last-Item-Id";
+    static final String ITEM_COUNT_HEADER = "X-Item-Count";
+
     private final ReportDao reportDao;
     private final ReportService reportService;
+    private final ParallelReportService parallelReportService;
+    private final ReportExecutor reportExecutor;
+    private final RollupService rollupService;
+    private final CachedReportService cachedReportService;
+    private final AllGroupsReportService allGroupsReportService;
+    private final WorstItemsReportService worstItemsReportService;
+    private final CounterReportService counterReportService;
+    private final ReportProperties properties;
 
-    public PerformanceTestController(ReportDao reportDao, ReportService reportService) {
+    public PerformanceTestController(
+            ReportDao reportDao,
+            ReportService reportService,
+            ParallelReportService parallelReportService,
+            ReportExecutor reportExecutor,
+            RollupService rollupService,
+            CachedReportService cachedReportService,
+            AllGroupsReportService allGroupsReportService,
+            WorstItemsReportService worstItemsReportService,
+            CounterReportService counterReportService,
+            ReportProperties properties) {
         this.reportDao = reportDao;
         this.reportService = reportService;
+        this.parallelReportService = parallelReportService;
+        this.reportExecutor = reportExecutor;
+        this.rollupService = rollupService;
+        this.cachedReportService = cachedReportService;
+        this.allGroupsReportService = allGroupsReportService;
+        this.worstItemsReportService = worstItemsReportService;
+        this.counterReportService = counterReportService;
+        this.properties = properties;
     }
 
     @GetMapping("/health")
@@ -28,6 +90,13 @@ public class PerformanceTestController {
         return ResponseEntity.ok("ok");
     }
 
+    /**
+     * One keyset batch. The cursor travels in headers so the body stays a
+     * plain list: pass X-Last-Item-Id back as lastSeenId for the next batch,
+     * and stop once X-Item-Count is below the limit. Items without events
+     * count towards X-Item-Count but have no rows, so the last row's item_id
+     * is not a safe cursor.
+     */
     @GetMapping("/batch/optimized")
     public ResponseEntity<List<MetricAggregate>> optimizedBatch(
             @RequestParam Long tenantId,
@@ -35,7 +104,13 @@ public class PerformanceTestController {
             @RequestParam(defaultValue = "") String lastSeenId,
             @RequestParam(defaultValue = "1000") int limit) {
 
-        return ResponseEntity.ok(reportDao.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit));
+        AggregateBatch batch = reportDao.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(ITEM_COUNT_HEADER, String.valueOf(batch.itemCount()));
+        if (batch.lastItemId() != null) {
+            response.header(LAST_ITEM_ID_HEADER, batch.lastItemId());
+        }
+        return response.body(batch.rows());
     }
 
     @GetMapping("/batch/slow")
@@ -48,12 +123,286 @@ public class PerformanceTestController {
         return ResponseEntity.ok(reportDao.fetchAggregatesSlow(tenantId, groupId, offset, limit));
     }
 
+    /**
+     * @param batchSize items per keyset batch; when omitted the service picks
+     *                  it (adaptively if report.adaptive.enabled is set)
+     */
     @GetMapping("/report/optimized")
-    public ResponseEntity<List<MetricAggregate>> optimizedReport(
+    public CompletableFuture<ResponseEntity<List<MetricAggregate>>> optimizedReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(required = false) Integer batchSize) {
+
+        if (properties.getCache().isEnabled()) {
+            int cacheBatchSize = batchSize != null ? batchSize : ReportService.DEFAULT_BATCH_SIZE;
+            return reportExecutor.submit(context("report/optimized", tenantId, groupId), () ->
+                    ResponseEntity.ok(cachedReportService.getReport(tenantId, groupId, cacheBatchSize)));
+        }
+        return reportExecutor.submit(context("report/optimized", tenantId, groupId), () ->
+                ResponseEntity.ok(batchSize != null
+                        ? reportService.generateReport(tenantId, groupId, batchSize)
+                        : reportService.generateReport(tenantId, groupId)));
+    }
+
+    @GetMapping("/report/tenants")
+    public CompletableFuture<ResponseEntity<Map<Long, List<MetricAggregate>>>> multiTenantReport(
+            @RequestParam List<Long> tenantIds,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "200") int batchSize) {
+
+        // The tenant list can be thousands long; log its size, not its ids
+        String context = context("report/tenants", null, groupId) + " tenants=" + tenantIds.size();
+        return reportExecutor.submit(context, () ->
+                ResponseEntity.ok(reportService.generateReportForTenants(tenantIds, groupId, batchSize)));
+    }
+
+    @GetMapping("/report/all-groups")
+    public CompletableFuture<ResponseEntity<Map<String, List<MetricAggregate>>>> allGroupsReport(
+            @RequestParam Long tenantId) {
+
+        return reportExecutor.submit(context("report/all-groups", tenantId, null), () ->
+                ResponseEntity.ok(allGroupsReportService.generateReport(tenantId)));
+    }
+
+    /**
+     * @param since watermark returned by the previous call (ISO-8601);
+     *              omit for a full initial sync
+     */
+    @GetMapping("/report/delta")
+    public CompletableFuture<ResponseEntity<DeltaReport>> deltaReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(required = false) Instant since,
+            @RequestParam(defaultValue = "1000") int batchSize) {
+
+        return reportExecutor.submit(context("report/delta", tenantId, groupId), () ->
+                ResponseEntity.ok(reportService.generateDeltaReport(tenantId, groupId, since, batchSize)));
+    }
+
+    @GetMapping("/report/counters")
+    public CompletableFuture<ResponseEntity<List<MetricAggregate>>> counterReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "1000") int batchSize) {
+
+        return reportExecutor.submit(context("report/counters", tenantId, groupId), () -> ResponseEntity.ok(
+                counterReportService.generateReport(tenantId, groupId, batchSize)));
+    }
+
+    @GetMapping("/report/worst")
+    public CompletableFuture<ResponseEntity<List<MetricAggregate>>> worstItems(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "1000") int batchSize) {
+
+        return reportExecutor.submit(context("report/worst", tenantId, groupId), () -> ResponseEntity.ok(
+                worstItemsReportService.findWorst(tenantId, groupId, limit, batchSize)));
+    }
+
+    /**
+     * @param from inclusive window start, ISO local date-time (DB time zone)
+     * @param to exclusive window end
+     */
+    @GetMapping("/report/trend")
+    public CompletableFuture<ResponseEntity<List<TrendBucket>>> trendReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "DAY") TrendGranularity granularity,
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(defaultValue = "200") int batchSize) {
+
+        return reportExecutor.submit(context("report/trend", tenantId, groupId), () -> ResponseEntity.ok(
+                reportService.generateTrendReport(tenantId, groupId, granularity, from, to, batchSize)));
+    }
+
+    @GetMapping("/report/cache/stats")
+    public ResponseEntity<Map<String, Object>> reportCacheStats() {
+        return ResponseEntity.ok(cachedReportService.stats());
+    }
+
+    @DeleteMapping("/report/cache")
+    public ResponseEntity<Void> clearReportCache() {
+        cachedReportService.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/report/parallel")
+    public CompletableFuture<ResponseEntity<List<MetricAggregate>>> parallelReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "1000") int batchSize) {
+
+        return reportExecutor.submit(context("report/parallel", tenantId, groupId), () ->
+                ResponseEntity.ok(parallelReportService.generateReport(tenantId, groupId, batchSize)));
+    }
+
+    @GetMapping("/report/rollup")
+    public CompletableFuture<ResponseEntity<List<MetricAggregate>>> rollupReport(
             @RequestParam Long tenantId,
             @RequestParam String groupId,
             @RequestParam(defaultValue = "1000") int batchSize) {
 
-        return ResponseEntity.ok(reportService.generateReport(tenantId, groupId, batchSize));
+        return reportExecutor.submit(context("report/rollup", tenantId, groupId), () ->
+                ResponseEntity.ok(reportService.generateReportFromRollup(tenantId, groupId, batchSize)));
+    }
+
+    @PostMapping("/rollup/refresh")
+    public ResponseEntity<RollupRefresh> refreshRollup() {
+        return ResponseEntity.ok(rollupService.refresh());
+    }
+
+    /**
+     * Streams a full report as NDJSON or CSV without ever holding it in memory.
+     *
+     * Each keyset batch is written to the response as soon as it arrives, so
+     * time-to-first-byte is one batch query and peak heap is a few batches,
+     * whatever the group size. The next batches are fetched while the current
+     * one is written (report.prefetch.depth).
+     *
+     * @param batchSize items per keyset batch; when omitted the service picks
+     *                  it (adaptively if report.adaptive.enabled is set)
+     * @param format NDJSON (default) or CSV
+     * @param flushEveryBatches push buffered rows to the client every N batches
+     * @param acceptEncoding response is gzip-compressed when the client accepts it
+     *                       with a non-zero q-value
+     *
+     * The response runs under report.execution.stream-timeout instead of the
+     * async request timeout of the other report endpoints.
+     */
+    @GetMapping("/report/stream")
+    public ResponseEntity<StreamingResponseBody> streamReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(required = false) Integer batchSize,
+            @RequestParam(defaultValue = "NDJSON") ReportFormat format,
+            @RequestParam(defaultValue = "1") int flushEveryBatches,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding,
+            HttpServletRequest request) {
+
+        StreamTimeoutInterceptor.markDownload(request);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        int flushInterval = Math.max(1, flushEveryBatches);
+
+        StreamingResponseBody body = responseStream -> {
+            // syncFlush so that flush() emits compressed bytes instead of
+            // letting the deflater sit on them until the end of the report
+            OutputStream out = gzip ? new GZIPOutputStream(responseStream, 8192, true) : responseStream;
+
+            try (MetricAggregateWriter writer = new MetricAggregateWriter(format, out)) {
+                int[] batches = {0};
+                Consumer<List<MetricAggregate>> sink = batch -> {
+                    writer.writeBatch(batch);
+                    if (++batches[0] % flushInterval == 0) {
+                        try {
+                            writer.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+                reportExecutor.call(context("report/stream", tenantId, groupId), () -> batchSize != null
+                        ? reportService.generateReportWithCallback(tenantId, groupId, batchSize, sink)
+                        : reportService.generateReportWithCallback(tenantId, groupId, sink));
+            }
+        };
+
+        return attachment(tenantId, groupId, format, gzip).body(body);
+    }
+
+    /**
+     * Builds the full report into a columnar store, then writes it as NDJSON
+     * or CSV.
+     *
+     * Unlike /report/stream, the database work is finished before the first
+     * byte is sent: a failed scan is answered with an error status instead of
+     * a truncated 200, and the report's DB permit is released before a slow
+     * client starts downloading. The columnar store keeps the whole report in
+     * about 20 bytes per row plus its distinct ids.
+     *
+     * The database phase runs under the normal async request timeout; only
+     * the download runs under report.execution.stream-timeout.
+     *
+     * @param batchSize items per keyset batch
+     * @param format NDJSON (default) or CSV
+     * @param acceptEncoding response is gzip-compressed when the client accepts it
+     *                       with a non-zero q-value
+     */
+    @GetMapping("/report/export")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportReport(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "1000") int batchSize,
+            @RequestParam(defaultValue = "NDJSON") ReportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding,
+            HttpServletRequest request) {
+
+        StreamTimeoutInterceptor.markDownload(request);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        return reportExecutor.submit(context("report/export", tenantId, groupId), () -> {
+            ColumnarAggregates rows = reportService.generateColumnarReport(tenantId, groupId, batchSize);
+
+            StreamingResponseBody body = responseStream -> {
+                OutputStream out = gzip ? new GZIPOutputStream(responseStream, 8192) : responseStream;
+                try (MetricAggregateWriter writer = new MetricAggregateWriter(format, out)) {
+                    writer.writeAll(rows);
+                }
+            };
+            return attachment(tenantId, groupId, format, gzip).body(body);
+        });
+    }
+
+    /**
+     * Query context the report's slow queries are logged under.
+     */
+    private static String context(String report, Long tenantId, String groupId) {
+        return report + " tenant=" + tenantId + " group=" + groupId;
+    }
+
+    private static ResponseEntity.BodyBuilder attachment(
+            Long tenantId, String groupId, ReportFormat format, boolean gzip) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("report-" + tenantId + "-" + groupId + "." + format.getFileExtension())
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response;
+    }
+
+    /**
+     * @return whether an Accept-Encoding header allows gzip, honoring q-values:
+     *         "gzip;q=0" refuses it, "*" accepts it unless gzip is listed
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality > 0;
+            }
+        }
+        return wildcard;
     }
 }
@@ -0,0 +1,39 @@
+package com.pratik.optimizationDemo.performance.controller;
+
+import com.pratik.optimizationDemo.performance.model.QueryPlanCheck;
+import com.pratik.optimizationDemo.performance.service.QueryPlanService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Plan regression guard for the report queries.
+ *
+ * <pre>
+ * GET  /performance/plans           latest captured plan per query
+ * POST /performance/plans/capture   EXPLAIN every guarded query now
+ * </pre>
+ */
+@RestController
+@RequestMapping("/performance/plans")
+public class QueryPlanController {
+
+    private final QueryPlanService queryPlanService;
+
+    public QueryPlanController(QueryPlanService queryPlanService) {
+        this.queryPlanService = queryPlanService;
+    }
+
+    @GetMapping
+    public List<QueryPlanCheck> latest() {
+        return queryPlanService.latest();
+    }
+
+    @PostMapping("/capture")
+    public List<QueryPlanCheck> capture() {
+        return queryPlanService.capture();
+    }
+}
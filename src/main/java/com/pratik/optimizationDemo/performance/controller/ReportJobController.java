@@ -0,0 +1,96 @@
+package com.pratik.optimizationDemo.performance.controller;
+
+import com.pratik.optimizationDemo.performance.export.ReportFormat;
+import com.pratik.optimizationDemo.performance.service.ReportJob;
+import com.pratik.optimizationDemo.performance.service.ReportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Background report jobs: submit, poll, download, cancel.
+ *
+ * <pre>
+ * POST   /performance/report/jobs?tenantId=1001&amp;groupId=G001   -> 202 + job
+ * GET    /performance/report/jobs/{id}                           -> job with progress
+ * GET    /performance/report/jobs/{id}/result                    -> file, Range supported
+ * POST   /performance/report/jobs/{id}/resume                    -> 202, failed job continues
+ * DELETE /performance/report/jobs/{id}                           -> cancel / delete
+ * </pre>
+ */
+@RestController
+@RequestMapping("/performance/report/jobs")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJob> submit(
+            @RequestParam Long tenantId,
+            @RequestParam String groupId,
+            @RequestParam(defaultValue = "1000") int batchSize,
+            @RequestParam(defaultValue = "NDJSON") ReportFormat format) {
+
+        ReportJob job = reportJobService.submit(tenantId, groupId, batchSize, format);
+        return ResponseEntity.accepted()
+                .location(URI.create("/performance/report/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJob> status(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.get(jobId));
+    }
+
+    /**
+     * Download a finished report. Returning a Resource lets Spring MVC answer
+     * Range requests with 206 Partial Content.
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Resource> result(@PathVariable String jobId) {
+        Path file = reportJobService.resultFile(jobId);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        ReportJob job = reportJobService.get(jobId);
+        return ResponseEntity.ok()
+                .contentType(job.getFormat().getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("report-" + job.getTenantId() + "-" + job.getGroupId()
+                                + "." + job.getFormat().getFileExtension())
+                        .build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * Continue a failed job from its last checkpoint.
+     */
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ReportJob> resume(@PathVariable String jobId) {
+        return ResponseEntity.accepted().body(reportJobService.resume(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable String jobId) {
+        reportJobService.cancel(jobId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.pratik.optimizationDemo.performance.controller;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs report downloads under report.execution.stream-timeout instead of
+ * spring.mvc.async.request-timeout.
+ *
+ * Spring MVC writes a StreamingResponseBody from a Callable in its own async
+ * dispatch, with a fresh timeout. An endpoint returning
+ * {@code CompletableFuture<ResponseEntity<StreamingResponseBody>>} only sees
+ * the first dispatch, which waits for the database, so the timeout is set
+ * here, when the dispatch that writes the body starts.
+ */
+public class StreamTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private static final String DOWNLOAD = StreamTimeoutInterceptor.class.getName() + ".DOWNLOAD";
+
+    private final ReportProperties.Execution config;
+
+    public StreamTimeoutInterceptor(ReportProperties properties) {
+        this.config = properties.getExecution();
+    }
+
+    /**
+     * Marks {@code request} as a download: the async dispatch that writes its
+     * body runs under the stream timeout.
+     */
+    static void markDownload(HttpServletRequest request) {
+        request.setAttribute(DOWNLOAD, Boolean.TRUE);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(DOWNLOAD, RequestAttributes.SCOPE_REQUEST) == null) {
+            return;
+        }
+        // Runs before the async dispatch starts, so the timeout still applies
+        long timeout = config.getStreamTimeout().toMillis();
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeout > 0 ? timeout : -1);
+    }
+}
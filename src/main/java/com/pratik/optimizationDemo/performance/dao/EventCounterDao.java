@@ -0,0 +1,206 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantAggregate;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Data Access Object for the write-through aggregate counters.
+ *
+ * - Reads the stored status of rows about to be upserted, so the caller can
+ *   turn each write into a decrement of the old status and an increment of
+ *   the new one
+ * - Persists counter checkpoints to entity_event_counter; the checkpoint's
+ *   watermark lives in rollup_watermark under {@link #EVENT_COUNTERS}
+ * - Recounts keys from entity_event to rebuild counters after a restart
+ */
+@Repository
+public class EventCounterDao {
+
+    public static final String EVENT_COUNTERS = "entity_event_counter";
+
+    // 250 keys x 4 binds stays within Oracle's 1000-element IN list limit
+    static final int MAX_KEYS_PER_QUERY = 250;
+
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    // Probes uk_entity_event_source once per key
+    private static final String CURRENT_SQL = """
+        SELECT tenant_id, source_id, item_id, dimension_id, status, last_seen_time
+        FROM entity_event
+        WHERE (tenant_id, source_id, item_id, dimension_id) IN (%s)
+        """;
+
+    private static final String LOAD_SQL = """
+        SELECT tenant_id, item_id, dimension_id, passed, failed, error
+        FROM entity_event_counter
+        """;
+
+    private static final String COUNT_ALL_SQL = """
+        SELECT tenant_id, item_id, dimension_id,
+               {count:status = 1} AS passed,
+               {count:status = 0} AS failed,
+               {count:status = 2} AS error
+        FROM entity_event
+        GROUP BY tenant_id, item_id, dimension_id
+        """;
+
+    // Same key selection as the rollup refresh (see RollupDao)
+    private static final String RECOUNT_CHANGED_SQL = """
+        SELECT e.tenant_id, e.item_id, e.dimension_id,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM entity_event e
+        JOIN (
+            SELECT DISTINCT tenant_id, item_id, dimension_id
+            FROM entity_event
+            WHERE updated_at > ?
+        ) k ON k.tenant_id = e.tenant_id
+           AND k.item_id = e.item_id
+           AND k.dimension_id = e.dimension_id
+        GROUP BY e.tenant_id, e.item_id, e.dimension_id
+        """;
+
+    private static final Upsert SAVE = Upsert.into(EVENT_COUNTERS,
+                    List.of("tenant_id", "item_id", "dimension_id"),
+                    List.of("passed", "failed", "error"))
+            .touching("checkpointed_at");
+
+    /**
+     * Status of an existing entity_event row.
+     */
+    public record StoredStatus(int status, Instant lastSeenTime) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportMetrics metrics;
+    private final SqlDialect dialect;
+    private final String saveSql;
+
+    public EventCounterDao(JdbcTemplate jdbcTemplate, ReportMetrics metrics, SqlDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.dialect = dialect;
+        this.saveSql = dialect.upsert(SAVE);
+    }
+
+    /**
+     * @return stored status per upsert key, for the submissions whose row
+     *         already exists
+     */
+    public Map<EventSubmission.Key, StoredStatus> findCurrentStatuses(List<EventSubmission> submissions) {
+        if (submissions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<EventSubmission.Key, StoredStatus> statuses = new HashMap<>();
+        for (int from = 0; from < submissions.size(); from += MAX_KEYS_PER_QUERY) {
+            List<EventSubmission> chunk = submissions.subList(from,
+                    Math.min(submissions.size(), from + MAX_KEYS_PER_QUERY));
+            String sql = CURRENT_SQL.formatted(String.join(", ",
+                    Collections.nCopies(chunk.size(), "(?, ?, ?, ?)")));
+            List<Object> params = new ArrayList<>(chunk.size() * 4);
+            for (EventSubmission s : chunk) {
+                params.add(s.tenantId());
+                params.add(s.sourceId());
+                params.add(s.itemId());
+                params.add(s.dimensionId());
+            }
+
+            metrics.timeQuery("counter_current", null, null, () -> {
+                jdbcTemplate.query(sql, rs -> {
+                    Timestamp lastSeen = rs.getTimestamp("last_seen_time");
+                    statuses.put(
+                            new EventSubmission.Key(rs.getLong("tenant_id"), rs.getLong("source_id"),
+                                    rs.getString("item_id"), rs.getString("dimension_id")),
+                            new StoredStatus(rs.getInt("status"), lastSeen == null ? null : lastSeen.toInstant()));
+                }, params.toArray());
+                return null;
+            });
+        }
+        return statuses;
+    }
+
+    /**
+     * Streams every row of the last checkpoint.
+     */
+    public void forEachCheckpointed(Consumer<TenantAggregate> action) {
+        stream("counter_load", LOAD_SQL, action);
+    }
+
+    /**
+     * Streams fresh counts for every key with events updated after
+     * {@code since}, or for every key when {@code since} is null.
+     */
+    public void forEachRecount(Timestamp since, Consumer<TenantAggregate> action) {
+        if (since == null) {
+            stream("counter_count_all", COUNT_ALL_SQL, action);
+        } else {
+            stream("counter_recount", RECOUNT_CHANGED_SQL, action, since);
+        }
+    }
+
+    /**
+     * Upserts counter rows into entity_event_counter in one JDBC batch.
+     */
+    public void saveCheckpoint(List<TenantAggregate> entries) {
+        metrics.timeQuery("counter_save", null, null, () ->
+            jdbcTemplate.batchUpdate(saveSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    TenantAggregate entry = entries.get(i);
+                    MetricAggregate a = entry.aggregate();
+                    ps.setLong(1, entry.tenantId());
+                    ps.setString(2, a.getItemId());
+                    ps.setString(3, a.getDimensionId());
+                    ps.setLong(4, a.getPassed());
+                    ps.setLong(5, a.getFailed());
+                    ps.setLong(6, a.getError());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            }));
+    }
+
+    private void stream(String query, String sql, Consumer<TenantAggregate> action, Object... params) {
+        metrics.timeQuery(query, null, null, () -> {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(dialect.render(sql),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(DEFAULT_FETCH_SIZE);
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> action.accept(new TenantAggregate(
+                    rs.getLong("tenant_id"),
+                    new MetricAggregate(
+                            rs.getString("item_id"),
+                            rs.getString("dimension_id"),
+                            rs.getLong("passed"),
+                            rs.getLong("failed"),
+                            rs.getLong("error")))));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Write path for entity_event.
+ *
+ * Every submission is one upsert keyed on uk_entity_event_source
+ * (tenant_id, source_id, item_id, dimension_id), in the database's own
+ * form (see SqlDialect#upsert), sent as a single JDBC
+ * batch per flush: one round trip for the whole batch instead of one per
+ * row.
+ *
+ * The update only applies when the submission is at least as recent as
+ * the stored last_seen_time, so results that arrive out of order never
+ * regress a row. updated_at is set explicitly because the rollup refresh
+ * and delta reports select on it.
+ */
+@Repository
+public class EventIngestDao {
+
+    private static final Upsert UPSERT = Upsert.into("entity_event",
+                    List.of("tenant_id", "source_id", "item_id", "dimension_id"),
+                    List.of("status", "last_seen_time"))
+            .touching("updated_at")
+            .creating("created_at")
+            .onlyIf("{t}.last_seen_time IS NULL OR {t}.last_seen_time <= {s}.last_seen_time");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    public EventIngestDao(JdbcTemplate jdbcTemplate, SqlDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertSql = dialect.upsert(UPSERT);
+    }
+
+    /**
+     * Upserts all submissions in one JDBC batch.
+     *
+     * @param submissions at most one submission per key
+     */
+    public void upsert(List<EventSubmission> submissions) {
+        jdbcTemplate.batchUpdate(upsertSql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EventSubmission s = submissions.get(i);
+                ps.setLong(1, s.tenantId());
+                ps.setLong(2, s.sourceId());
+                ps.setString(3, s.itemId());
+                ps.setString(4, s.dimensionId());
+                ps.setInt(5, s.status());
+                ps.setTimestamp(6, Timestamp.from(s.lastSeenTime()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return submissions.size();
+            }
+        });
+    }
+}
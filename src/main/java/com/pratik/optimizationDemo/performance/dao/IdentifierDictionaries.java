@@ -0,0 +1,54 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * The string dictionaries used when mapping report rows.
+ *
+ * - dimensions: a handful of values (dimension_def), repeated on every item
+ * - items: repeated once per dimension within a report, and across reports
+ *   for the same group
+ *
+ * Sized by report.interning.*; switched off with report.interning.enabled=false.
+ */
+@Component
+public class IdentifierDictionaries {
+
+    private final StringDictionary items;
+    private final StringDictionary dimensions;
+
+    public IdentifierDictionaries(ReportProperties properties, ReportMetrics metrics) {
+        ReportProperties.Interning config = properties.getInterning();
+        if (config.isEnabled()) {
+            this.items = new StringDictionary(config.getMaxItemIds());
+            this.dimensions = new StringDictionary(config.getMaxDimensionIds());
+            metrics.registerDictionary("item", items);
+            metrics.registerDictionary("dimension", dimensions);
+        } else {
+            this.items = StringDictionary.disabled();
+            this.dimensions = StringDictionary.disabled();
+        }
+    }
+
+    private IdentifierDictionaries() {
+        this.items = StringDictionary.disabled();
+        this.dimensions = StringDictionary.disabled();
+    }
+
+    /**
+     * Dictionaries that do not intern, for DAOs created outside Spring.
+     */
+    public static IdentifierDictionaries disabled() {
+        return new IdentifierDictionaries();
+    }
+
+    public StringDictionary items() {
+        return items;
+    }
+
+    public StringDictionary dimensions() {
+        return dimensions;
+    }
+}
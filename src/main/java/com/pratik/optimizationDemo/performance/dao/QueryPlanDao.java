@@ -0,0 +1,158 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.model.QueryPlan;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Captures execution plans of report queries with the database's EXPLAIN.
+ *
+ * EXPLAIN FORM PER DIALECT:
+ * - Oracle      EXPLAIN PLAN into the session's plan_table, read back as
+ *               "OPERATION OPTIONS OBJECT" lines indented by depth
+ * - MySQL       EXPLAIN, one "type on table [using key]" line per row
+ * - PostgreSQL  EXPLAIN text output
+ * - H2          EXPLAIN text output
+ *
+ * Plans are only estimated, never executed, so capturing one costs a hard
+ * parse and no I/O on entity_event.
+ *
+ * FINGERPRINT:
+ * Lines are lower-cased and stripped of cost and row estimates, which move
+ * with every statistics refresh, then hashed. The fingerprint changes only
+ * when access paths, join order or operators do.
+ */
+@Repository
+public class QueryPlanDao {
+
+    public static final String TENANT_ITEM_INDEX = "idx_entity_event_tenant_item";
+
+    private static final String ORACLE_PLAN_SQL = """
+        SELECT LPAD(' ', 2 * depth) || operation || ' ' || options || ' ' || object_name AS step
+        FROM plan_table
+        WHERE statement_id = ?
+        ORDER BY id
+        """;
+
+    // Word boundaries keep idx_entity_event_tenant_item_seen from matching
+    private static final Pattern TENANT_ITEM_INDEX_USE = Pattern.compile("\\b" + TENANT_ITEM_INDEX + "\\b");
+    private static final Pattern POSTGRES_ESTIMATES = Pattern.compile("\\s*\\((cost|rows)=[^)]*\\)");
+    private static final Pattern BIND = Pattern.compile("\\?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialect dialect;
+
+    public QueryPlanDao(JdbcTemplate jdbcTemplate, SqlDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    /**
+     * @return the plan the database would use for {@code query} right now
+     */
+    public QueryPlan explain(ReportDao.ExplainableQuery query) {
+        List<String> steps = switch (dialect) {
+            case ORACLE -> explainOracle(query);
+            case MYSQL -> jdbcTemplate.query("EXPLAIN " + query.sql(), (rs, rowNum) ->
+                    Objects.toString(rs.getString("type"), "-") + " on " + rs.getString("table")
+                            + (rs.getString("key") == null ? "" : " using " + rs.getString("key")),
+                    query.args().toArray());
+            case POSTGRESQL, H2 -> {
+                List<String> lines = new ArrayList<>();
+                jdbcTemplate.query("EXPLAIN " + query.sql(),
+                        rs -> { lines.addAll(rs.getString(1).lines().toList()); },
+                        query.args().toArray());
+                yield lines;
+            }
+        };
+        return analyze(dialect, query, steps);
+    }
+
+    /**
+     * Fingerprints raw plan lines and looks for the access paths the guard
+     * cares about. Package-private so plans of databases the build cannot
+     * run can be tested.
+     */
+    static QueryPlan analyze(SqlDialect dialect, ReportDao.ExplainableQuery query, List<String> steps) {
+        List<String> normalized = steps.stream()
+                .map(step -> POSTGRES_ESTIMATES.matcher(step.toLowerCase(Locale.ROOT)).replaceAll("").stripTrailing())
+                .filter(step -> !step.isBlank())
+                .toList();
+
+        boolean fullScan = false;
+        if (query.eventTable() != null) {
+            Pattern scan = fullScanPattern(dialect, query.eventTable().toLowerCase(Locale.ROOT));
+            fullScan = normalized.stream().anyMatch(step -> scan.matcher(step).find());
+        }
+        boolean indexUsed = normalized.stream().anyMatch(step -> TENANT_ITEM_INDEX_USE.matcher(step).find());
+
+        return new QueryPlan(query.name(), steps, fingerprint(normalized), fullScan, indexUsed, Instant.now());
+    }
+
+    private static Pattern fullScanPattern(SqlDialect dialect, String eventTable) {
+        return Pattern.compile(switch (dialect) {
+            case ORACLE -> "table access full entity_event\\b";
+            // MySQL names tables by their alias in the query
+            case MYSQL -> "^all on " + Pattern.quote(eventTable) + "$";
+            case POSTGRESQL -> "seq scan on entity_event\\b";
+            case H2 -> "entity_event\\.tablescan\\b";
+        });
+    }
+
+    private List<String> explainOracle(ReportDao.ExplainableQuery query) {
+        // plan_table is a session-private temporary table: write and read it
+        // on the same connection
+        String statementId = "report-" + query.name();
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) con -> {
+            try (Statement delete = con.createStatement();
+                 Statement explain = con.createStatement()) {
+                delete.execute("DELETE FROM plan_table WHERE statement_id = '" + statementId + "'");
+                // EXPLAIN PLAN takes no bind values; Oracle plans named
+                // placeholders as unknown binds
+                explain.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR "
+                        + namedBinds(query.sql()));
+            }
+            List<String> steps = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(ORACLE_PLAN_SQL)) {
+                ps.setString(1, statementId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        steps.add(rs.getString("step"));
+                    }
+                }
+            }
+            return steps;
+        });
+    }
+
+    private static String namedBinds(String sql) {
+        int[] next = {0};
+        return BIND.matcher(sql).replaceAll(m -> ":b" + (++next[0]));
+    }
+
+    private static String fingerprint(List<String> normalized) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join("\n", normalized).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
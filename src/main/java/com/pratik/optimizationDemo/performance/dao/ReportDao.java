@@ -1,11 +1,34 @@
 package com.pratik.optimizationDemo.performance.dao;
 
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.KeysetPage;
 import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for compliance reporting queries.
@@ -24,19 +47,319 @@ import java.util.List;
 @Repository
 public class ReportDao {
 
-    private final JdbcTemplate jdbcTemplate;
+    // Rows pulled from the server per round-trip when streaming.
+    // Oracle's driver default is 10, which turns a 50K-row batch into 5K round-trips.
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    // Oracle rejects IN lists with more than 1000 expressions (ORA-01795)
+    public static final int MAX_TENANTS_PER_QUERY = 1000;
+
+    // BAD PATTERN: IN subquery + OFFSET pagination
+    // The optimizer cannot efficiently plan this query and performance
+    // degrades as OFFSET grows.
+    // MySQL rejects LIMIT inside an IN subquery, so this one does not run there.
+    private static final String SLOW_SQL = """
+        SELECT item_id, dimension_id,
+               {count:status = 1} AS passed,
+               {count:status = 0} AS failed,
+               {count:status = 2} AS error
+        FROM entity_event
+        WHERE tenant_id = ?
+          AND item_id IN (
+              SELECT DISTINCT item_id
+              FROM entity_catalog
+              WHERE group_id = ?
+              ORDER BY item_id
+              {offset_limit}
+          )
+        GROUP BY item_id, dimension_id
+        ORDER BY item_id
+        """;
+
+    // GOOD PATTERN: JOIN with derived table
+    // The optimizer can now use index nested loop join efficiently
+    //
+    // The LEFT JOIN keeps catalog items the tenant has no events for
+    // (dimension_id NULL), so the batch always reports how far the cursor
+    // really moved; see aggregateBatch().
+    //
+    // Queries are SqlDialect templates: {limit}, {count:...} and {hint:...}
+    // are rendered per database by render(), once per statement.
+    private static final String OPTIMIZED_SQL = """
+        SELECT {hint:INDEX(e idx_entity_event_tenant_item)} c.item_id, e.dimension_id,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM (
+            SELECT item_id
+            FROM entity_catalog
+            WHERE group_id = ?
+              AND item_id > ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
+        ) c
+        LEFT JOIN entity_event e
+               ON e.item_id = c.item_id
+              AND e.tenant_id = ?
+        GROUP BY c.item_id, e.dimension_id
+        ORDER BY c.item_id
+        """;
+
+    // Same plan as OPTIMIZED_SQL, bounded above so independent workers can
+    // each walk their own slice of the item_id keyspace.
+    private static final String RANGE_SQL = """
+        SELECT {hint:INDEX(e idx_entity_event_tenant_item)} c.item_id, e.dimension_id,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM (
+            SELECT item_id
+            FROM entity_catalog
+            WHERE group_id = ?
+              AND item_id > ?
+              AND item_id <= ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
+        ) c
+        LEFT JOIN entity_event e
+               ON e.item_id = c.item_id
+              AND e.tenant_id = ?
+        GROUP BY c.item_id, e.dimension_id
+        ORDER BY c.item_id
+        """;
+
+    // Same keyset shape as OPTIMIZED_SQL, but reads pre-aggregated counts.
+    // Cost scales with items x dimensions, not with the number of events.
+    private static final String ROLLUP_SQL = """
+        SELECT c.item_id, r.dimension_id, r.passed, r.failed, r.error
+        FROM (
+            SELECT item_id
+            FROM entity_catalog
+            WHERE group_id = ?
+              AND item_id > ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
+        ) c
+        LEFT JOIN entity_event_rollup r
+               ON r.item_id = c.item_id
+              AND r.tenant_id = ?
+        ORDER BY c.item_id, r.dimension_id
+        """;
+
+    // Same catalog page as OPTIMIZED_SQL, aggregated for several tenants at
+    // once. The LEFT JOIN keeps catalog items nobody has events for (tenant_id
+    // NULL), so the batch always reports how far the cursor really moved.
+    // %s is the tenant IN list placeholder, one ? per tenant.
+    private static final String MULTI_TENANT_SQL = """
+        SELECT c.item_id, e.tenant_id, e.dimension_id,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM (
+            SELECT item_id
+            FROM entity_catalog
+            WHERE group_id = ?
+              AND item_id > ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
+        ) c
+        LEFT JOIN entity_event e
+               ON e.item_id = c.item_id
+              AND e.tenant_id IN (%s)
+        GROUP BY c.item_id, e.tenant_id, e.dimension_id
+        ORDER BY c.item_id, e.tenant_id
+        """;
+
+    // Every item-dimension aggregate of one tenant, independent of groups.
+    // Served by idx_entity_event_tenant_item in item_id order, so no sort.
+    private static final String TENANT_SCAN_SQL = """
+        SELECT item_id, dimension_id,
+               {count:status = 1} AS passed,
+               {count:status = 0} AS failed,
+               {count:status = 2} AS error
+        FROM entity_event
+        WHERE tenant_id = ?
+        GROUP BY item_id, dimension_id
+        ORDER BY item_id
+        """;
+
+    // Keyset page over the group's items with events updated in (?, ?],
+    // recounted in full. HAVING keeps only the dimensions that changed.
+    // The inner page is served by idx_entity_event_tenant_updated, the
+    // recount by idx_entity_event_tenant_item.
+    private static final String DELTA_SQL = """
+        SELECT e.item_id, e.dimension_id,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM entity_event e
+        JOIN (
+            SELECT ch.item_id
+            FROM entity_event ch
+            WHERE ch.tenant_id = ?
+              AND ch.updated_at > ?
+              AND ch.updated_at <= ?
+              AND ch.item_id > ?
+              AND EXISTS (
+                  SELECT 1
+                  FROM entity_catalog c
+                  WHERE c.group_id = ?
+                    AND c.item_id = ch.item_id
+              )
+            GROUP BY ch.item_id
+            ORDER BY ch.item_id
+            {limit}
+        ) k ON k.item_id = e.item_id
+        WHERE e.tenant_id = ?
+        GROUP BY e.item_id, e.dimension_id
+        HAVING {count:e.updated_at > ? AND e.updated_at <= ?} > 0
+        ORDER BY e.item_id, e.dimension_id
+        """;
+
+    // Same catalog page as OPTIMIZED_SQL, counted per truncated last_seen_time
+    // bucket. The time window sits in the LEFT JOIN so items without events
+    // in it still advance the cursor. %1$s is the dialect's truncation of
+    // last_seen_time to the granularity (built from enum constants, never
+    // user input).
+    // Served by idx_entity_event_tenant_item_seen: one range scan per item
+    // over just the window, with dimension_id and status read from the index.
+    private static final String TREND_SQL = """
+        SELECT c.item_id, e.dimension_id,
+               %1$s AS bucket_start,
+               {count:e.status = 1} AS passed,
+               {count:e.status = 0} AS failed,
+               {count:e.status = 2} AS error
+        FROM (
+            SELECT item_id
+            FROM entity_catalog
+            WHERE group_id = ?
+              AND item_id > ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
+        ) c
+        LEFT JOIN entity_event e
+               ON e.item_id = c.item_id
+              AND e.tenant_id = ?
+              AND e.last_seen_time >= ?
+              AND e.last_seen_time < ?
+        GROUP BY c.item_id, e.dimension_id, %1$s
+        ORDER BY c.item_id, e.dimension_id, bucket_start
+        """;
+
+    private static final String ITEM_COUNT_SQL = """
+        SELECT COUNT(DISTINCT item_id)
+        FROM entity_catalog
+        WHERE group_id = ?
+        """;
 
-    private static final RowMapper<MetricAggregate> ROW_MAPPER = (rs, rowNum) ->
-        new MetricAggregate(
-            rs.getString("item_id"),
-            rs.getString("dimension_id"),
-            rs.getLong("passed"),
-            rs.getLong("failed"),
-            rs.getLong("error")
-        );
+    /**
+     * A report query as executed, with sample binds, for EXPLAIN.
+     *
+     * @param name query name, as used for the report.query metric
+     * @param eventTable how the query refers to entity_event (alias or table
+     *                   name), or null if it does not read entity_event
+     * @param tenantItemIndexed whether the plan must probe entity_event via
+     *                          idx_entity_event_tenant_item
+     */
+    public record ExplainableQuery(
+            String name, String sql, List<Object> args, String eventTable, boolean tenantItemIndexed) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportMetrics metrics;
+    private final IdentifierDictionaries dictionaries;
+    private final SqlDialect dialect;
+    private final SlowQueryLog slowQueryLog;
+    private final RowMapper<MetricAggregate> rowMapper;
 
-    public ReportDao(JdbcTemplate jdbcTemplate) {
+    public ReportDao(
+            JdbcTemplate jdbcTemplate,
+            ReportMetrics metrics,
+            IdentifierDictionaries dictionaries,
+            SqlDialect dialect,
+            SlowQueryLog slowQueryLog) {
         this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.dictionaries = dictionaries;
+        this.dialect = dialect;
+        this.slowQueryLog = slowQueryLog;
+        this.rowMapper = rowMapper(dictionaries);
+    }
+
+    private String render(String template) {
+        return dialect.render(template);
+    }
+
+    /**
+     * Runs one query under the report.query timer and the slow query log.
+     *
+     * @param binds bind values for the slow query log, as name, value pairs
+     */
+    private <T> T timed(String query, Long tenantId, String groupId,
+                        Function<SlowQueryLog.Trace, T> call, Object... binds) {
+        SlowQueryLog.Trace trace = slowQueryLog.start(query, binds);
+        T result;
+        try {
+            result = metrics.timeQuery(query, tenantId, groupId, () -> call.apply(trace));
+        } catch (RuntimeException e) {
+            slowQueryLog.finish(trace, e);
+            throw e;
+        }
+        slowQueryLog.finish(trace, null);
+        return result;
+    }
+
+    /**
+     * Maps one aggregate row, replacing the driver's fresh id Strings with
+     * canonical instances so large reports retain each id only once.
+     *
+     * Needs only a ResultSet positioned on an aggregate row, so it can be
+     * measured without a database (see the benchmarks module).
+     */
+    public static RowMapper<MetricAggregate> rowMapper(IdentifierDictionaries dictionaries) {
+        StringDictionary items = dictionaries.items();
+        StringDictionary dimensions = dictionaries.dimensions();
+        return (rs, rowNum) ->
+            new MetricAggregate(
+                items.intern(rs.getString("item_id")),
+                dimensions.intern(rs.getString("dimension_id")),
+                rs.getLong("passed"),
+                rs.getLong("failed"),
+                rs.getLong("error")
+            );
+    }
+
+    /**
+     * Runs a LEFT JOINed keyset page and collects it into a batch.
+     *
+     * Catalog items without events come back as one row with a NULL
+     * dimension_id: they count towards the page and move the cursor, but
+     * are not returned as aggregates.
+     */
+    private AggregateBatch aggregateBatch(SlowQueryLog.Trace trace, String sql, Object... args) {
+        List<MetricAggregate> rows = new ArrayList<>();
+        int[] itemCount = {0};
+        String[] lastItemId = {null};
+
+        jdbcTemplate.query(sql, trace.handler(rs -> {
+            String itemId = rs.getString("item_id");
+            if (!itemId.equals(lastItemId[0])) {
+                itemCount[0]++;
+                lastItemId[0] = itemId;
+            }
+            if (rs.getString("dimension_id") == null) {
+                // Catalog item without events for the tenant
+                return;
+            }
+            rows.add(rowMapper.mapRow(rs, 0));
+        }), args);
+
+        return new AggregateBatch(rows, itemCount[0], lastItemId[0]);
     }
 
     // =========================================================================
@@ -68,30 +391,10 @@ public class ReportDao {
             int offset,
             int limit) {
 
-        // BAD PATTERN: IN subquery + OFFSET pagination
-        // The optimizer cannot efficiently plan this query and performance
-        // degrades as OFFSET grows.
-        String sql = """
-            SELECT item_id, dimension_id,
-                   COUNT(CASE WHEN status = 1 THEN 1 END) AS passed,
-                   COUNT(CASE WHEN status = 0 THEN 1 END) AS failed,
-                   COUNT(CASE WHEN status = 2 THEN 1 END) AS error
-            FROM entity_event
-            WHERE tenant_id = ?
-              AND item_id IN (
-                  SELECT DISTINCT item_id
-                  FROM entity_catalog
-                  WHERE group_id = ?
-                  ORDER BY item_id
-                  OFFSET ? ROWS
-                  FETCH NEXT ? ROWS ONLY
-              )
-            GROUP BY item_id, dimension_id
-            ORDER BY item_id
-            """;
-
-        return jdbcTemplate.query(sql, ROW_MAPPER,
-            tenantId, groupId, offset, limit);
+        return timed("slow", tenantId, groupId, trace ->
+            jdbcTemplate.query(render(SLOW_SQL), trace.mapper(rowMapper),
+                tenantId, groupId, offset, limit),
+            "tenantId", tenantId, "groupId", groupId, "offset", offset, "limit", limit);
     }
 
     // =========================================================================
@@ -128,48 +431,496 @@ public class ReportDao {
      * @param groupId the group ID
      * @param lastSeenId the last item_id from previous batch (for pagination)
      * @param limit maximum number of items to process in this batch
-     * @return list of aggregated statistics per item-dimension combination
+     * @return aggregated statistics per item-dimension combination plus the
+     *         cursor for the next batch
+     */
+    public AggregateBatch fetchAggregatesOptimized(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            int limit) {
+
+        return timed("optimized", tenantId, groupId, trace ->
+            aggregateBatch(trace, render(OPTIMIZED_SQL), groupId, dialect.cursor(lastSeenId), limit, tenantId),
+            "tenantId", tenantId, "groupId", groupId, "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * Same keyset batch as {@link #fetchAggregatesOptimized}, appended
+     * straight into a columnar store.
+     *
+     * Values go from the result set into the store's arrays without
+     * creating a MetricAggregate per row.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of items to process in this batch
+     * @param target store the rows are appended to
+     * @return the items covered and the cursor for the next batch
+     */
+    public KeysetPage fetchAggregatesOptimizedInto(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            int limit,
+            ColumnarAggregates target) {
+
+        return timed("optimized", tenantId, groupId, trace -> {
+            int[] itemCount = {0};
+            String[] lastItemId = {null};
+
+            jdbcTemplate.query(render(OPTIMIZED_SQL), trace.handler(rs -> {
+                String itemId = rs.getString("item_id");
+                if (!itemId.equals(lastItemId[0])) {
+                    itemCount[0]++;
+                    lastItemId[0] = itemId;
+                }
+                String dimensionId = rs.getString("dimension_id");
+                if (dimensionId == null) {
+                    // Catalog item without events for the tenant
+                    return;
+                }
+                target.add(
+                    itemId,
+                    dimensionId,
+                    rs.getLong("passed"),
+                    rs.getLong("failed"),
+                    rs.getLong("error"));
+            }), groupId, dialect.cursor(lastSeenId), limit, tenantId);
+
+            return new KeysetPage(itemCount[0], lastItemId[0]);
+        }, "tenantId", tenantId, "groupId", groupId, "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * Streams the same keyset batch as {@link #fetchAggregatesOptimized}
+     * without materializing it into a list.
+     *
+     * The statement is opened as a forward-only, read-only cursor and each
+     * row is mapped only when the consumer asks for it. Whether the driver
+     * also fetches rows {@code fetchSize} at a time, keeping heap bounded by
+     * the fetch size rather than by {@code limit}, depends on the database:
+     * - Oracle: always
+     * - PostgreSQL: only inside a transaction; under autocommit the driver
+     *   ignores the fetch size and buffers the whole result
+     * - MySQL: only with useCursorFetch=true on the JDBC URL; otherwise
+     *   Connector/J buffers the whole result
+     * - H2 (embedded): the result is materialized, large ones spill to disk
+     *
+     * IMPORTANT: the returned stream holds an open connection, statement and
+     * result set until it is closed. Always use try-with-resources, inside a
+     * read-only transaction so PostgreSQL keeps its cursor:
+     * <pre>
+     * readOnlyTransaction.executeWithoutResult(tx -&gt; {
+     *     try (Stream&lt;MetricAggregate&gt; rows = reportDao.streamAggregatesOptimized(
+     *             1001L, "G001", "", 50_000, 500)) {
+     *         rows.forEach(csvWriter::write);
+     *     }
+     * });
+     * </pre>
+     *
+     * Not recorded in the slow query log: the rows are fetched while the
+     * caller consumes the stream, so fetch time cannot be told apart from
+     * the caller's own work.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of items to process in this batch
+     * @param fetchSize number of rows the driver fetches per round-trip
+     * @return a lazily populated stream that must be closed by the caller
+     */
+    public Stream<MetricAggregate> streamAggregatesOptimized(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            int limit,
+            int fetchSize) {
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(render(OPTIMIZED_SQL),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, groupId);
+            ps.setString(2, dialect.cursor(lastSeenId));
+            ps.setInt(3, limit);
+            ps.setLong(4, tenantId);
+            return ps;
+        };
+
+        // Catalog items without events map to null and are dropped
+        RowMapper<MetricAggregate> withEvents = (rs, rowNum) ->
+            rs.getString("dimension_id") == null ? null : rowMapper.mapRow(rs, rowNum);
+        return jdbcTemplate.queryForStream(statement, withEvents).filter(Objects::nonNull);
+    }
+
+    /**
+     * Streams a keyset batch using {@link #DEFAULT_FETCH_SIZE}.
+     *
+     * @see #streamAggregatesOptimized(Long, String, String, int, int)
+     */
+    public Stream<MetricAggregate> streamAggregatesOptimized(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            int limit) {
+
+        return streamAggregatesOptimized(tenantId, groupId, lastSeenId, limit, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Keyset batch for several tenants of the same group in one query.
+     *
+     * Calling {@link #fetchAggregatesOptimized} once per tenant reads the same
+     * catalog page N times and costs N round-trips. Here the catalog page is
+     * read once and each item is probed on idx_entity_event_tenant_item for
+     * every tenant in the IN list, so one statement returns what N would.
+     *
+     * {@code limit} counts catalog items, like every other keyset query; the
+     * number of rows returned is up to limit x tenants x dimensions.
+     *
+     * @param tenantIds tenants to aggregate, at most {@link #MAX_TENANTS_PER_QUERY}
+     * @param groupId the group ID
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of items to process in this batch
+     * @return aggregates per tenant plus the cursor for the next batch
+     */
+    public TenantBatch fetchAggregatesForTenants(
+            Collection<Long> tenantIds,
+            String groupId,
+            String lastSeenId,
+            int limit) {
+
+        if (tenantIds.isEmpty() || tenantIds.size() > MAX_TENANTS_PER_QUERY) {
+            throw new IllegalArgumentException(
+                    "Expected 1.." + MAX_TENANTS_PER_QUERY + " tenants, got " + tenantIds.size());
+        }
+
+        String sql = render(MULTI_TENANT_SQL).formatted(String.join(", ", Collections.nCopies(tenantIds.size(), "?")));
+        List<Object> args = new ArrayList<>(tenantIds.size() + 3);
+        args.add(groupId);
+        args.add(dialect.cursor(lastSeenId));
+        args.add(limit);
+        args.addAll(tenantIds);
+
+        return timed("multi_tenant", null, groupId, trace -> {
+            Map<Long, List<MetricAggregate>> rowsByTenant = new LinkedHashMap<>();
+            int[] itemCount = {0};
+            String[] lastItemId = {null};
+
+            jdbcTemplate.query(sql, trace.handler(rs -> {
+                String itemId = rs.getString("item_id");
+                if (!itemId.equals(lastItemId[0])) {
+                    itemCount[0]++;
+                    lastItemId[0] = itemId;
+                }
+                long tenantId = rs.getLong("tenant_id");
+                if (rs.wasNull()) {
+                    // Catalog item without events for any requested tenant
+                    return;
+                }
+                rowsByTenant.computeIfAbsent(tenantId, id -> new ArrayList<>())
+                        .add(rowMapper.mapRow(rs, 0));
+            }), args.toArray());
+
+            return new TenantBatch(rowsByTenant, itemCount[0], lastItemId[0]);
+        }, "tenantIds", List.copyOf(tenantIds), "groupId", groupId, "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * @return the tenant's newest entity_event.updated_at, or {@code null}
+     *         if it has no events
+     */
+    public Timestamp findLatestEventUpdate(Long tenantId) {
+        String sql = """
+            SELECT MAX(updated_at)
+            FROM entity_event
+            WHERE tenant_id = ?
+            """;
+
+        return timed("latest_update", tenantId, null, trace -> {
+            trace.addRows(1);
+            return jdbcTemplate.queryForObject(sql, Timestamp.class, tenantId);
+        }, "tenantId", tenantId);
+    }
+
+    /**
+     * Keyset batch of the item-dimension pairs with events updated in
+     * {@code (since, upTo]}, with their full current counts.
+     *
+     * Only the tenant's changed events are visited to find the page, via
+     * idx_entity_event_tenant_updated; unchanged items cost nothing.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param since exclusive lower bound on updated_at
+     * @param upTo inclusive upper bound on updated_at
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of changed items in this batch
+     * @return current aggregates of the changed pairs, ordered by item_id
+     */
+    public List<MetricAggregate> fetchChangedAggregates(
+            Long tenantId,
+            String groupId,
+            Timestamp since,
+            Timestamp upTo,
+            String lastSeenId,
+            int limit) {
+
+        return timed("delta", tenantId, groupId, trace ->
+            jdbcTemplate.query(render(DELTA_SQL), trace.mapper(rowMapper),
+                tenantId, since, upTo, dialect.cursor(lastSeenId), groupId, limit, tenantId, since, upTo),
+            "tenantId", tenantId, "groupId", groupId, "since", since, "upTo", upTo,
+            "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * Keyset batch of per-bucket counts over last_seen_time in {@code [from, to)}.
+     *
+     * Same catalog paging as {@link #fetchAggregatesOptimized}; each item
+     * expands into one row per dimension and bucket with events.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param granularity bucket width
+     * @param from inclusive start of the time window
+     * @param to exclusive end of the time window
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of items to process in this batch
+     * @return buckets plus the cursor for the next batch
      */
-    public List<MetricAggregate> fetchAggregatesOptimized(
+    public TrendBatch fetchTrendBuckets(
             Long tenantId,
             String groupId,
+            TrendGranularity granularity,
+            Timestamp from,
+            Timestamp to,
             String lastSeenId,
             int limit) {
 
-        // GOOD PATTERN: JOIN with derived table
-        // The optimizer can now use index nested loop join efficiently
+        String sql = render(TREND_SQL).formatted(dialect.truncate(granularity, "e.last_seen_time"));
+
+        return timed("trend", tenantId, groupId, trace -> {
+            List<TrendBucket> buckets = new ArrayList<>();
+            int[] itemCount = {0};
+            String[] lastItemId = {null};
+            StringDictionary dimensions = dictionaries.dimensions();
+            StringDictionary items = dictionaries.items();
+
+            jdbcTemplate.query(sql, trace.handler(rs -> {
+                String itemId = rs.getString("item_id");
+                if (!itemId.equals(lastItemId[0])) {
+                    itemCount[0]++;
+                    lastItemId[0] = itemId;
+                }
+                String dimensionId = rs.getString("dimension_id");
+                if (dimensionId == null) {
+                    // Catalog item without events in the window
+                    return;
+                }
+                buckets.add(new TrendBucket(
+                        items.intern(itemId),
+                        dimensions.intern(dimensionId),
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getLong("passed"),
+                        rs.getLong("failed"),
+                        rs.getLong("error")));
+            }), groupId, dialect.cursor(lastSeenId), limit, tenantId, from, to);
+
+            return new TrendBatch(buckets, itemCount[0], lastItemId[0]);
+        }, "tenantId", tenantId, "groupId", groupId, "granularity", granularity, "from", from, "to", to,
+            "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * Keyset batch served from entity_event_rollup instead of raw events.
+     *
+     * Results are as fresh as the last rollup refresh (see RollupService);
+     * use {@link #fetchAggregatesOptimized} when exact, up-to-the-second
+     * counts are required.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param lastSeenId the last item_id from previous batch (for pagination)
+     * @param limit maximum number of items to process in this batch
+     * @return aggregated statistics per item-dimension combination plus the
+     *         cursor for the next batch
+     */
+    public AggregateBatch fetchAggregatesFromRollup(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            int limit) {
+
+        return timed("rollup", tenantId, groupId, trace ->
+            aggregateBatch(trace, render(ROLLUP_SQL), groupId, dialect.cursor(lastSeenId), limit, tenantId),
+            "tenantId", tenantId, "groupId", groupId, "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * Keyset batch restricted to item_ids in {@code (lastSeenId, upperBound]}.
+     *
+     * Used by range-partitioned report generation: each worker owns one
+     * contiguous slice of the group's keyspace and pages through it exactly
+     * like {@link #fetchAggregatesOptimized} pages through the whole group.
+     *
+     * @param tenantId the tenant ID to filter by
+     * @param groupId the group ID
+     * @param lastSeenId the last item_id from previous batch (exclusive lower bound)
+     * @param upperBound the last item_id belonging to this range (inclusive)
+     * @param limit maximum number of items to process in this batch
+     * @return aggregated statistics per item-dimension combination plus the
+     *         cursor for the next batch
+     */
+    public AggregateBatch fetchAggregatesInRange(
+            Long tenantId,
+            String groupId,
+            String lastSeenId,
+            String upperBound,
+            int limit) {
+
+        return timed("range", tenantId, groupId, trace ->
+            aggregateBatch(trace, render(RANGE_SQL), groupId, dialect.cursor(lastSeenId), upperBound, limit, tenantId),
+            "tenantId", tenantId, "groupId", groupId, "lastSeenId", lastSeenId,
+            "upperBound", upperBound, "limit", limit);
+    }
+
+    /**
+     * Samples the group's item_ids into {@code partitions} roughly equal
+     * slices and returns the last item_id of each slice, in ascending order.
+     *
+     * NTILE runs over the (group_id, item_id) index only, so sampling costs
+     * one index range scan on entity_catalog and never touches entity_event.
+     * Groups with fewer items than partitions return fewer split points.
+     *
+     * @param groupId the group ID
+     * @param partitions desired number of slices
+     * @return inclusive upper bound of each slice, ascending
+     */
+    public List<String> findSplitPoints(String groupId, int partitions) {
         String sql = """
-            SELECT e.item_id, e.dimension_id,
-                   COUNT(CASE WHEN e.status = 1 THEN 1 END) AS passed,
-                   COUNT(CASE WHEN e.status = 0 THEN 1 END) AS failed,
-                   COUNT(CASE WHEN e.status = 2 THEN 1 END) AS error
-            FROM entity_event e
-            JOIN (
-                SELECT item_id
-                FROM entity_catalog
-                WHERE group_id = ?
-                  AND item_id > ?
-                GROUP BY item_id
-                ORDER BY item_id
-                FETCH FIRST ? ROWS ONLY
-            ) c ON c.item_id = e.item_id
-            WHERE e.tenant_id = ?
-            GROUP BY e.item_id, e.dimension_id
-            ORDER BY e.item_id
+            SELECT MAX(item_id) AS upper_bound
+            FROM (
+                SELECT item_id, NTILE(?) OVER (ORDER BY item_id) AS bucket
+                FROM (
+                    SELECT DISTINCT item_id
+                    FROM entity_catalog
+                    WHERE group_id = ?
+                ) d
+            ) t
+            GROUP BY bucket
+            ORDER BY upper_bound
             """;
 
-        return jdbcTemplate.query(sql, ROW_MAPPER,
-            groupId, lastSeenId, limit, tenantId);
+        return timed("split_points", null, groupId, trace -> {
+            List<String> splitPoints = jdbcTemplate.queryForList(sql, String.class, partitions, groupId);
+            trace.addRows(splitPoints.size());
+            return splitPoints;
+        }, "groupId", groupId, "partitions", partitions);
     }
 
-    public long getItemCount(String groupId) {
+    /**
+     * Streams every aggregate of one tenant, across all groups, in item_id order.
+     *
+     * Unlike the keyset queries this is one statement for the whole tenant:
+     * entity_event is read exactly once however many groups an item is in.
+     * Rows are pulled {@link #DEFAULT_FETCH_SIZE} at a time and handed to
+     * {@code consumer} as they arrive, so nothing is buffered here.
+     *
+     * @param tenantId the tenant ID to scan
+     * @param consumer receives each item-dimension aggregate
+     */
+    public void forEachTenantAggregate(Long tenantId, Consumer<MetricAggregate> consumer) {
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(render(TENANT_SCAN_SQL),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(DEFAULT_FETCH_SIZE);
+            ps.setLong(1, tenantId);
+            return ps;
+        };
+
+        timed("tenant_scan", tenantId, null, trace -> {
+            jdbcTemplate.query(statement, trace.handler(rs -> {
+                consumer.accept(rowMapper.mapRow(rs, 0));
+            }));
+            return null;
+        }, "tenantId", tenantId);
+    }
+
+    /**
+     * Streams every (item_id, group_id) membership in entity_catalog.
+     *
+     * Covered by idx_entity_catalog_group_item, so this is an index-only scan.
+     *
+     * @param consumer receives item_id and group_id of each membership
+     */
+    public void forEachItemGroup(BiConsumer<String, String> consumer) {
+        String sql = """
+            SELECT DISTINCT group_id, item_id
+            FROM entity_catalog
+            """;
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(DEFAULT_FETCH_SIZE);
+            return ps;
+        };
+
+        timed("item_groups", null, null, trace -> {
+            jdbcTemplate.query(statement, trace.handler(rs -> {
+                consumer.accept(rs.getString("item_id"), rs.getString("group_id"));
+            }));
+            return null;
+        });
+    }
+
+    /**
+     * One keyset page of the group's item_ids, without touching entity_event.
+     *
+     * Index-only scan of idx_entity_catalog_group_item; used by report paths
+     * that look up the counts themselves (see CounterReportService).
+     *
+     * @return up to {@code limit} item_ids after {@code lastSeenId}, ascending
+     */
+    public List<String> fetchCatalogItems(String groupId, String lastSeenId, int limit) {
         String sql = """
-            SELECT COUNT(DISTINCT item_id)
+            SELECT item_id
             FROM entity_catalog
             WHERE group_id = ?
+              AND item_id > ?
+            GROUP BY item_id
+            ORDER BY item_id
+            {limit}
             """;
 
-        Long count = jdbcTemplate.queryForObject(sql, Long.class, groupId);
+        StringDictionary items = dictionaries.items();
+        return timed("catalog_page", null, groupId, trace ->
+            jdbcTemplate.query(render(sql), trace.mapper((rs, rowNum) -> items.intern(rs.getString("item_id"))),
+                groupId, dialect.cursor(lastSeenId), limit),
+            "groupId", groupId, "lastSeenId", lastSeenId, "limit", limit);
+    }
+
+    /**
+     * The queries whose plans QueryPlanService guards, rendered exactly as
+     * they run and bound to the given sample values.
+     */
+    public List<ExplainableQuery> explainableQueries(Long tenantId, String groupId, int limit) {
+        return List.of(
+                new ExplainableQuery("optimized", render(OPTIMIZED_SQL),
+                        List.of(groupId, dialect.cursor(""), limit, tenantId), "e", true),
+                new ExplainableQuery("slow", render(SLOW_SQL),
+                        List.of(tenantId, groupId, 0, limit), "entity_event", false),
+                new ExplainableQuery("item_count", ITEM_COUNT_SQL,
+                        List.of(groupId), null, false));
+    }
+
+    public long getItemCount(String groupId) {
+        Long count = timed("item_count", null, groupId, trace -> {
+            trace.addRows(1);
+            return jdbcTemplate.queryForObject(ITEM_COUNT_SQL, Long.class, groupId);
+        }, "groupId", groupId);
         return count != null ? count : 0L;
     }
 }
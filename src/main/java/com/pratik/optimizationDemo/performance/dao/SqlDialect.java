@@ -0,0 +1,269 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The SQL differences between the databases the report queries run on.
+ *
+ * Queries are written once as templates with a few tokens, each rendered
+ * to the fastest form the database supports:
+ *
+ * 1. PAGINATION
+ *    - {limit}         FETCH FIRST ? ROWS ONLY (Oracle, H2), LIMIT ? (MySQL,
+ *                      PostgreSQL)
+ *    - {offset_limit}  OFFSET ? ROWS FETCH NEXT ? ROWS ONLY, LIMIT ?, ? on MySQL;
+ *                      both bind offset first
+ *
+ * 2. CONDITIONAL COUNTS
+ *    - {count:cond}    COUNT(*) FILTER (WHERE cond) where supported
+ *                      (PostgreSQL, H2), COUNT(CASE WHEN cond THEN 1 END)
+ *                      elsewhere
+ *
+ * 3. OPTIMIZER HINTS
+ *    - {hint:text}     a leading /*+ text *&#47; comment on Oracle and MySQL 8,
+ *                      dropped elsewhere (PostgreSQL has no hints, H2 ignores
+ *                      them); both use the INDEX(alias index) form
+ *
+ * Upserts ({@link #upsert}) and time bucketing ({@link #truncate}) differ in
+ * whole statement shape and have their own methods.
+ *
+ * KEYSET CURSOR:
+ * Oracle stores '' as NULL, so "item_id > ''" matches nothing and a report
+ * started from the empty cursor came back empty. {@link #cursor} maps the
+ * empty cursor to a value below every real item_id instead.
+ */
+public enum SqlDialect {
+
+    ORACLE,
+    MYSQL,
+    POSTGRESQL,
+    H2;
+
+    private static final Pattern COUNT = Pattern.compile("\\{count:([^}]+)}");
+    private static final Pattern HINT = Pattern.compile("\\{hint:([^}]+)}");
+    private static final Pattern TARGET_COLUMN = Pattern.compile("\\{t}\\.(\\w+)");
+    private static final Pattern SOURCE_COLUMN = Pattern.compile("\\{s}\\.(\\w+)");
+
+    // Sorts below any item_id under binary collation
+    private static final String ORACLE_FIRST_CURSOR = "\u0000";
+
+    // Templates are constants, so each is rendered once per dialect
+    private final Map<String, String> rendered = new ConcurrentHashMap<>();
+
+    /**
+     * Maps a database product name (DatabaseMetaData#getDatabaseProductName)
+     * to its dialect.
+     *
+     * @throws IllegalArgumentException for databases without a dialect
+     */
+    public static SqlDialect fromProductName(String productName) {
+        String name = productName.toLowerCase(Locale.ROOT);
+        if (name.contains("oracle")) {
+            return ORACLE;
+        }
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (name.contains("postgres")) {
+            return POSTGRESQL;
+        }
+        if (name.equals("h2")) {
+            return H2;
+        }
+        throw new IllegalArgumentException("No SQL dialect for database: " + productName);
+    }
+
+    /**
+     * Renders the tokens of a query template.
+     */
+    public String render(String template) {
+        return rendered.computeIfAbsent(template, this::renderTokens);
+    }
+
+    /**
+     * The value to bind for a keyset cursor; {@code lastSeenId} unless it is
+     * the empty start cursor.
+     */
+    public String cursor(String lastSeenId) {
+        if (lastSeenId == null || lastSeenId.isEmpty()) {
+            return this == ORACLE ? ORACLE_FIRST_CURSOR : "";
+        }
+        return lastSeenId;
+    }
+
+    /**
+     * Expression truncating {@code column} to the start of its bucket, in
+     * the database session's time zone.
+     */
+    public String truncate(TrendGranularity granularity, String column) {
+        return switch (this) {
+            case ORACLE -> granularity == TrendGranularity.HOUR
+                    ? "TRUNC(" + column + ", 'HH')"
+                    : "TRUNC(" + column + ", 'DD')";
+            case MYSQL -> granularity == TrendGranularity.HOUR
+                    ? "CAST(DATE_FORMAT(" + column + ", '%Y-%m-%d %H:00:00') AS DATETIME)"
+                    : "CAST(DATE(" + column + ") AS DATETIME)";
+            case POSTGRESQL, H2 -> granularity == TrendGranularity.HOUR
+                    ? "DATE_TRUNC('hour', " + column + ")"
+                    : "DATE_TRUNC('day', " + column + ")";
+        };
+    }
+
+    /**
+     * Renders an insert-or-update statement:
+     * MERGE on Oracle and H2, INSERT ... ON CONFLICT on PostgreSQL and
+     * INSERT ... ON DUPLICATE KEY UPDATE on MySQL.
+     */
+    public String upsert(Upsert upsert) {
+        List<String> columns = concat(upsert.keyColumns(), upsert.valueColumns());
+        List<String> insertColumns = concat(columns, upsert.touchColumns(), upsert.createdColumns());
+        int timestamps = upsert.touchColumns().size() + upsert.createdColumns().size();
+
+        return switch (this) {
+            case ORACLE, H2 -> merge(upsert, columns, insertColumns, timestamps);
+            case POSTGRESQL -> """
+                INSERT INTO %s AS t (%s)
+                %s
+                ON CONFLICT (%s) DO UPDATE SET
+                    %s%s
+                """.formatted(
+                    upsert.table(),
+                    String.join(", ", insertColumns),
+                    insertSource(upsert, columns, timestamps),
+                    String.join(", ", upsert.keyColumns()),
+                    updates(upsert, c -> "EXCLUDED." + c, (c, v) -> c + " = " + v),
+                    upsert.guard() == null ? "" : "\n    WHERE " + guard(upsert, "t.", "EXCLUDED.%s"));
+            case MYSQL -> """
+                INSERT INTO %s (%s)
+                %s
+                ON DUPLICATE KEY UPDATE
+                    %s
+                """.formatted(
+                    upsert.table(),
+                    String.join(", ", insertColumns),
+                    insertSource(upsert, columns, timestamps),
+                    updates(upsert, c -> "VALUES(" + c + ")", (c, v) -> upsert.guard() == null
+                            ? c + " = " + v
+                            : c + " = CASE WHEN (" + guard(upsert, upsert.table() + ".", "VALUES(%s)")
+                                    + ") THEN " + v + " ELSE " + c + " END"));
+        };
+    }
+
+    private String merge(Upsert upsert, List<String> columns, List<String> insertColumns, int timestamps) {
+        String source;
+        if (upsert.source() != null) {
+            source = "(" + upsert.source().strip() + ") s";
+        } else if (this == ORACLE) {
+            source = "(SELECT " + columns.stream().map(c -> "? AS " + c).collect(Collectors.joining(", "))
+                    + " FROM dual) s";
+        } else {
+            // H2 cannot type "SELECT ? AS c"; a VALUES row takes the target's types
+            source = "(VALUES (" + placeholders(columns.size()) + ")) s (" + String.join(", ", columns) + ")";
+        }
+        String targetPrefix = this == ORACLE ? "t." : "";
+        String matched = this == ORACLE
+                ? "WHEN MATCHED THEN UPDATE SET\n    %s%s".formatted(
+                        updates(upsert, c -> "s." + c, (c, v) -> targetPrefix + c + " = " + v),
+                        upsert.guard() == null ? "" : "\n    WHERE " + guard(upsert, "t.", "s.%s"))
+                : "WHEN MATCHED%s THEN UPDATE SET\n    %s".formatted(
+                        upsert.guard() == null ? "" : " AND (" + guard(upsert, "t.", "s.%s") + ")",
+                        updates(upsert, c -> "s." + c, (c, v) -> c + " = " + v));
+
+        return """
+            MERGE INTO %s t
+            USING %s
+            ON (%s)
+            %s
+            WHEN NOT MATCHED THEN INSERT
+                (%s)
+                VALUES (%s)
+            """.formatted(
+                upsert.table(),
+                source,
+                upsert.keyColumns().stream().map(c -> "t." + c + " = s." + c).collect(Collectors.joining(" AND ")),
+                matched,
+                String.join(", ", insertColumns),
+                Stream.concat(columns.stream().map(c -> "s." + c), currentTimestamps(timestamps))
+                        .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * VALUES row or SELECT over the source query, for the INSERT forms.
+     */
+    private static String insertSource(Upsert upsert, List<String> columns, int timestamps) {
+        if (upsert.source() == null) {
+            return "VALUES (" + Stream.concat(Stream.of(placeholders(columns.size())), currentTimestamps(timestamps))
+                    .collect(Collectors.joining(", ")) + ")";
+        }
+        return "SELECT " + Stream.concat(columns.stream().map(c -> "s." + c), currentTimestamps(timestamps))
+                .collect(Collectors.joining(", "))
+                + "\nFROM (" + upsert.source().strip() + ") s";
+    }
+
+    /**
+     * SET list: touched timestamps first, then value columns in order (see
+     * {@link Upsert#onlyIf} for why the order matters on MySQL).
+     */
+    private static String updates(
+            Upsert upsert,
+            Function<String, String> newValue,
+            BiFunction<String, String, String> assignment) {
+        List<String> set = new ArrayList<>();
+        upsert.touchColumns().forEach(c -> set.add(assignment.apply(c, "CURRENT_TIMESTAMP")));
+        upsert.valueColumns().forEach(c -> set.add(assignment.apply(c, newValue.apply(c))));
+        return String.join(",\n    ", set);
+    }
+
+    private static String guard(Upsert upsert, String targetPrefix, String sourceFormat) {
+        String guard = TARGET_COLUMN.matcher(upsert.guard())
+                .replaceAll(m -> Matcher.quoteReplacement(targetPrefix + m.group(1)));
+        return SOURCE_COLUMN.matcher(guard)
+                .replaceAll(m -> Matcher.quoteReplacement(sourceFormat.formatted(m.group(1))));
+    }
+
+    private String renderTokens(String template) {
+        String sql = template
+                .replace("{limit}", this == ORACLE || this == H2
+                        ? "FETCH FIRST ? ROWS ONLY"
+                        : "LIMIT ?")
+                .replace("{offset_limit}", this == MYSQL
+                        ? "LIMIT ?, ?"
+                        : "OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        sql = COUNT.matcher(sql).replaceAll(m -> Matcher.quoteReplacement(
+                this == POSTGRESQL || this == H2
+                        ? "COUNT(*) FILTER (WHERE " + m.group(1) + ")"
+                        : "COUNT(CASE WHEN " + m.group(1) + " THEN 1 END)"));
+        return HINT.matcher(sql).replaceAll(m -> Matcher.quoteReplacement(
+                this == ORACLE || this == MYSQL ? "/*+ " + m.group(1) + " */" : ""));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Stream<String> currentTimestamps(int count) {
+        return Stream.generate(() -> "CURRENT_TIMESTAMP").limit(count);
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... lists) {
+        List<String> all = new ArrayList<>();
+        for (List<String> list : lists) {
+            all.addAll(list);
+        }
+        return all;
+    }
+}
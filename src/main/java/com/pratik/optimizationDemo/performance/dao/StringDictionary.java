@@ -0,0 +1,81 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe canonicalizing map for identifier strings.
+ *
+ * The JDBC driver returns a new String for every column of every row, so a
+ * report holding 1M rows over 10 dimensions holds 1M copies of 10 dimension
+ * ids. {@link #intern} swaps each copy for one canonical instance; the copy
+ * dies young and only the canonical instance is retained.
+ *
+ * Unlike String.intern() the dictionary is size-bounded (once full, ids are
+ * evicted to make room) and lives on the heap, so it cannot grow without
+ * limit across tenants and reports. An evicted id is simply interned again
+ * the next time it is seen.
+ */
+public final class StringDictionary {
+
+    private final Cache<String, String> canonical;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    StringDictionary(long maxEntries) {
+        this.canonical = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    private StringDictionary() {
+        this.canonical = null;
+    }
+
+    /**
+     * A dictionary that hands every value back unchanged.
+     */
+    static StringDictionary disabled() {
+        return new StringDictionary();
+    }
+
+    /**
+     * @return the canonical instance equal to {@code value}, or {@code value}
+     *         itself if it was not seen before (or was evicted since)
+     */
+    public String intern(String value) {
+        if (value == null || canonical == null) {
+            return value;
+        }
+        lookups.increment();
+        String existing = canonical.get(value, Function.identity());
+        if (existing != value) {
+            hits.increment();
+        }
+        return existing;
+    }
+
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long size() {
+        return canonical == null ? 0 : canonical.estimatedSize();
+    }
+
+    /**
+     * Share of lookups answered with an existing instance, i.e. Strings that
+     * were not retained.
+     */
+    public double dedupRatio() {
+        long total = lookups();
+        return total == 0 ? 0.0 : (double) hits() / total;
+    }
+}
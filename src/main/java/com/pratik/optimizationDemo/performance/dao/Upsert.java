@@ -0,0 +1,56 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import java.util.List;
+
+/**
+ * Dialect-neutral description of an insert-or-update, rendered by
+ * {@link SqlDialect#upsert}.
+ *
+ * Parameters are bound key columns first, then value columns, when the
+ * source is a single bind row; a {@link #from(String) source query} must
+ * return columns with those names and binds its own parameters.
+ *
+ * @param table target table
+ * @param keyColumns columns of the unique key the upsert matches on
+ * @param valueColumns columns copied from the source on insert and update
+ * @param touchColumns set to CURRENT_TIMESTAMP on insert and on update
+ * @param createdColumns set to CURRENT_TIMESTAMP on insert only
+ * @param guard optional condition an update must satisfy, referring to the
+ *              stored row as {@code {t}.column} and to the new values as
+ *              {@code {s}.column}
+ * @param source optional SELECT producing the rows; null for one bind row
+ */
+public record Upsert(
+        String table,
+        List<String> keyColumns,
+        List<String> valueColumns,
+        List<String> touchColumns,
+        List<String> createdColumns,
+        String guard,
+        String source) {
+
+    public static Upsert into(String table, List<String> keyColumns, List<String> valueColumns) {
+        return new Upsert(table, keyColumns, valueColumns, List.of(), List.of(), null, null);
+    }
+
+    public Upsert touching(String... columns) {
+        return new Upsert(table, keyColumns, valueColumns, List.of(columns), createdColumns, guard, source);
+    }
+
+    public Upsert creating(String... columns) {
+        return new Upsert(table, keyColumns, valueColumns, touchColumns, List.of(columns), guard, source);
+    }
+
+    /**
+     * On MySQL the guard is evaluated per assigned column, after the columns
+     * before it have been updated, so columns the guard reads must come last
+     * in {@link #valueColumns}.
+     */
+    public Upsert onlyIf(String guard) {
+        return new Upsert(table, keyColumns, valueColumns, touchColumns, createdColumns, guard, source);
+    }
+
+    public Upsert from(String source) {
+        return new Upsert(table, keyColumns, valueColumns, touchColumns, createdColumns, guard, source);
+    }
+}
@@ -0,0 +1,206 @@
+package com.pratik.optimizationDemo.performance.export;
+
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes {@link MetricAggregate} rows to an output stream one batch at a time.
+ *
+ * Rows are hand-serialized straight into a buffered writer: no intermediate
+ * objects, no per-row reflection, and nothing retained after the batch is
+ * written. Memory use is the write buffer, whatever the report size.
+ *
+ * Not thread-safe; one writer per response.
+ */
+public class MetricAggregateWriter implements Flushable, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "item_id,dimension_id,passed,failed,error,pass_rate";
+
+    private final ReportFormat format;
+    private final OutputStream out;
+    private final Writer writer;
+    private boolean headerWritten;
+
+    public MetricAggregateWriter(ReportFormat format, OutputStream out) {
+        this(format, out, false);
+    }
+
+    /**
+     * @param append true when {@code out} continues earlier output of the
+     *               same report, so the CSV header is already there
+     */
+    public MetricAggregateWriter(ReportFormat format, OutputStream out, boolean append) {
+        this.format = format;
+        this.out = out;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.headerWritten = append;
+    }
+
+    /**
+     * Append a batch of rows. Unchecked so it can be used directly as a
+     * report batch callback.
+     *
+     * @throws UncheckedIOException if the client went away
+     */
+    public void writeBatch(List<MetricAggregate> batch) {
+        try {
+            writeHeaderIfNeeded();
+            for (MetricAggregate row : batch) {
+                writeRow(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append every row of a columnar report, reading the columns directly
+     * instead of materializing a MetricAggregate per row.
+     *
+     * @throws UncheckedIOException if the client went away
+     */
+    public void writeAll(ColumnarAggregates rows) {
+        try {
+            writeHeaderIfNeeded();
+            for (int i = 0; i < rows.size(); i++) {
+                writeRow(rows.itemId(i), rows.dimensionId(i), rows.passed(i), rows.failed(i), rows.error(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Push buffered rows down to the client.
+     */
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeHeaderIfNeeded();
+        writer.close();
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (!headerWritten && format == ReportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        headerWritten = true;
+    }
+
+    private void writeRow(MetricAggregate row) throws IOException {
+        writeRow(row.getItemId(), row.getDimensionId(), row.getPassed(), row.getFailed(), row.getError());
+    }
+
+    private void writeRow(String itemId, String dimensionId, long passed, long failed, long error)
+            throws IOException {
+        switch (format) {
+            case NDJSON -> writeJson(itemId, dimensionId, passed, failed, error);
+            case CSV -> writeCsv(itemId, dimensionId, passed, failed, error);
+        }
+        writer.write('\n');
+    }
+
+    // Field names mirror the JSON produced by the list endpoints
+    private void writeJson(String itemId, String dimensionId, long passed, long failed, long error)
+            throws IOException {
+        writer.write("{\"itemId\":");
+        writeJsonString(itemId);
+        writer.write(",\"dimensionId\":");
+        writeJsonString(dimensionId);
+        writer.write(",\"passed\":");
+        writer.write(Long.toString(passed));
+        writer.write(",\"failed\":");
+        writer.write(Long.toString(failed));
+        writer.write(",\"error\":");
+        writer.write(Long.toString(error));
+        writer.write(",\"total\":");
+        writer.write(Long.toString(passed + failed + error));
+        writer.write(",\"passRatePercentage\":");
+        writer.write(Double.toString(MetricAggregate.passRatePercentage(passed, failed)));
+        writer.write('}');
+    }
+
+    private void writeCsv(String itemId, String dimensionId, long passed, long failed, long error)
+            throws IOException {
+        writeCsvField(itemId);
+        writer.write(',');
+        writeCsvField(dimensionId);
+        writer.write(',');
+        writer.write(Long.toString(passed));
+        writer.write(',');
+        writer.write(Long.toString(failed));
+        writer.write(',');
+        writer.write(Long.toString(error));
+        writer.write(',');
+        writeOneDecimal(MetricAggregate.passRatePercentage(passed, failed));
+    }
+
+    /**
+     * Writes a non-negative value rounded half-up to one decimal, like
+     * {@code %.1f}, without creating a Formatter per row.
+     */
+    private void writeOneDecimal(double value) throws IOException {
+        long tenths = Math.round(value * 10);
+        writer.write(Long.toString(tenths / 10));
+        writer.write('.');
+        writer.write((char) ('0' + tenths % 10));
+    }
+
+    private void writeJsonString(String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,31 @@
+package com.pratik.optimizationDemo.performance.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats supported by the streaming report endpoints.
+ *
+ * Both are line-oriented so a client can start processing the first row
+ * before the last batch has even been queried.
+ */
+public enum ReportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    ReportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
@@ -0,0 +1,71 @@
+package com.pratik.optimizationDemo.performance.metrics;
+
+/**
+ * Names the report work the current thread's queries run for, so slow
+ * queries can be traced back to it (see SlowQueryLog).
+ *
+ * <pre>
+ * try (QueryContext.Scope ignored = QueryContext.open("job " + job.getId())) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Report executors copy the context into their worker threads via
+ * {@link #propagate}, so prefetch and range-scan queries are attributed to
+ * the report that started them.
+ */
+public final class QueryContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private QueryContext() {
+    }
+
+    /**
+     * @return the current thread's context, or null outside any report work
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the context until the returned scope is closed, then restores
+     * the previous one.
+     */
+    public static Scope open(String context) {
+        String previous = CURRENT.get();
+        CURRENT.set(context);
+        return () -> restore(previous);
+    }
+
+    /**
+     * Wraps {@code task} to run under the submitting thread's context.
+     * Usable as a Spring TaskDecorator.
+     */
+    public static Runnable propagate(Runnable task) {
+        String context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = open(context)) {
+                task.run();
+            }
+        };
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
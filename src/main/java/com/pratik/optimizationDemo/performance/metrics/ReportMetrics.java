@@ -0,0 +1,283 @@
+package com.pratik.optimizationDemo.performance.metrics;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.StringDictionary;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer instrumentation for report queries and batch loops.
+ *
+ * METERS (all exposed via /actuator/prometheus):
+ * - report.query            latency histogram per DAO query, tagged with
+ *                           query name only
+ * - report.query.tenant     latency per DAO query, tenant and group; no
+ *                           histogram
+ * - report.query.slow       queries over report.slow-queries.threshold, per
+ *                           query name (details in SlowQueryLog)
+ * - report.batch.rows       histogram of rows returned per keyset batch,
+ *                           across all tenants
+ * - report.batch.limit      batch size requested per keyset batch, per tenant
+ *                           and group; moves when adaptive batch sizing is
+ *                           enabled
+ * - report.batches          batches needed per report
+ * - report.phase            time per report spent in the database vs in the
+ *                           batch callback (phase=db|callback)
+ * - report.intern.*         lookups, hits, size and dedup ratio of the
+ *                           identifier dictionaries (dictionary=item|dimension)
+ * - report.jobs             background report jobs by outcome
+ *                           (completed|failed|cancelled|rejected)
+ * - report.jobs.queued / .active  backlog and running jobs
+ * - ingest.events           event submissions by outcome
+ *                           (accepted|rejected|coalesced|written|dropped)
+ * - ingest.flush            latency histogram per flush (outcome=success|failure)
+ * - ingest.flush.rows       rows written per flush, after coalescing
+ * - ingest.buffered         submissions accepted but not yet written
+ * - report.counters.keys    tenant-item-dimension keys in the write-through
+ *                           counters
+ * - report.counters.checkpoint  latency of counter checkpoints
+ *                           (outcome=success|failure)
+ * - report.plan.changes     captured plans that differ from the previous
+ *                           capture of the same query
+ * - report.plan.regressions plans that turned into a full scan of
+ *                           entity_event or stopped using
+ *                           idx_entity_event_tenant_item
+ * - report.plan.regressed   1 while a query's latest plan is regressed
+ *
+ * CARDINALITY GUARD:
+ * Every distinct tag combination creates new time series, and a histogram
+ * multiplies that by its bucket count. So:
+ * - Histograms (report.query, report.batch.rows) carry no tenant or group
+ *   tag at all
+ * - Tenant-tagged meters are plain timers and summaries, and only the first
+ *   report.metrics.max-tenant-group-tags (tenant, group) pairs seen get
+ *   their own values; the rest are reported as tenant=other, group=other
+ * The tenants that drive load show up early in practice, and a runaway
+ * tenant or group count cannot take the metrics backend down.
+ */
+@Component
+public class ReportMetrics {
+
+    public static final String OVERFLOW_TAG = "other";
+    private static final String NONE_TAG = "none";
+
+    private final MeterRegistry registry;
+    private final ReportProperties.Metrics config;
+    private final Set<TagPair> knownPairs = ConcurrentHashMap.newKeySet();
+
+    public ReportMetrics(MeterRegistry registry, ReportProperties properties) {
+        this.registry = registry;
+        this.config = properties.getMetrics();
+    }
+
+    /**
+     * Time one DAO query and record it under report.query and
+     * report.query.tenant.
+     *
+     * @param query stable query name, e.g. "optimized"
+     * @param tenantId tenant the query runs for, or null if not tenant-scoped
+     * @param groupId group the query runs for, or null if not group-scoped
+     */
+    public <T> T timeQuery(String query, Long tenantId, String groupId, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            Timer.builder("report.query")
+                    .description("Latency of report SQL queries")
+                    .tags("query", query)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            Timer.builder("report.query.tenant")
+                    .description("Latency of report SQL queries per tenant and group")
+                    .tags(tags(tenantId, groupId).and("query", query))
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordSlowQuery(String query) {
+        registry.counter("report.query.slow", "query", query).increment();
+    }
+
+    /**
+     * Record the rows of one keyset batch. Deliberately not tenant-scoped:
+     * this is a histogram, see the cardinality guard.
+     */
+    public void recordBatch(int rows) {
+        DistributionSummary.builder("report.batch.rows")
+                .description("Rows returned per keyset batch")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(rows);
+    }
+
+    /**
+     * Record the batch size requested for one keyset batch, tagged by tenant
+     * and group within the tenant-group budget.
+     */
+    public void recordBatchLimit(Long tenantId, String groupId, int limit) {
+        DistributionSummary.builder("report.batch.limit")
+                .description("Batch size requested per keyset batch")
+                .tags(tags(tenantId, groupId))
+                .register(registry)
+                .record(limit);
+    }
+
+    /**
+     * Expose an identifier dictionary's counters. Called once per dictionary.
+     */
+    public void registerDictionary(String name, StringDictionary dictionary) {
+        Tags tags = Tags.of("dictionary", name);
+        FunctionCounter.builder("report.intern.lookups", dictionary, StringDictionary::lookups)
+                .description("Identifier strings passed through the dictionary")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("report.intern.hits", dictionary, StringDictionary::hits)
+                .description("Identifier strings replaced by an existing instance")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("report.intern.size", dictionary, StringDictionary::size)
+                .description("Canonical identifier strings currently held")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("report.intern.dedup.ratio", dictionary, StringDictionary::dedupRatio)
+                .description("Share of identifier strings deduplicated since startup")
+                .tags(tags)
+                .register(registry);
+    }
+
+    public void recordJob(String outcome) {
+        registry.counter("report.jobs", "outcome", outcome).increment();
+    }
+
+    /**
+     * Expose backlog and running count of the report job pool.
+     */
+    public void registerJobExecutor(ThreadPoolTaskExecutor executor) {
+        Gauge.builder("report.jobs.queued", executor, e -> e.getQueueSize())
+                .description("Report jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("report.jobs.active", executor, e -> e.getActiveCount())
+                .description("Report jobs running")
+                .register(registry);
+    }
+
+    public void recordIngestEvents(String outcome, int count) {
+        if (count > 0) {
+            registry.counter("ingest.events", "outcome", outcome).increment(count);
+        }
+    }
+
+    public void recordIngestFlush(String outcome, int rows, long nanos) {
+        Timer.builder("ingest.flush")
+                .description("Latency of one ingestion flush")
+                .tags("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("ingest.flush.rows")
+                .description("Rows written per ingestion flush")
+                .tags("outcome", outcome)
+                .register(registry)
+                .record(rows);
+    }
+
+    public <T> void registerIngestBuffer(T buffer, ToDoubleFunction<T> buffered) {
+        Gauge.builder("ingest.buffered", buffer, buffered)
+                .description("Event submissions accepted but not yet written")
+                .register(registry);
+    }
+
+    public <T> void registerCounters(T counters, ToDoubleFunction<T> keys) {
+        Gauge.builder("report.counters.keys", counters, keys)
+                .description("Keys held by the write-through aggregate counters")
+                .register(registry);
+    }
+
+    public void recordCounterCheckpoint(String outcome, long nanos) {
+        Timer.builder("report.counters.checkpoint")
+                .description("Latency of write-through counter checkpoints")
+                .tags("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPlanChange(String query) {
+        registry.counter("report.plan.changes", "query", query).increment();
+    }
+
+    public void recordPlanRegression(String query) {
+        registry.counter("report.plan.regressions", "query", query).increment();
+    }
+
+    public <T> void registerPlanState(String query, T plans, ToDoubleFunction<T> regressed) {
+        Gauge.builder("report.plan.regressed", plans, regressed)
+                .description("1 while the latest plan of the query is regressed")
+                .tags("query", query)
+                .register(registry);
+    }
+
+    /**
+     * Record the totals of one finished report.
+     *
+     * @param dbNanos time spent waiting on batch queries
+     * @param callbackNanos time spent in the batch callback (0 for list reports)
+     */
+    public void recordReport(Long tenantId, String groupId, int batches, long dbNanos, long callbackNanos) {
+        Tags tags = tags(tenantId, groupId);
+
+        DistributionSummary.builder("report.batches")
+                .description("Keyset batches per report")
+                .tags(tags)
+                .register(registry)
+                .record(batches);
+
+        Timer.builder("report.phase")
+                .description("Per-report time spent in the database vs in the callback")
+                .tags(tags.and("phase", "db"))
+                .register(registry)
+                .record(dbNanos, TimeUnit.NANOSECONDS);
+
+        if (callbackNanos > 0) {
+            Timer.builder("report.phase")
+                    .description("Per-report time spent in the database vs in the callback")
+                    .tags(tags.and("phase", "callback"))
+                    .register(registry)
+                    .record(callbackNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Tags tags(Long tenantId, String groupId) {
+        TagPair pair = new TagPair(
+                tenantId == null ? NONE_TAG : tenantId.toString(),
+                Objects.requireNonNullElse(groupId, NONE_TAG));
+        if (!knownPairs.contains(pair)) {
+            // Racy by design: concurrent first sightings may overshoot the
+            // limit by a few entries, which is harmless
+            if (knownPairs.size() >= config.getMaxTenantGroupTags()) {
+                return Tags.of("tenant", OVERFLOW_TAG, "group", OVERFLOW_TAG);
+            }
+            knownPairs.add(pair);
+        }
+        return Tags.of("tenant", pair.tenant(), "group", pair.group());
+    }
+
+    private record TagPair(String tenant, String group) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.pratik.optimizationDemo.performance.metrics;
+
+import com.pratik.optimizationDemo.performance.model.SlowQuery;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Admin view of the slow query log.
+ *
+ * GET    /actuator/slowqueries   recorded slow queries, newest first
+ * DELETE /actuator/slowqueries   empties the log, e.g. after a fix is deployed
+ *
+ * Exposed through actuator rather than next to the report API: bind values
+ * name tenants and items, so access follows the operational endpoints'.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryLog.recent();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
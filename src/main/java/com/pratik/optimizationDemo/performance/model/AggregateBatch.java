@@ -0,0 +1,18 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.util.List;
+
+/**
+ * One keyset batch of a single-tenant report.
+ *
+ * @param rows aggregates per item-dimension, ordered by item_id
+ * @param itemCount number of catalog items the batch covered, including
+ *                  items the tenant has no events for
+ * @param lastItemId last catalog item_id covered, i.e. the next cursor;
+ *                   null when the batch is empty
+ */
+public record AggregateBatch(
+        List<MetricAggregate> rows,
+        int itemCount,
+        String lastItemId) {
+}
@@ -0,0 +1,209 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report rows stored column by column instead of one object per row.
+ *
+ * A {@link MetricAggregate} costs an object header, two String references
+ * and three longs per row, plus the Strings themselves - and every row of
+ * the same dimension carries its own copy of the dimension id. Here a row
+ * is one slot in five primitive arrays:
+ *
+ * 1. DICTIONARY-ENCODED IDS
+ *    - item and dimension ids are stored once each and referenced by int code
+ *    - dimensions repeat across every item, items repeat across dimensions
+ *
+ * 2. PACKED COUNTERS
+ *    - passed / failed / error live in parallel int[] columns; a count is
+ *      per tenant-item-dimension, far below 2^31, and a value that does
+ *      not fit is rejected rather than truncated
+ *    - totals and filters scan contiguous memory instead of chasing pointers
+ *
+ * 20 bytes per row plus the distinct ids, versus ~100+ bytes per
+ * MetricAggregate with its own Strings.
+ *
+ * Rows keep insertion order. Not thread-safe; fill on one thread, then share
+ * read-only.
+ */
+public class ColumnarAggregates {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final List<String> itemDictionary = new ArrayList<>();
+    private final Map<String, Integer> itemCodes = new HashMap<>();
+    private final List<String> dimensionDictionary = new ArrayList<>();
+    private final Map<String, Integer> dimensionCodes = new HashMap<>();
+
+    private int[] items;
+    private int[] dimensions;
+    private int[] passed;
+    private int[] failed;
+    private int[] error;
+    private int size;
+
+    // Keyset results arrive in item_id order, so the previous row's item is
+    // by far the most likely match; checking it first skips most map lookups
+    private String lastItem;
+    private int lastItemCode = -1;
+
+    public ColumnarAggregates() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarAggregates(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.items = new int[capacity];
+        this.dimensions = new int[capacity];
+        this.passed = new int[capacity];
+        this.failed = new int[capacity];
+        this.error = new int[capacity];
+    }
+
+    /**
+     * @throws ArithmeticException if a counter does not fit in an int
+     */
+    public void add(String itemId, String dimensionId, long passed, long failed, long error) {
+        int passedCount = Math.toIntExact(passed);
+        int failedCount = Math.toIntExact(failed);
+        int errorCount = Math.toIntExact(error);
+        if (size == items.length) {
+            grow();
+        }
+        items[size] = itemCode(itemId);
+        dimensions[size] = encode(dimensionId, dimensionDictionary, dimensionCodes);
+        this.passed[size] = passedCount;
+        this.failed[size] = failedCount;
+        this.error[size] = errorCount;
+        size++;
+    }
+
+    public void add(MetricAggregate row) {
+        add(row.getItemId(), row.getDimensionId(), row.getPassed(), row.getFailed(), row.getError());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String itemId(int row) {
+        return itemDictionary.get(items[checkIndex(row)]);
+    }
+
+    public String dimensionId(int row) {
+        return dimensionDictionary.get(dimensions[checkIndex(row)]);
+    }
+
+    public long passed(int row) {
+        return passed[checkIndex(row)];
+    }
+
+    public long failed(int row) {
+        return failed[checkIndex(row)];
+    }
+
+    public long error(int row) {
+        return error[checkIndex(row)];
+    }
+
+    public double passRatePercentage(int row) {
+        return MetricAggregate.passRatePercentage(passed(row), failed(row));
+    }
+
+    /**
+     * Materializes one row as an object, for callers that need the row API.
+     */
+    public MetricAggregate get(int row) {
+        return new MetricAggregate(itemId(row), dimensionId(row), passed(row), failed(row), error(row));
+    }
+
+    public List<MetricAggregate> toList() {
+        List<MetricAggregate> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(get(i));
+        }
+        return rows;
+    }
+
+    public long totalPassed() {
+        return sum(passed);
+    }
+
+    public long totalFailed() {
+        return sum(failed);
+    }
+
+    public long totalError() {
+        return sum(error);
+    }
+
+    public int distinctItems() {
+        return itemDictionary.size();
+    }
+
+    public int distinctDimensions() {
+        return dimensionDictionary.size();
+    }
+
+    /**
+     * Release the unused tail of each column once the report is complete.
+     */
+    public void trimToSize() {
+        items = Arrays.copyOf(items, size);
+        dimensions = Arrays.copyOf(dimensions, size);
+        passed = Arrays.copyOf(passed, size);
+        failed = Arrays.copyOf(failed, size);
+        error = Arrays.copyOf(error, size);
+    }
+
+    private int itemCode(String itemId) {
+        if (lastItemCode >= 0 && itemId.equals(lastItem)) {
+            return lastItemCode;
+        }
+        lastItem = itemId;
+        lastItemCode = encode(itemId, itemDictionary, itemCodes);
+        return lastItemCode;
+    }
+
+    private static int encode(String value, List<String> dictionary, Map<String, Integer> codes) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private long sum(int[] column) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += column[i];
+        }
+        return total;
+    }
+
+    private int checkIndex(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = items.length + (items.length >> 1) + 1;
+        items = Arrays.copyOf(items, capacity);
+        dimensions = Arrays.copyOf(dimensions, capacity);
+        passed = Arrays.copyOf(passed, capacity);
+        failed = Arrays.copyOf(failed, capacity);
+        error = Arrays.copyOf(error, capacity);
+    }
+}
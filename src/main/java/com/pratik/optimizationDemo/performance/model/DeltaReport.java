@@ -0,0 +1,20 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Item-dimension aggregates that changed since a client's watermark.
+ *
+ * Each aggregate carries the full current counts for its pair, not a
+ * difference, so a consumer applies a delta by replacing its stored rows.
+ *
+ * @param since watermark the client sent (null = from the beginning)
+ * @param watermark value to send as {@code since} on the next call
+ * @param changes current aggregates of every changed pair, ordered by item_id
+ */
+public record DeltaReport(
+        Instant since,
+        Instant watermark,
+        List<MetricAggregate> changes) {
+}
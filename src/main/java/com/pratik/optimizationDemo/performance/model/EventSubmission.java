@@ -0,0 +1,31 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.time.Instant;
+
+/**
+ * One scanner result to be written to entity_event.
+ *
+ * (tenantId, sourceId, itemId, dimensionId) identifies the row; a newer
+ * submission for the same key replaces status and lastSeenTime.
+ *
+ * @param status 0 = failed, 1 = passed, 2 = error; boxed so that a JSON
+ *               body without it is rejected instead of read as 0 (failed)
+ */
+public record EventSubmission(
+        Long sourceId,
+        String itemId,
+        String dimensionId,
+        Long tenantId,
+        Integer status,
+        Instant lastSeenTime) {
+
+    /**
+     * Upsert key of the row this submission writes.
+     */
+    public Key key() {
+        return new Key(tenantId, sourceId, itemId, dimensionId);
+    }
+
+    public record Key(Long tenantId, Long sourceId, String itemId, String dimensionId) {
+    }
+}
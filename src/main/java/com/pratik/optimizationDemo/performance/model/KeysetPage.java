@@ -0,0 +1,15 @@
+package com.pratik.optimizationDemo.performance.model;
+
+/**
+ * How far one keyset batch moved when its rows were written elsewhere
+ * (see ReportDao#fetchAggregatesOptimizedInto).
+ *
+ * @param itemCount number of catalog items the batch covered, including
+ *                  items the tenant has no events for
+ * @param lastItemId last catalog item_id covered, i.e. the next cursor;
+ *                   null when the batch is empty
+ */
+public record KeysetPage(
+        int itemCount,
+        String lastItemId) {
+}
@@ -21,6 +21,13 @@ public class MetricAggregate {
     }
 
     public double getPassRatePercentage() {
+        return passRatePercentage(passed, failed);
+    }
+
+    /**
+     * Pass rate over decided results; errors are excluded from the denominator.
+     */
+    public static double passRatePercentage(long passed, long failed) {
         long total = passed + failed;
         if (total == 0) {
             return 0.0;
@@ -0,0 +1,23 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Execution plan of one report query as reported by the database's EXPLAIN.
+ *
+ * @param query query name, as used for the report.query metric
+ * @param steps plan lines in the database's own notation
+ * @param fingerprint hash of the normalized plan; equal fingerprints mean
+ *                    the same access paths, join order and operators
+ * @param fullScanOnEvents whether entity_event is read by a full table scan
+ * @param usesTenantItemIndex whether idx_entity_event_tenant_item is used
+ */
+public record QueryPlan(
+        String query,
+        List<String> steps,
+        String fingerprint,
+        boolean fullScanOnEvents,
+        boolean usesTenantItemIndex,
+        Instant capturedAt) {
+}
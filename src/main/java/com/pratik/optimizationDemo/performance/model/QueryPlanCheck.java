@@ -0,0 +1,16 @@
+package com.pratik.optimizationDemo.performance.model;
+
+/**
+ * Outcome of capturing a query plan and comparing it with the last one.
+ *
+ * @param previousFingerprint fingerprint of the previous capture, null on
+ *                            the first
+ * @param changed whether the fingerprint differs from the previous capture
+ * @param regression why the plan is worse than its baseline, null if it is not
+ */
+public record QueryPlanCheck(
+        QueryPlan plan,
+        String previousFingerprint,
+        boolean changed,
+        String regression) {
+}
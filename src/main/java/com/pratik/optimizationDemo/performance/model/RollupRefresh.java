@@ -0,0 +1,24 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.sql.Timestamp;
+
+/**
+ * Outcome of one incremental rollup refresh.
+ *
+ * @param from start of the recount (exclusive): the previous watermark minus the
+ *             recount margin, null if there was nothing to fold in
+ * @param to watermark after the refresh (inclusive), null if there was nothing to fold in
+ * @param rows rollup rows written
+ * @param caughtUp whether the window reached the newest event update; when
+ *                 false, more events are waiting beyond {@code to}
+ */
+public record RollupRefresh(
+        Timestamp from,
+        Timestamp to,
+        int rows,
+        boolean caughtUp) {
+
+    public static RollupRefresh upToDate() {
+        return new RollupRefresh(null, null, 0, true);
+    }
+}
@@ -0,0 +1,31 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One report query execution that exceeded report.slow-queries.threshold.
+ *
+ * @param query query name, as used for the report.query metric
+ * @param binds bind values by parameter name (tenantId, groupId,
+ *              lastSeenId, limit, ...)
+ * @param rows rows read from the result set
+ * @param fetchMillis time spent executing and fetching, i.e. in the driver
+ *                    and the database
+ * @param mappingMillis time spent mapping rows and in row callbacks
+ * @param context report work that issued the query (e.g. "job 42"), null
+ *                for ad-hoc requests
+ * @param error failure message, null if the query succeeded
+ */
+public record SlowQuery(
+        String query,
+        Map<String, Object> binds,
+        long rows,
+        double totalMillis,
+        double fetchMillis,
+        double mappingMillis,
+        String context,
+        String thread,
+        Instant startedAt,
+        String error) {
+}
@@ -0,0 +1,10 @@
+package com.pratik.optimizationDemo.performance.model;
+
+/**
+ * An item-dimension aggregate together with the tenant it belongs to, for
+ * stores that hold several tenants side by side.
+ */
+public record TenantAggregate(
+        Long tenantId,
+        MetricAggregate aggregate) {
+}
@@ -0,0 +1,20 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One keyset batch of a multi-tenant report.
+ *
+ * @param rowsByTenant aggregates per tenant, each list ordered by item_id;
+ *                     tenants without events in this batch are absent
+ * @param itemCount number of catalog items the batch covered, including
+ *                  items none of the tenants has events for
+ * @param lastItemId last catalog item_id covered, i.e. the next cursor;
+ *                   null when the batch is empty
+ */
+public record TenantBatch(
+        Map<Long, List<MetricAggregate>> rowsByTenant,
+        int itemCount,
+        String lastItemId) {
+}
@@ -0,0 +1,18 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import java.util.List;
+
+/**
+ * One keyset batch of a trend report.
+ *
+ * @param buckets counts per item, dimension and bucket, ordered by item_id
+ * @param itemCount number of catalog items the batch covered, including
+ *                  items without events in the time window
+ * @param lastItemId last catalog item_id covered, i.e. the next cursor;
+ *                   null when the batch is empty
+ */
+public record TrendBatch(
+        List<TrendBucket> buckets,
+        int itemCount,
+        String lastItemId) {
+}
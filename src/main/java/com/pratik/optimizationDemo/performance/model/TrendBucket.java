@@ -0,0 +1,39 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pass/fail/error counts of one item-dimension within one time bucket.
+ *
+ * bucketStart is in the database session's time zone, like last_seen_time.
+ */
+@Data
+public class TrendBucket {
+
+    private String itemId;
+    private String dimensionId;
+    private LocalDateTime bucketStart;
+    private long passed;
+    private long failed;
+    private long error;
+
+    public TrendBucket(String itemId, String dimensionId, LocalDateTime bucketStart,
+                       long passed, long failed, long error) {
+        this.itemId = itemId;
+        this.dimensionId = dimensionId;
+        this.bucketStart = bucketStart;
+        this.passed = passed;
+        this.failed = failed;
+        this.error = error;
+    }
+
+    public double getPassRatePercentage() {
+        return MetricAggregate.passRatePercentage(passed, failed);
+    }
+
+    public long getTotal() {
+        return passed + failed + error;
+    }
+}
@@ -0,0 +1,10 @@
+package com.pratik.optimizationDemo.performance.model;
+
+/**
+ * Width of a trend bucket; SqlDialect#truncate renders it per database.
+ */
+public enum TrendGranularity {
+
+    HOUR,
+    DAY
+}
@@ -0,0 +1,65 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+
+/**
+ * Batch sizer that steers per-batch latency towards a target.
+ *
+ * DEFAULT_BATCH_SIZE = 1000 is a compromise: too small wastes round-trips,
+ * too large makes each query slow and memory-hungry. The right value
+ * depends on how many events each tenant has per item, so it is measured
+ * instead of guessed:
+ *
+ * 1. Smooth the observed latency per requested item (EWMA), so one slow
+ *    batch does not cause a swing
+ * 2. Size the next batch so that it should take report.adaptive.target-latency
+ * 3. Change by at most 2x per step and stay within min/max bounds
+ *
+ * Not thread-safe; one instance per report run.
+ */
+class AdaptiveBatchSizer implements BatchSizer {
+
+    // Weight of the newest observation in the moving average
+    private static final double SMOOTHING = 0.5;
+    private static final double MAX_STEP = 2.0;
+
+    private final long targetNanos;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+
+    private int current;
+    private double nanosPerItem = -1;
+
+    AdaptiveBatchSizer(ReportProperties.Adaptive config, int initialBatchSize) {
+        this.targetNanos = config.getTargetBatchLatency().toNanos();
+        this.minBatchSize = config.getMinBatchSize();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.current = clamp(initialBatchSize);
+    }
+
+    @Override
+    public int next() {
+        return current;
+    }
+
+    @Override
+    public void observe(int limit, int items, long nanos) {
+        if (items < limit) {
+            // Last, partial batch: its latency says nothing about full batches
+            return;
+        }
+
+        double observed = (double) Math.max(1, nanos) / limit;
+        nanosPerItem = nanosPerItem < 0
+                ? observed
+                : SMOOTHING * observed + (1 - SMOOTHING) * nanosPerItem;
+
+        double ideal = targetNanos / nanosPerItem;
+        double bounded = Math.max(current / MAX_STEP, Math.min(current * MAX_STEP, ideal));
+        current = clamp((int) Math.round(bounded));
+    }
+
+    private int clamp(int size) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, size));
+    }
+}
@@ -0,0 +1,179 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantAggregate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory passed/failed/error counters per tenant-item-dimension.
+ *
+ * Entries are grouped per (tenant, item) so a report reads one item with a
+ * single lookup, and spread over independently locked shards so report
+ * readers and the ingestion writer rarely contend. Every changed key is
+ * remembered as dirty until the next checkpoint collects it.
+ *
+ * Memory is roughly 150 bytes per key plus the (shared) id strings.
+ */
+final class AggregateCounters {
+
+    private static final int PASSED = 0;
+    private static final int FAILED = 1;
+    private static final int ERROR = 2;
+
+    private record TenantItem(Long tenantId, String itemId) {
+    }
+
+    private record Key(TenantItem tenantItem, String dimensionId) {
+    }
+
+    private static final class Shard {
+        final Map<TenantItem, Map<String, long[]>> items = new HashMap<>();
+        final Set<Key> dirty = new HashSet<>();
+    }
+
+    private final Shard[] shards;
+
+    /**
+     * @param shards number of shards, rounded up to a power of two
+     */
+    AggregateCounters(int shards) {
+        int size = shards <= 1 ? 1 : Integer.highestOneBit(Math.min(shards, 1 << 16) - 1) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the counter of {@code status} (0 = failed,
+     * 1 = passed, 2 = error); other status values are ignored.
+     */
+    void add(Long tenantId, String itemId, String dimensionId, int status, long delta) {
+        int column = column(status);
+        if (column < 0) {
+            return;
+        }
+        TenantItem tenantItem = new TenantItem(tenantId, itemId);
+        Shard shard = shard(tenantItem);
+        synchronized (shard) {
+            shard.items.computeIfAbsent(tenantItem, k -> new HashMap<>(4))
+                    .computeIfAbsent(dimensionId, k -> new long[3])[column] += delta;
+            shard.dirty.add(new Key(tenantItem, dimensionId));
+        }
+    }
+
+    /**
+     * Replaces the counters of one key.
+     *
+     * @param dirty whether the next checkpoint has to write the key
+     */
+    void put(TenantAggregate entry, boolean dirty) {
+        MetricAggregate aggregate = entry.aggregate();
+        TenantItem tenantItem = new TenantItem(entry.tenantId(), aggregate.getItemId());
+        Shard shard = shard(tenantItem);
+        synchronized (shard) {
+            shard.items.computeIfAbsent(tenantItem, k -> new HashMap<>(4))
+                    .put(aggregate.getDimensionId(),
+                            new long[] {aggregate.getPassed(), aggregate.getFailed(), aggregate.getError()});
+            if (dirty) {
+                shard.dirty.add(new Key(tenantItem, aggregate.getDimensionId()));
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the item's counters, ordered by dimension_id;
+     *         empty if the item has none for the tenant
+     */
+    List<MetricAggregate> item(Long tenantId, String itemId) {
+        TenantItem tenantItem = new TenantItem(tenantId, itemId);
+        Shard shard = shard(tenantItem);
+        List<MetricAggregate> rows = new ArrayList<>();
+        synchronized (shard) {
+            Map<String, long[]> dimensions = shard.items.get(tenantItem);
+            if (dimensions == null) {
+                return rows;
+            }
+            dimensions.forEach((dimensionId, c) ->
+                    rows.add(new MetricAggregate(itemId, dimensionId, c[PASSED], c[FAILED], c[ERROR])));
+        }
+        rows.sort(Comparator.comparing(MetricAggregate::getDimensionId));
+        return rows;
+    }
+
+    /**
+     * Copies the current counters of every dirty key and clears the dirty
+     * marks. Keys whose write then fails must be handed back to
+     * {@link #markDirty}.
+     */
+    List<TenantAggregate> drainDirty() {
+        List<TenantAggregate> entries = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Key key : shard.dirty) {
+                    long[] c = shard.items.get(key.tenantItem()).get(key.dimensionId());
+                    entries.add(new TenantAggregate(key.tenantItem().tenantId(), new MetricAggregate(
+                            key.tenantItem().itemId(), key.dimensionId(), c[PASSED], c[FAILED], c[ERROR])));
+                }
+                shard.dirty.clear();
+            }
+        }
+        return entries;
+    }
+
+    void markDirty(Collection<TenantAggregate> entries) {
+        for (TenantAggregate entry : entries) {
+            TenantItem tenantItem = new TenantItem(entry.tenantId(), entry.aggregate().getItemId());
+            Shard shard = shard(tenantItem);
+            synchronized (shard) {
+                shard.dirty.add(new Key(tenantItem, entry.aggregate().getDimensionId()));
+            }
+        }
+    }
+
+    /**
+     * @return number of tenant-item-dimension keys held
+     */
+    long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Map<String, long[]> dimensions : shard.items.values()) {
+                    size += dimensions.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.items.clear();
+                shard.dirty.clear();
+            }
+        }
+    }
+
+    private Shard shard(TenantItem tenantItem) {
+        int h = tenantItem.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    private static int column(int status) {
+        return switch (status) {
+            case 1 -> PASSED;
+            case 0 -> FAILED;
+            case 2 -> ERROR;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports for every group at once.
+ *
+ * Looping {@link ReportService#generateReport} over all groups reads an
+ * item's events once per group it belongs to. This service inverts the
+ * loop:
+ *
+ * 1. INDEX
+ *    - Read entity_catalog once into an in-memory item_id -> group_ids map
+ *    - Index-only scan; shared by every tenant in the same request
+ *
+ * 2. SCAN
+ *    - One streaming pass over entity_event per tenant, aggregated per
+ *      item-dimension, independent of groups
+ *
+ * 3. FAN OUT
+ *    - Each aggregate is appended to the list of every group its item is in
+ *    - The scan is in item_id order, so every group list is too
+ *
+ * Aggregates are shared between the groups of an item; treat the result as
+ * read-only. Items with events but no catalog entry belong to no group and
+ * are dropped, as in the per-group report.
+ */
+@Service
+public class AllGroupsReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AllGroupsReportService.class);
+    private static final String[] NO_GROUPS = new String[0];
+
+    private final ReportDao reportDao;
+
+    public AllGroupsReportService(ReportDao reportDao) {
+        this.reportDao = reportDao;
+    }
+
+    /**
+     * Generate every group's report for one tenant.
+     *
+     * @param tenantId the tenant ID
+     * @return aggregates per group_id, groups sorted by id, each list
+     *         ordered by item_id; groups without events map to an empty list
+     */
+    public Map<String, List<MetricAggregate>> generateReport(Long tenantId) {
+        return generateReport(List.of(tenantId)).get(tenantId);
+    }
+
+    /**
+     * Generate every group's report for several tenants, building the
+     * item-to-groups index only once.
+     *
+     * @param tenantIds the tenant IDs
+     * @return per tenant (in tenantIds order), aggregates per group_id
+     */
+    public Map<Long, Map<String, List<MetricAggregate>>> generateReport(Collection<Long> tenantIds) {
+        Map<String, String[]> itemGroups = loadItemGroups();
+        List<String> groupIds = itemGroups.values().stream()
+                .flatMap(Arrays::stream)
+                .distinct()
+                .sorted()
+                .toList();
+
+        Map<Long, Map<String, List<MetricAggregate>>> results = new LinkedHashMap<>();
+        for (Long tenantId : new LinkedHashSet<>(tenantIds)) {
+            results.put(tenantId, scanTenant(tenantId, itemGroups, groupIds));
+        }
+        return results;
+    }
+
+    private Map<String, List<MetricAggregate>> scanTenant(
+            Long tenantId,
+            Map<String, String[]> itemGroups,
+            List<String> groupIds) {
+
+        log.info("Starting all-groups report for tenant={}, groups={}", tenantId, groupIds.size());
+
+        Map<String, List<MetricAggregate>> byGroup = new TreeMap<>();
+        for (String groupId : groupIds) {
+            byGroup.put(groupId, new ArrayList<>());
+        }
+
+        long[] scanned = {0};
+        long[] unassigned = {0};
+        long startTime = System.currentTimeMillis();
+
+        reportDao.forEachTenantAggregate(tenantId, aggregate -> {
+            scanned[0]++;
+            String[] groups = itemGroups.getOrDefault(aggregate.getItemId(), NO_GROUPS);
+            if (groups.length == 0) {
+                unassigned[0]++;
+            }
+            for (String groupId : groups) {
+                byGroup.get(groupId).add(aggregate);
+            }
+        });
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("All-groups report complete: tenant={}, {} aggregates scanned, {} without group, {}ms",
+                tenantId, scanned[0], unassigned[0], duration);
+
+        return byGroup;
+    }
+
+    /**
+     * Loads item_id -> group_ids for the whole catalog.
+     *
+     * Group ids repeat across hundreds of thousands of items, so each id is
+     * stored once and shared; arrays instead of lists keep the per-item
+     * overhead small.
+     */
+    private Map<String, String[]> loadItemGroups() {
+        long startTime = System.currentTimeMillis();
+        Map<String, String> canonicalGroups = new HashMap<>();
+        Map<String, String[]> itemGroups = new HashMap<>();
+
+        reportDao.forEachItemGroup((itemId, groupId) -> {
+            String group = canonicalGroups.computeIfAbsent(groupId, id -> id);
+            itemGroups.merge(itemId, new String[] {group}, (existing, added) -> {
+                String[] merged = Arrays.copyOf(existing, existing.length + 1);
+                merged[existing.length] = added[0];
+                return merged;
+            });
+        });
+
+        log.info("Loaded item-group index: {} items, {} groups, {}ms",
+                itemGroups.size(), canonicalGroups.size(), System.currentTimeMillis() - startTime);
+        return itemGroups;
+    }
+}
@@ -0,0 +1,130 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer half of the pipelined report loop.
+ *
+ * Runs the keyset loop on a background thread and hands each batch to the
+ * consumer through a bounded queue. Keyset pagination only needs the last
+ * item_id of the previous batch, so the producer can issue batch N+1 as soon
+ * as batch N has arrived, while the consumer is still processing batch N.
+ *
+ * Batches are queued in fetch order, so the consumer sees exactly the same
+ * sequence as the serial loop, pages of items without events included; they
+ * carry no rows but move the cursor a checkpoint is taken at. A producer that
+ * dies, with an exception or an Error, still ends the stream but leaves
+ * {@link #failure()} set.
+ */
+final class BatchPrefetcher implements Runnable {
+
+    // Marks the end of the stream. Compared by identity, never by equals.
+    static final AggregateBatch END_OF_STREAM = new AggregateBatch(List.of(), 0, null);
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final ReportDao reportDao;
+    private final Long tenantId;
+    private final String groupId;
+    private final String startAfter;
+    private final BatchSizer batchSizer;
+    private final BlockingQueue<AggregateBatch> queue;
+
+    private volatile boolean stopped;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param startAfter keyset cursor to start after; "" for the whole group
+     */
+    BatchPrefetcher(
+            ReportDao reportDao, Long tenantId, String groupId, String startAfter,
+            BatchSizer batchSizer, int prefetchDepth) {
+        this.reportDao = reportDao;
+        this.tenantId = tenantId;
+        this.groupId = groupId;
+        this.startAfter = startAfter;
+        this.batchSizer = batchSizer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, prefetchDepth));
+    }
+
+    @Override
+    public void run() {
+        String lastSeenId = startAfter;
+        try {
+            while (!stopped) {
+                int limit = batchSizer.next();
+                long fetchStart = System.nanoTime();
+                AggregateBatch batch = reportDao.fetchAggregatesOptimized(
+                        tenantId, groupId, lastSeenId, limit);
+                batchSizer.observe(limit, batch.itemCount(), System.nanoTime() - fetchStart);
+
+                if (batch.itemCount() == 0) {
+                    break;
+                }
+                if (!enqueue(batch)) {
+                    break;
+                }
+
+                lastSeenId = batch.lastItemId();
+
+                if (batch.itemCount() < limit) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            // END_OF_STREAM still goes out below; without a failure the
+            // consumer would return the truncated report as complete
+            failure = new IllegalStateException("Report prefetch failed", e);
+            throw e;
+        } finally {
+            enqueue(END_OF_STREAM);
+        }
+    }
+
+    /**
+     * Waits for the next batch.
+     *
+     * @return the next batch, {@link #END_OF_STREAM} when the producer is done,
+     *         or {@code null} if nothing arrived within the timeout
+     */
+    AggregateBatch poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * @return the exception that terminated the producer, if any
+     */
+    RuntimeException failure() {
+        return failure;
+    }
+
+    /**
+     * Asks the producer to stop after its current query and releases any
+     * batches it has already queued.
+     */
+    void stop() {
+        stopped = true;
+        queue.clear();
+    }
+
+    private boolean enqueue(AggregateBatch batch) {
+        try {
+            while (!stopped) {
+                if (queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
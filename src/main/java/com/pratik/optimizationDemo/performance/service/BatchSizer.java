@@ -0,0 +1,29 @@
+package com.pratik.optimizationDemo.performance.service;
+
+/**
+ * Decides the {@code limit} of each keyset batch.
+ *
+ * The batch loop asks for the next size before each query and reports back
+ * how the query went, so an implementation can adapt between batches.
+ */
+interface BatchSizer {
+
+    /**
+     * @return number of items to request in the next batch
+     */
+    int next();
+
+    /**
+     * Feedback for the batch that was just fetched with {@link #next()}.
+     *
+     * @param limit the limit that was requested
+     * @param items catalog items the batch covered
+     * @param nanos wall time of the query
+     */
+    default void observe(int limit, int items, long nanos) {
+    }
+
+    static BatchSizer fixed(int batchSize) {
+        return () -> batchSize;
+    }
+}
@@ -0,0 +1,126 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Result cache in front of {@link ReportService#generateReport}.
+ *
+ * Dashboards poll the same (tenant, group) many times a minute and each
+ * call repeats the full keyset scan. This cache removes the repeats:
+ *
+ * 1. TTL
+ *    - Entries expire report.cache.ttl after they were generated
+ *
+ * 2. WEIGHT-BASED EVICTION
+ *    - Each entry weighs its row count; the cache holds at most
+ *      report.cache.max-rows rows in total
+ *
+ * 3. SINGLE-FLIGHT LOADING
+ *    - The first caller for a key runs the scan on its own thread
+ *    - Concurrent callers for the same key wait on that same future
+ *      instead of starting their own scan
+ *    - Failed loads are not cached
+ *
+ * Cached lists are immutable because they are shared between callers.
+ */
+@Service
+public class CachedReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CachedReportService.class);
+
+    private final ReportService reportService;
+    private final AsyncCache<ReportKey, List<MetricAggregate>> cache;
+
+    public CachedReportService(ReportService reportService, ReportProperties properties) {
+        this.reportService = reportService;
+        ReportProperties.Cache config = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(config.getTtl())
+                .maximumWeight(config.getMaxRows())
+                .weigher((ReportKey key, List<MetricAggregate> rows) -> rows.size())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Return the cached report for the key, generating it at most once
+     * across concurrent callers.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @return immutable aggregated statistics ordered by item_id
+     */
+    public List<MetricAggregate> getReport(Long tenantId, String groupId, int batchSize) {
+        ReportKey key = new ReportKey(tenantId, groupId, batchSize);
+
+        // The mapping function only runs on a miss and must not block,
+        // so it hands back an empty future that this thread then fills.
+        CompletableFuture<List<MetricAggregate>> placeholder = new CompletableFuture<>();
+        CompletableFuture<List<MetricAggregate>> future = cache.get(key, (k, executor) -> placeholder);
+
+        if (future == placeholder) {
+            try {
+                placeholder.complete(List.copyOf(reportService.generateReport(tenantId, groupId, batchSize)));
+            } catch (Throwable e) {
+                // Also for Errors: an incomplete placeholder never expires,
+                // and every later caller for the key would wait on it forever
+                placeholder.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            log.debug("Report cache hit for {}", key);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * @return hit/miss/load-time counters plus current size
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loadSuccesses", stats.loadSuccessCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedRows", stats.evictionWeight());
+        return result;
+    }
+
+    private record ReportKey(Long tenantId, String groupId, int batchSize) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically checkpoints the write-through counters, and retries their
+ * recovery if it failed at startup.
+ *
+ * Enabled with {@code report.counters.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "report.counters", name = "enabled", havingValue = "true")
+public class CounterCheckpointJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterCheckpointJob.class);
+
+    private final EventCounterService eventCounterService;
+
+    public CounterCheckpointJob(EventCounterService eventCounterService) {
+        this.eventCounterService = eventCounterService;
+    }
+
+    @Scheduled(fixedDelayString = "${report.counters.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        try {
+            if (!eventCounterService.isReady()) {
+                eventCounterService.recover();
+            } else {
+                eventCounterService.checkpoint();
+            }
+        } catch (RuntimeException e) {
+            // Changed keys stay dirty and the watermark is not advanced;
+            // the next run retries
+            log.error("Counter checkpoint failed", e);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.EventCounterDao;
+import com.pratik.optimizationDemo.performance.dao.EventIngestDao;
+import com.pratik.optimizationDemo.performance.dao.RollupDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-through passed/failed/error counters per tenant-item-dimension.
+ *
+ * Reports count raw events with COUNT(CASE ...) on every request, so their
+ * cost grows with entity_event. With counters enabled, ingestion keeps the
+ * counts current instead and reports read O(items) (see
+ * CounterReportService):
+ *
+ * 1. WRITE
+ *    - Each ingestion flush reads the stored status of its rows, upserts
+ *      them in the same transaction, then applies -1 to the old status and
+ *      +1 to the new one; stale submissions the upsert ignored change
+ *      nothing
+ *
+ * 2. CHECKPOINT
+ *    - Every report.counters.checkpoint-interval, keys changed since the
+ *      last checkpoint are merged into entity_event_counter together with
+ *      a watermark: the newest entity_event.updated_at they include
+ *
+ * 3. RECOVER
+ *    - On startup the checkpoint is loaded, then every key with events
+ *      updated after its watermark minus report.counters.recount-margin is
+ *      recounted from entity_event; without a checkpoint all keys are
+ *      counted once. The margin covers flushes in the watermark's own
+ *      TIMESTAMP second (MySQL stores whole seconds) that the checkpoint
+ *      did not include yet
+ *
+ * Writes, checkpoint snapshots and recovery are serialized by one lock, so
+ * a checkpoint never includes half of a flush. Counters are exact for
+ * writes made through ingestion only: a row changed by another writer is
+ * recounted if recovery runs before a checkpoint moves the watermark past
+ * it plus the margin, otherwise it is missed until the counters are
+ * rebuilt by deleting the entity_event_counter watermark and restarting.
+ */
+@Service
+public class EventCounterService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EventCounterService.class);
+    private static final Timestamp BEGINNING_OF_TIME = new Timestamp(0L);
+
+    private final EventIngestDao eventIngestDao;
+    private final EventCounterDao eventCounterDao;
+    private final RollupDao rollupDao;
+    private final ReportMetrics metrics;
+    private final ReportProperties.Counters config;
+    private final TransactionOperations transactions;
+    private final AggregateCounters counters;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private volatile boolean ready;
+
+    public EventCounterService(
+            EventIngestDao eventIngestDao,
+            EventCounterDao eventCounterDao,
+            RollupDao rollupDao,
+            ReportMetrics metrics,
+            ReportProperties properties,
+            TransactionOperations transactions) {
+        this.eventIngestDao = eventIngestDao;
+        this.eventCounterDao = eventCounterDao;
+        this.rollupDao = rollupDao;
+        this.metrics = metrics;
+        this.config = properties.getCounters();
+        this.transactions = transactions;
+        this.counters = new AggregateCounters(config.getShards());
+        metrics.registerCounters(counters, AggregateCounters::size);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * @return whether the counters are recovered and kept current
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Upserts a coalesced ingestion batch (at most one submission per key)
+     * and applies the resulting status changes to the counters.
+     */
+    public void write(List<EventSubmission> rows) {
+        writeLock.lock();
+        try {
+            Map<EventSubmission.Key, EventCounterDao.StoredStatus> previous =
+                    transactions.execute(tx -> {
+                        Map<EventSubmission.Key, EventCounterDao.StoredStatus> stored =
+                                eventCounterDao.findCurrentStatuses(rows);
+                        eventIngestDao.upsert(rows);
+                        return stored;
+                    });
+            if (ready) {
+                apply(rows, previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the item's counters ordered by dimension_id
+     */
+    List<MetricAggregate> item(Long tenantId, String itemId) {
+        return counters.item(tenantId, itemId);
+    }
+
+    /**
+     * Rebuilds the counters from the last checkpoint plus a recount of
+     * everything changed after it. Ingestion writes wait meanwhile.
+     */
+    public void recover() {
+        writeLock.lock();
+        try {
+            ready = false;
+            counters.clear();
+            long startTime = System.currentTimeMillis();
+
+            Timestamp watermark = rollupDao.findWatermark(EventCounterDao.EVENT_COUNTERS);
+            long[] loaded = {0};
+            if (watermark != null) {
+                eventCounterDao.forEachCheckpointed(entry -> {
+                    counters.put(entry, false);
+                    loaded[0]++;
+                });
+            }
+
+            // Recounted keys differ from the stored checkpoint, so they are
+            // written by the next one. Recounts replace whole counters, so
+            // recounting a key the checkpoint already includes is harmless
+            Timestamp since = watermark == null ? null
+                    : new Timestamp(watermark.getTime() - config.getRecountMargin().toMillis());
+            long[] recounted = {0};
+            eventCounterDao.forEachRecount(since, entry -> {
+                counters.put(entry, true);
+                recounted[0]++;
+            });
+
+            ready = true;
+            log.info("Counters recovered: {} keys from checkpoint at {}, {} recounted, {}ms",
+                    loaded[0], watermark, recounted[0], System.currentTimeMillis() - startTime);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every counter changed since the previous checkpoint.
+     *
+     * @return number of counter rows written
+     */
+    public int checkpoint() {
+        if (!ready) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        Timestamp watermark;
+        List<TenantAggregate> changed;
+        writeLock.lock();
+        try {
+            // Read under the lock: every ingestion write up to this point is
+            // applied. Later flushes can still land in the same second,
+            // which recover() covers with the recount margin
+            watermark = rollupDao.findLatestEventUpdate(BEGINNING_OF_TIME);
+            changed = counters.drainDirty();
+        } finally {
+            writeLock.unlock();
+        }
+        if (watermark == null) {
+            return 0;
+        }
+
+        try {
+            transactions.executeWithoutResult(tx -> {
+                int batchSize = Math.max(1, config.getCheckpointBatchSize());
+                for (int from = 0; from < changed.size(); from += batchSize) {
+                    eventCounterDao.saveCheckpoint(changed.subList(from, Math.min(changed.size(), from + batchSize)));
+                }
+                rollupDao.saveWatermark(EventCounterDao.EVENT_COUNTERS, watermark);
+            });
+        } catch (RuntimeException e) {
+            counters.markDirty(changed);
+            metrics.recordCounterCheckpoint("failure", System.nanoTime() - start);
+            throw e;
+        }
+
+        metrics.recordCounterCheckpoint("success", System.nanoTime() - start);
+        log.info("Counter checkpoint complete: {} rows, watermark {}", changed.size(), watermark);
+        return changed.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            // Reports fall back to SQL; CounterCheckpointJob retries
+            log.error("Counter recovery failed", e);
+        }
+    }
+
+    /**
+     * Writes a final checkpoint. Runs after ingestion has drained, so
+     * nothing is left to recount on the next start.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.error("Final counter checkpoint failed", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after EventIngestService.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    private void apply(List<EventSubmission> rows, Map<EventSubmission.Key, EventCounterDao.StoredStatus> previous) {
+        for (EventSubmission row : rows) {
+            EventCounterDao.StoredStatus old = previous.get(row.key());
+            if (old == null) {
+                counters.add(row.tenantId(), row.itemId(), row.dimensionId(), row.status(), 1);
+            } else if (old.lastSeenTime() != null && old.lastSeenTime().isAfter(row.lastSeenTime())) {
+                // Older than the stored result; the upsert left the row alone
+            } else if (old.status() != row.status()) {
+                counters.add(row.tenantId(), row.itemId(), row.dimensionId(), old.status(), -1);
+                counters.add(row.tenantId(), row.itemId(), row.dimensionId(), row.status(), 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the ingestion queue has no room for a submission.
+ *
+ * Mapped to 429 so scanners back off and resend; nothing of the rejected
+ * request was accepted.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when ingestion is not running, e.g. during shutdown.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestUnavailableException extends RuntimeException {
+
+    public IngestUnavailableException(String message) {
+        super(message);
+    }
+}
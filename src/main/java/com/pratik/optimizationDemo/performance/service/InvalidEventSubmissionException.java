@@ -0,0 +1,15 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a submission request is malformed or too large.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidEventSubmissionException extends RuntimeException {
+
+    public InvalidEventSubmissionException(String message) {
+        super(message);
+    }
+}
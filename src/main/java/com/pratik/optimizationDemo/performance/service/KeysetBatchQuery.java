@@ -0,0 +1,21 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+
+/**
+ * One page of a keyset-paginated report query.
+ *
+ * Lets the batch loop in {@link ReportService} run unchanged over any source
+ * that pages by item_id (raw events, rollup, ...).
+ */
+@FunctionalInterface
+interface KeysetBatchQuery {
+
+    /**
+     * @param lastSeenId the last item_id of the previous batch, "" for the first
+     * @param limit maximum number of items in this batch
+     * @return rows ordered by item_id and the items covered; no items when
+     *         the keyspace is exhausted
+     */
+    AggregateBatch fetch(String lastSeenId, int limit);
+}
@@ -0,0 +1,187 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Range-partitioned report generation.
+ *
+ * {@link ReportService#generateReport} walks a group's keyspace through one
+ * serial keyset cursor, so a 500K-item group costs 500 sequential round-trips
+ * no matter how many cores the database has. This service splits the
+ * keyspace first and scans the slices concurrently:
+ *
+ * 1. SAMPLE
+ *    - NTILE over entity_catalog (group_id, item_id) yields split points
+ *    - Index-only, entity_event is not touched
+ *
+ * 2. SCAN
+ *    - One independent keyset loop per range: item_id in (lower, upper]
+ *    - Ranges run on a bounded worker pool shared by all reports
+ *
+ * 3. MERGE
+ *    - Ranges are disjoint and ordered, so concatenating their results in
+ *      range order reproduces the serial item_id order exactly
+ *
+ * Small groups (see report.parallel.min-items-per-partition) are served by
+ * the serial loop; splitting them only adds overhead.
+ */
+@Service
+public class ParallelReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelReportService.class);
+
+    private final ReportDao reportDao;
+    private final ReportService reportService;
+    private final ReportProperties properties;
+    private final AsyncTaskExecutor workers;
+    private final ReportMetrics metrics;
+
+    public ParallelReportService(
+            ReportDao reportDao,
+            ReportService reportService,
+            ReportProperties properties,
+            @Qualifier("reportParallelExecutor") AsyncTaskExecutor workers,
+            ReportMetrics metrics) {
+        this.reportDao = reportDao;
+        this.reportService = reportService;
+        this.properties = properties;
+        this.workers = workers;
+        this.metrics = metrics;
+    }
+
+    public List<MetricAggregate> generateReport(Long tenantId, String groupId) {
+        return generateReport(tenantId, groupId, ReportService.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Generate a full report by scanning item_id ranges in parallel.
+     *
+     * Returns the same rows, in the same order, as
+     * {@link ReportService#generateReport(Long, String, int)}.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items per keyset batch within each range
+     * @return aggregated statistics ordered by item_id
+     */
+    public List<MetricAggregate> generateReport(Long tenantId, String groupId, int batchSize) {
+        ReportProperties.Parallel config = properties.getParallel();
+
+        long itemCount = reportDao.getItemCount(groupId);
+        int partitions = (int) Math.min(config.getPartitions(),
+                itemCount / Math.max(1, config.getMinItemsPerPartition()));
+
+        if (partitions < 2) {
+            log.debug("Group {} has {} items - using serial report", groupId, itemCount);
+            return reportService.generateReport(tenantId, groupId, batchSize);
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        List<String> splitPoints = reportDao.findSplitPoints(groupId, partitions);
+
+        log.info("Starting parallel report for tenant={}, group={}, items={}, ranges={}",
+                tenantId, groupId, itemCount, splitPoints.size());
+
+        // Summed over all ranges; dbNanos is total query time, not wall-clock
+        AtomicInteger batches = new AtomicInteger();
+        AtomicLong dbNanos = new AtomicLong();
+
+        List<Future<List<MetricAggregate>>> ranges = new ArrayList<>(splitPoints.size());
+        String lowerBound = "";
+        for (int i = 0; i < splitPoints.size(); i++) {
+            String from = lowerBound;
+            // The last range is left open so items added after sampling are not lost
+            String to = i == splitPoints.size() - 1 ? null : splitPoints.get(i);
+            ranges.add(workers.submit(() ->
+                    scanRange(tenantId, groupId, from, to, batchSize, batches, dbNanos)));
+            lowerBound = splitPoints.get(i);
+        }
+
+        List<MetricAggregate> allResults = new ArrayList<>();
+        try {
+            for (Future<List<MetricAggregate>> range : ranges) {
+                allResults.addAll(range.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Parallel report interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Range scan failed", e.getCause());
+        } finally {
+            // No-op for finished ranges; stops queued ones after a failure
+            ranges.forEach(range -> range.cancel(false));
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        metrics.recordReport(tenantId, groupId, batches.get(), dbNanos.get(), 0);
+        log.info("Parallel report complete: {} ranges, {} records, {}ms",
+                ranges.size(), allResults.size(), duration);
+
+        return allResults;
+    }
+
+    /**
+     * Keyset loop over item_id in (lowerBound, upperBound].
+     * A null upperBound means the range is open-ended.
+     */
+    private List<MetricAggregate> scanRange(
+            Long tenantId,
+            String groupId,
+            String lowerBound,
+            String upperBound,
+            int batchSize,
+            AtomicInteger batches,
+            AtomicLong dbNanos) {
+
+        List<MetricAggregate> rangeResults = new ArrayList<>();
+        String lastSeenId = lowerBound;
+
+        while (true) {
+            batches.incrementAndGet();
+
+            long fetchStart = System.nanoTime();
+            AggregateBatch batch = upperBound == null
+                    ? reportDao.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, batchSize)
+                    : reportDao.fetchAggregatesInRange(tenantId, groupId, lastSeenId, upperBound, batchSize);
+            dbNanos.addAndGet(System.nanoTime() - fetchStart);
+
+            if (batch.itemCount() == 0) {
+                break;
+            }
+
+            rangeResults.addAll(batch.rows());
+            metrics.recordBatch(batch.rows().size());
+            metrics.recordBatchLimit(tenantId, groupId, batchSize);
+            // Items without events move the cursor too
+            lastSeenId = batch.lastItemId();
+
+            if (batch.itemCount() < batchSize) {
+                break;
+            }
+        }
+
+        log.debug("Range ({}, {}] complete: {} records", lowerBound, upperBound, rangeResults.size());
+        return rangeResults;
+    }
+}
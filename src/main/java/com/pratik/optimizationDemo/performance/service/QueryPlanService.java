@@ -0,0 +1,159 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.QueryPlanDao;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.QueryPlan;
+import com.pratik.optimizationDemo.performance.model.QueryPlanCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guards the plans of the report queries against silent regressions.
+ *
+ * The optimized query is fast only while entity_event is probed through
+ * idx_entity_event_tenant_item. A dropped index or drifted statistics
+ * bring back the 30-second full scan without any code change, so the
+ * plans are checked instead of the code:
+ *
+ * 1. CAPTURE
+ *    EXPLAIN each query of ReportDao#explainableQueries with the sample
+ *    binds from report.plans, on demand and optionally at startup
+ *
+ * 2. COMPARE
+ *    Against a baseline: the indexed shape for queries that must use
+ *    idx_entity_event_tenant_item, otherwise the first plan captured.
+ *    A plan regresses when it full-scans entity_event or stops using the
+ *    index while its baseline did not
+ *
+ * 3. ALERT
+ *    WARN log with both fingerprints and the new plan when a query
+ *    regresses, report.plan.regressions incremented, and
+ *    report.plan.regressed held at 1 until the plan recovers. Plan changes
+ *    that are not regressions are logged at INFO and counted
+ *
+ * Baselines live in memory; after a restart the first capture of the
+ * unindexed queries becomes their new baseline.
+ */
+@Service
+public class QueryPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanService.class);
+
+    private final ReportDao reportDao;
+    private final QueryPlanDao queryPlanDao;
+    private final ReportMetrics metrics;
+    private final ReportProperties.Plans config;
+
+    // Guarded by this
+    private final Map<String, QueryPlan> baselines = new HashMap<>();
+    private final Map<String, QueryPlanCheck> latest = new LinkedHashMap<>();
+
+    public QueryPlanService(
+            ReportDao reportDao,
+            QueryPlanDao queryPlanDao,
+            ReportMetrics metrics,
+            ReportProperties properties) {
+        this.reportDao = reportDao;
+        this.queryPlanDao = queryPlanDao;
+        this.metrics = metrics;
+        this.config = properties.getPlans();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!config.isCheckOnStartup()) {
+            return;
+        }
+        List<QueryPlanCheck> checks = capture();
+        log.info("Captured {} report query plans, {} regressed", checks.size(),
+                checks.stream().filter(check -> check.regression() != null).count());
+    }
+
+    /**
+     * EXPLAINs every guarded query and compares each plan with its baseline.
+     * A query that cannot be explained is logged and left out.
+     *
+     * @return one check per explained query
+     */
+    public synchronized List<QueryPlanCheck> capture() {
+        List<QueryPlanCheck> checks = new ArrayList<>();
+        for (ReportDao.ExplainableQuery query : reportDao.explainableQueries(
+                config.getSampleTenantId(), config.getSampleGroupId(), config.getSampleLimit())) {
+            QueryPlan plan;
+            try {
+                plan = queryPlanDao.explain(query);
+            } catch (DataAccessException e) {
+                log.warn("Could not capture the plan of the {} query: {}", query.name(), e.getMessage());
+                continue;
+            }
+            checks.add(check(query, plan));
+        }
+        return checks;
+    }
+
+    /**
+     * @return the latest check of every query captured so far
+     */
+    public synchronized List<QueryPlanCheck> latest() {
+        return new ArrayList<>(latest.values());
+    }
+
+    private QueryPlanCheck check(ReportDao.ExplainableQuery query, QueryPlan plan) {
+        String name = query.name();
+        QueryPlanCheck previous = latest.get(name);
+        if (previous == null) {
+            metrics.registerPlanState(name, this, service -> service.isRegressed(name) ? 1 : 0);
+        }
+
+        QueryPlan baseline = baselines.computeIfAbsent(name, n -> plan);
+        boolean baselineFullScan = !query.tenantItemIndexed() && baseline.fullScanOnEvents();
+        boolean baselineIndexed = query.tenantItemIndexed() || baseline.usesTenantItemIndex();
+
+        String regression = null;
+        if (plan.fullScanOnEvents() && !baselineFullScan) {
+            regression = "full scan on entity_event";
+        } else if (!plan.usesTenantItemIndex() && baselineIndexed) {
+            regression = "no longer uses " + QueryPlanDao.TENANT_ITEM_INDEX;
+        }
+
+        String previousFingerprint = previous == null ? null : previous.plan().fingerprint();
+        boolean changed = previousFingerprint != null && !previousFingerprint.equals(plan.fingerprint());
+        boolean wasRegressed = previous != null && previous.regression() != null;
+
+        if (changed) {
+            metrics.recordPlanChange(name);
+        }
+        if (regression != null && !wasRegressed) {
+            metrics.recordPlanRegression(name);
+            log.warn("Plan of the {} query regressed: {} (fingerprint {} -> {})\n{}",
+                    name, regression, previousFingerprint, plan.fingerprint(), String.join("\n", plan.steps()));
+        } else if (regression == null && wasRegressed) {
+            log.info("Plan of the {} query recovered (fingerprint {} -> {})",
+                    name, previousFingerprint, plan.fingerprint());
+        } else if (changed) {
+            log.info("Plan of the {} query changed (fingerprint {} -> {})",
+                    name, previousFingerprint, plan.fingerprint());
+        }
+
+        QueryPlanCheck check = new QueryPlanCheck(plan, previousFingerprint, changed, regression);
+        latest.put(name, check);
+        return check;
+    }
+
+    private synchronized boolean isRegressed(String query) {
+        QueryPlanCheck check = latest.get(query);
+        return check != null && check.regression() != null;
+    }
+}
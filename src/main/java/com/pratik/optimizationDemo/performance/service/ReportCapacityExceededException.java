@@ -0,0 +1,18 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a report could not get a DB work slot in time.
+ *
+ * Mapped to 503 so load balancers and clients treat it as a retryable
+ * overload rather than a server bug.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ReportCapacityExceededException extends RuntimeException {
+
+    public ReportCapacityExceededException(String message) {
+        super(message);
+    }
+}
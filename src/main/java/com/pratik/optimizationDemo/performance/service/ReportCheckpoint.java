@@ -0,0 +1,42 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import java.time.Instant;
+
+/**
+ * Committed position of a resumable report.
+ *
+ * Everything up to and including {@code lastSeenId} has been handed to the
+ * consumer and made durable by it; a resumed run continues with the first
+ * item after it.
+ *
+ * @param id caller-chosen checkpoint name, e.g. a job ID
+ * @param lastSeenId keyset cursor of the last committed batch ("" = start)
+ * @param batchNumber batches committed so far
+ * @param totalRecords rows committed so far
+ * @param outputBytes output position the consumer reported at commit time,
+ *                    0 if the consumer does not track one
+ */
+public record ReportCheckpoint(
+        String id,
+        Long tenantId,
+        String groupId,
+        String lastSeenId,
+        int batchNumber,
+        long totalRecords,
+        long outputBytes,
+        Instant updatedAt) {
+
+    static ReportCheckpoint initial(String id, Long tenantId, String groupId) {
+        return new ReportCheckpoint(id, tenantId, groupId, "", 0, 0, 0, Instant.now());
+    }
+
+    ReportCheckpoint advance(String lastSeenId, int batchNumber, long totalRecords) {
+        return new ReportCheckpoint(id, tenantId, groupId, lastSeenId, batchNumber, totalRecords,
+                outputBytes, Instant.now());
+    }
+
+    ReportCheckpoint withOutputBytes(long outputBytes) {
+        return new ReportCheckpoint(id, tenantId, groupId, lastSeenId, batchNumber, totalRecords,
+                outputBytes, updatedAt);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Local, file-per-checkpoint store for resumable reports.
+ *
+ * Each save writes a temp file and atomically renames it over the previous
+ * one, so a crash mid-write leaves the last good checkpoint in place rather
+ * than a truncated one.
+ *
+ * Local disk is enough for the intended failure (a long export dying half
+ * way); checkpoints do not follow a job to another node.
+ */
+@Component
+public class ReportCheckpointStore {
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+    private static final String SUFFIX = ".checkpoint";
+
+    private final Path dir;
+
+    public ReportCheckpointStore(ReportProperties properties) throws IOException {
+        String configured = properties.getCheckpoint().getDir();
+        this.dir = Files.createDirectories(configured.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "report-checkpoints")
+                : Paths.get(configured));
+    }
+
+    public void save(ReportCheckpoint checkpoint) {
+        Properties values = new Properties();
+        values.setProperty("tenantId", String.valueOf(checkpoint.tenantId()));
+        values.setProperty("groupId", checkpoint.groupId());
+        values.setProperty("lastSeenId", checkpoint.lastSeenId());
+        values.setProperty("batchNumber", Integer.toString(checkpoint.batchNumber()));
+        values.setProperty("totalRecords", Long.toString(checkpoint.totalRecords()));
+        values.setProperty("outputBytes", Long.toString(checkpoint.outputBytes()));
+        values.setProperty("updatedAt", checkpoint.updatedAt().toString());
+
+        Path target = file(checkpoint.id());
+        try {
+            Path temp = Files.createTempFile(dir, checkpoint.id(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                values.store(writer, null);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save checkpoint " + checkpoint.id(), e);
+        }
+    }
+
+    public Optional<ReportCheckpoint> find(String id) {
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(file(id), StandardCharsets.UTF_8)) {
+            values.load(reader);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + id, e);
+        }
+
+        return Optional.of(new ReportCheckpoint(
+                id,
+                Long.valueOf(values.getProperty("tenantId")),
+                values.getProperty("groupId"),
+                values.getProperty("lastSeenId"),
+                Integer.parseInt(values.getProperty("batchNumber")),
+                Long.parseLong(values.getProperty("totalRecords")),
+                Long.parseLong(values.getProperty("outputBytes")),
+                Instant.parse(values.getProperty("updatedAt"))));
+    }
+
+    public void delete(String id) {
+        try {
+            Files.deleteIfExists(file(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete checkpoint " + id, e);
+        }
+    }
+
+    private Path file(String id) {
+        // IDs become file names; never let one point outside the directory
+        if (!VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid checkpoint id: " + id);
+        }
+        return dir.resolve(id + SUFFIX);
+    }
+}
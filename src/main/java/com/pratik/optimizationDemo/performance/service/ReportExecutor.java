@@ -0,0 +1,154 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs report work according to the configured execution mode.
+ *
+ * PROBLEM:
+ * - A multi-batch report blocks a servlet request thread for its whole
+ *   duration, mostly waiting on the database
+ * - At peak, request threads run out long before the database does
+ *
+ * SOLUTION:
+ * - VIRTUAL mode hands the report to a virtual thread and frees the request
+ *   thread immediately; a blocked virtual thread costs a few KB, not a
+ *   platform thread
+ * - Cheap threads alone would just move the bottleneck to the connection
+ *   pool, so every report first takes a permit from a shared semaphore.
+ *   Request concurrency can grow; concurrent DB work stays capped
+ *
+ * PLATFORM mode keeps the original behaviour (work runs on the calling
+ * thread) but still honours the semaphore.
+ *
+ * Work runs under a QueryContext (see SlowQueryLog): the one passed in, or
+ * the submitting thread's, so reports on virtual threads keep it too.
+ */
+@Component
+public class ReportExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportExecutor.class);
+
+    private final ReportProperties.Execution config;
+    private final Semaphore dbWorkPermits;
+    private final AsyncTaskExecutor virtualThreads;
+
+    @Autowired
+    public ReportExecutor(ReportProperties properties) {
+        this(properties, () -> new VirtualThreadTaskExecutor("report-vt-"));
+    }
+
+    /**
+     * @param virtualThreadExecutor creates the VIRTUAL mode executor; throws
+     *        UnsupportedOperationException when the runtime has no virtual
+     *        threads
+     */
+    ReportExecutor(ReportProperties properties, Supplier<AsyncTaskExecutor> virtualThreadExecutor) {
+        this.config = properties.getExecution();
+        this.dbWorkPermits = new Semaphore(config.getMaxConcurrentDbWork(), true);
+        this.virtualThreads = config.getMode() == ReportProperties.Execution.Mode.VIRTUAL
+                ? createVirtualThreadExecutor(virtualThreadExecutor)
+                : null;
+    }
+
+    /**
+     * Run report work under the DB concurrency cap.
+     *
+     * @param work the report to run
+     * @return a future completed with the report result; already complete in
+     *         PLATFORM mode
+     * @throws ReportCapacityExceededException (PLATFORM mode) when no permit
+     *         became available within the acquire timeout; in VIRTUAL mode the
+     *         future completes exceptionally instead
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return submit(QueryContext.current(), work);
+    }
+
+    /**
+     * Run report work under the DB concurrency cap and the given query
+     * context.
+     *
+     * @see #submit(Supplier)
+     */
+    public <T> CompletableFuture<T> submit(String context, Supplier<T> work) {
+        if (virtualThreads == null) {
+            return CompletableFuture.completedFuture(runWithPermit(context, work));
+        }
+        return CompletableFuture.supplyAsync(() -> runWithPermit(context, work), virtualThreads);
+    }
+
+    /**
+     * Run report work on the calling thread under the DB concurrency cap.
+     *
+     * For callers that already own a background thread, such as streaming
+     * response bodies.
+     *
+     * @throws ReportCapacityExceededException when no permit became available
+     *         within the acquire timeout
+     */
+    public <T> T call(Supplier<T> work) {
+        return call(QueryContext.current(), work);
+    }
+
+    /**
+     * Run report work on the calling thread under the DB concurrency cap and
+     * the given query context.
+     *
+     * @see #call(Supplier)
+     */
+    public <T> T call(String context, Supplier<T> work) {
+        return runWithPermit(context, work);
+    }
+
+    /**
+     * @return number of reports currently holding a DB work permit
+     */
+    public int activeDbWork() {
+        return config.getMaxConcurrentDbWork() - dbWorkPermits.availablePermits();
+    }
+
+    private <T> T runWithPermit(String context, Supplier<T> work) {
+        boolean acquired;
+        try {
+            acquired = dbWorkPermits.tryAcquire(
+                    config.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportCapacityExceededException("Interrupted while waiting for a report slot");
+        }
+
+        if (!acquired) {
+            throw new ReportCapacityExceededException("No report slot available within "
+                    + config.getAcquireTimeout());
+        }
+
+        try (QueryContext.Scope ignored = QueryContext.open(context)) {
+            return work.get();
+        } finally {
+            dbWorkPermits.release();
+        }
+    }
+
+    private static AsyncTaskExecutor createVirtualThreadExecutor(Supplier<AsyncTaskExecutor> factory) {
+        try {
+            return factory.get();
+        } catch (UnsupportedOperationException e) {
+            log.warn("report.execution.mode=VIRTUAL requires Java 21+ (running {}) - using PLATFORM mode",
+                    Runtime.version());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.export.ReportFormat;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Future;
+
+/**
+ * One background report and its progress.
+ *
+ * Written by the worker thread, read by pollers; every field a poller sees
+ * is volatile, so a status response is a consistent-enough snapshot without
+ * locking the worker.
+ */
+public class ReportJob {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final Long tenantId;
+    private final String groupId;
+    private final int batchSize;
+    private final ReportFormat format;
+    private final Instant createdAt = Instant.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long estimatedBatches;
+    private volatile long batchesDone;
+    private volatile long records;
+    private volatile long resultBytes;
+    private volatile String error;
+
+    private volatile boolean cancelRequested;
+    private volatile Future<?> future;
+    private volatile Path resultFile;
+
+    ReportJob(String id, Long tenantId, String groupId, int batchSize, ReportFormat format) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.groupId = groupId;
+        this.batchSize = batchSize;
+        this.format = format;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getEstimatedBatches() {
+        return estimatedBatches;
+    }
+
+    public long getBatchesDone() {
+        return batchesDone;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Batches done vs. estimate, capped at 99 until the job has actually
+     * finished: the estimate counts catalog items and can be off either way.
+     */
+    public int getProgressPercent() {
+        if (state == State.COMPLETED) {
+            return 100;
+        }
+        if (estimatedBatches <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, batchesDone * 100 / estimatedBatches);
+    }
+
+    public long getResultBytes() {
+        return resultBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // ---- worker / service side ----
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    Path resultFile() {
+        return resultFile;
+    }
+
+    void spoolTo(Path resultFile) {
+        this.resultFile = resultFile;
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Hand a queued job to its worker.
+     *
+     * Checks and changes the state under the same lock as requestCancel, so
+     * a cancel either wins while the job is QUEUED or finds it RUNNING and
+     * leaves it to the worker; never both.
+     *
+     * @return false if the job was cancelled before the worker got it
+     */
+    synchronized boolean startIfQueued() {
+        if (state != State.QUEUED || cancelRequested) {
+            return false;
+        }
+        this.startedAt = Instant.now();
+        this.state = State.RUNNING;
+        return true;
+    }
+
+    void progressFrom(long estimatedBatches, ReportCheckpoint resumedFrom) {
+        this.estimatedBatches = estimatedBatches;
+        this.batchesDone = resumedFrom.batchNumber();
+        this.records = resumedFrom.totalRecords();
+    }
+
+    /**
+     * Put a failed job back in the queue; it resumes from its checkpoint.
+     *
+     * Checks and changes the state atomically, so of two concurrent resumes
+     * only one gets the job; two workers on the same spool file and
+     * checkpoint would corrupt both.
+     *
+     * @return the error the job failed with, or null if it was not FAILED
+     *         and nothing changed
+     */
+    synchronized String requeueIfFailed() {
+        if (state != State.FAILED) {
+            return null;
+        }
+        String failure = error;
+        this.error = null;
+        this.finishedAt = null;
+        this.cancelRequested = false;
+        this.state = State.QUEUED;
+        return failure;
+    }
+
+    void batchWritten(int rows) {
+        // Single writer (the worker thread), so ++ on a volatile is safe here
+        records += rows;
+        batchesDone++;
+    }
+
+    void complete(long resultBytes) {
+        this.resultBytes = resultBytes;
+        finish(State.COMPLETED);
+    }
+
+    void fail(String error) {
+        // Never null while FAILED; requeueIfFailed relies on it
+        this.error = Objects.requireNonNullElse(error, "Failed");
+        finish(State.FAILED);
+    }
+
+    void cancelled() {
+        finish(State.CANCELLED);
+    }
+
+    /**
+     * Ask the job to stop. A queued job is removed from the pool; a running
+     * one stops before its next batch.
+     *
+     * Decided by the job's own state, not by Future.cancel: that also
+     * succeeds for a task whose worker is already in run() but has not
+     * started the job yet.
+     *
+     * @return true if the job was still queued and is now CANCELLED;
+     *         false if a worker has it and will finish it
+     */
+    synchronized boolean requestCancel() {
+        cancelRequested = true;
+        if (state != State.QUEUED) {
+            return false;
+        }
+        finish(State.CANCELLED);
+        Future<?> queued = future;
+        if (queued != null) {
+            queued.cancel(false);
+        }
+        return true;
+    }
+
+    private synchronized void finish(State finalState) {
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+    }
+}
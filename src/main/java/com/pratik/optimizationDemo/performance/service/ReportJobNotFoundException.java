@@ -0,0 +1,15 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown for unknown or already expired report job IDs.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReportJobNotFoundException extends RuntimeException {
+
+    public ReportJobNotFoundException(String jobId) {
+        super("No report job " + jobId);
+    }
+}
@@ -0,0 +1,291 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.export.MetricAggregateWriter;
+import com.pratik.optimizationDemo.performance.export.ReportFormat;
+import com.pratik.optimizationDemo.performance.metrics.QueryContext;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs large reports in the background instead of inside an HTTP request.
+ *
+ * A report that outlives the load balancer's timeout cannot be served
+ * synchronously, however fast each batch is. Here the request only
+ * registers a job:
+ *
+ * 1. SUBMIT
+ *    - The job is queued on a bounded worker pool and its ID returned at once
+ *    - A full queue rejects the job (503 + report.jobs{outcome=rejected})
+ *      instead of accepting work that would wait for hours
+ *
+ * 2. RUN
+ *    - The normal keyset loop streams each batch into a spool file
+ *    - Progress = batches done vs. ReportService#estimateBatchCount
+ *    - The file is forced to disk and the cursor checkpointed every
+ *      report.checkpoint.every-batches batches (ResumableReportService);
+ *      a failed job can be resumed from there instead of from scratch
+ *
+ * 3. DOWNLOAD
+ *    - The finished file is served as a Resource, so clients can fetch it in
+ *      HTTP Range requests and resume interrupted downloads
+ *
+ * Jobs live in memory and are lost on restart; finished jobs and their files
+ * are removed after report.jobs.retention.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReportService reportService;
+    private final ResumableReportService resumableReportService;
+    private final ReportExecutor reportExecutor;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ReportMetrics metrics;
+    private final ReportProperties.Jobs config;
+    private final Path spoolDir;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    public ReportJobService(
+            ReportService reportService,
+            ResumableReportService resumableReportService,
+            ReportExecutor reportExecutor,
+            @Qualifier("reportJobExecutor") ThreadPoolTaskExecutor jobExecutor,
+            ReportMetrics metrics,
+            ReportProperties properties) throws IOException {
+        this.reportService = reportService;
+        this.resumableReportService = resumableReportService;
+        this.reportExecutor = reportExecutor;
+        this.jobExecutor = jobExecutor;
+        this.metrics = metrics;
+        this.config = properties.getJobs();
+        this.spoolDir = Files.createDirectories(config.getSpoolDir().isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "report-jobs")
+                : Paths.get(config.getSpoolDir()));
+        metrics.registerJobExecutor(jobExecutor);
+    }
+
+    /**
+     * Queue a report.
+     *
+     * @throws ReportCapacityExceededException when the job queue is full
+     */
+    public ReportJob submit(Long tenantId, String groupId, int batchSize, ReportFormat format) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), tenantId, groupId, batchSize, format);
+        job.spoolTo(spoolDir.resolve("report-" + job.getId() + "." + format.getFileExtension()));
+        jobs.put(job.getId(), job);
+
+        try {
+            enqueue(job);
+        } catch (ReportCapacityExceededException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+
+        log.info("Queued report job {} for tenant={}, group={}", job.getId(), tenantId, groupId);
+        return job;
+    }
+
+    /**
+     * Queue a failed job again. It continues after its last checkpoint,
+     * appending to the rows already spooled.
+     *
+     * @throws ReportJobStateException if the job has not failed
+     * @throws ReportCapacityExceededException when the job queue is full
+     */
+    public ReportJob resume(String jobId) {
+        ReportJob job = get(jobId);
+        // Check and transition in one step: of two concurrent resumes only
+        // one may enqueue a worker for the job's spool file
+        String error = job.requeueIfFailed();
+        if (error == null) {
+            throw new ReportJobStateException("Only failed jobs can be resumed; job " + jobId
+                    + " is " + job.getState());
+        }
+
+        try {
+            enqueue(job);
+        } catch (ReportCapacityExceededException e) {
+            job.fail(error);
+            throw e;
+        }
+
+        log.info("Resuming report job {}", jobId);
+        return job;
+    }
+
+    public ReportJob get(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ReportJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * @return the spooled result, or null while the job has not completed
+     */
+    public Path resultFile(String jobId) {
+        ReportJob job = get(jobId);
+        return job.getState() == ReportJob.State.COMPLETED ? job.resultFile() : null;
+    }
+
+    /**
+     * Cancel a queued or running job, or delete a finished one and its file.
+     */
+    public void cancel(String jobId) {
+        ReportJob job = get(jobId);
+        if (job.getState().isFinished()) {
+            remove(job);
+        } else if (job.requestCancel()) {
+            // Never reached a worker, so run() will not record it; a resumed
+            // job may still have a spool file and checkpoint from before
+            discard(job);
+            metrics.recordJob("cancelled");
+            log.info("Report job {} cancelled while queued", job.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval:PT5M}")
+    public void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(config.getRetention());
+        for (ReportJob job : jobs.values()) {
+            if (job.getState().isFinished() && job.getFinishedAt().isBefore(cutoff)) {
+                remove(job);
+            }
+        }
+    }
+
+    private void enqueue(ReportJob job) {
+        try {
+            job.attach(jobExecutor.submit(() -> {
+                // Attributes the job's queries, including prefetch and range
+                // workers, in the slow query log
+                try (QueryContext.Scope ignored = QueryContext.open("job " + job.getId())) {
+                    run(job);
+                }
+            }));
+        } catch (TaskRejectedException e) {
+            metrics.recordJob("rejected");
+            throw new ReportCapacityExceededException("Report job queue is full ("
+                    + config.getQueueCapacity() + " waiting)");
+        }
+    }
+
+    private void run(ReportJob job) {
+        if (!job.startIfQueued()) {
+            // Cancelled while queued; cancel() discarded and counted it
+            return;
+        }
+
+        Path file = job.resultFile();
+        try {
+            ReportCheckpoint from = resumableReportService.findCheckpoint(job.getId())
+                    .orElseGet(() -> ReportCheckpoint.initial(job.getId(), job.getTenantId(), job.getGroupId()));
+            job.progressFrom(reportService.estimateBatchCount(job.getGroupId(), job.getBatchSize()), from);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Drop whatever was written after the last checkpoint; those
+                // rows are fetched again
+                channel.truncate(from.outputBytes());
+                channel.position(from.outputBytes());
+
+                try (MetricAggregateWriter writer = new MetricAggregateWriter(
+                        job.getFormat(), Channels.newOutputStream(channel), from.outputBytes() > 0)) {
+                    ResumableBatchConsumer spool = new ResumableBatchConsumer() {
+                        @Override
+                        public void accept(List<MetricAggregate> batch) {
+                            if (job.isCancelRequested()) {
+                                throw new CancellationException("Report job cancelled");
+                            }
+                            writer.writeBatch(batch);
+                            job.batchWritten(batch.size());
+                        }
+
+                        @Override
+                        public long commit() {
+                            try {
+                                writer.flush();
+                                channel.force(false);
+                                return channel.position();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    };
+
+                    reportExecutor.call(() -> resumableReportService.generateReport(
+                            job.getId(), job.getTenantId(), job.getGroupId(), job.getBatchSize(), spool));
+                }
+            }
+
+            job.complete(Files.size(file));
+            metrics.recordJob("completed");
+            log.info("Report job {} complete: {} records, {} bytes",
+                    job.getId(), job.getRecords(), job.getResultBytes());
+        } catch (CancellationException e) {
+            discard(job);
+            job.cancelled();
+            metrics.recordJob("cancelled");
+            log.info("Report job {} cancelled after {} batches", job.getId(), job.getBatchesDone());
+        } catch (Throwable e) {
+            // Also for Errors: the pool's FutureTask would swallow them and
+            // leave the job RUNNING forever, never resumable or cleaned up.
+            // File and checkpoint are kept so the job can be resumed
+            job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+            metrics.recordJob("failed");
+            log.error("Report job {} failed after {} batches", job.getId(), job.getBatchesDone(), e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private void remove(ReportJob job) {
+        jobs.remove(job.getId());
+        discard(job);
+    }
+
+    private void discard(ReportJob job) {
+        deleteQuietly(job.resultFile());
+        try {
+            resumableReportService.discard(job.getId());
+        } catch (RuntimeException e) {
+            log.warn("Could not delete checkpoint of report job {}", job.getId(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled report {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a job operation does not fit the job's current state,
+ * e.g. resuming a job that has not failed.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReportJobStateException extends RuntimeException {
+
+    public ReportJobStateException(String message) {
+        super(message);
+    }
+}
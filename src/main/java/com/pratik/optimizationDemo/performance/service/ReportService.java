@@ -1,13 +1,39 @@
 package com.pratik.optimizationDemo.performance.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
 import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.DeltaReport;
+import com.pratik.optimizationDemo.performance.model.KeysetPage;
 import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 /**
@@ -30,6 +56,15 @@ import java.util.function.Consumer;
  *    - Enables streaming to clients or files
  *    - Reduces memory footprint
  *
+ * 4. PREFETCH PIPELINE
+ *    - Fetch batch N+1 while the callback is still consuming batch N
+ *    - Database and callback I/O overlap instead of alternating
+ *
+ * 5. ADAPTIVE BATCH SIZE (report.adaptive.enabled)
+ *    - Overloads without an explicit batchSize resize every batch so that
+ *      it takes about report.adaptive.target-batch-latency
+ *    - The size a tenant ends on is remembered and used to start its next report
+ *
  * NOTE: This is a representative example. Implementation details have been
  * generalized to preserve client confidentiality.
  */
@@ -40,15 +75,33 @@ public class ReportService {
     // Batch size tuned for optimal performance vs memory trade-off
     // Too small: excessive round-trips to database
     // Too large: memory pressure and longer individual query times
-    private static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    // How often a waiting consumer re-checks for cancellation
+    private static final long PREFETCH_POLL_MS = 100;
     private final ReportDao reportDao;
-
-    public ReportService(ReportDao reportDao) {
+    private final ReportProperties properties;
+    private final AsyncTaskExecutor prefetchExecutor;
+    private final ReportMetrics metrics;
+    // Last adaptive batch size per tenant, so each report starts close to its optimum
+    private final Cache<Long, Integer> learnedBatchSizes;
+
+    public ReportService(
+            ReportDao reportDao,
+            ReportProperties properties,
+            @Qualifier("reportPrefetchExecutor") AsyncTaskExecutor prefetchExecutor,
+            ReportMetrics metrics) {
         this.reportDao = reportDao;
+        this.properties = properties;
+        this.prefetchExecutor = prefetchExecutor;
+        this.metrics = metrics;
+        this.learnedBatchSizes = Caffeine.newBuilder()
+                .maximumSize(properties.getAdaptive().getMaxRememberedTenants())
+                .build();
     }
 
     public List<MetricAggregate> generateReport(Long tenantId, String groupId) {
-        return generateReport(tenantId, groupId, DEFAULT_BATCH_SIZE);
+        return generateReport(tenantId, groupId, defaultBatchSizer(tenantId),
+                (lastSeenId, limit) -> reportDao.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit));
     }
 
     public List<MetricAggregate> generateReport(
@@ -56,13 +109,46 @@ public class ReportService {
             String groupId,
             int batchSize) {
 
+        return generateReport(tenantId, groupId, BatchSizer.fixed(batchSize),
+                (lastSeenId, limit) -> reportDao.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit));
+    }
+
+    /**
+     * Generate a report from the pre-aggregated rollup instead of raw events.
+     *
+     * Same keyset loop and output shape as {@link #generateReport(Long, String, int)},
+     * but each batch reads one row per item-dimension, so latency depends on
+     * the number of items rather than the number of events. Counts are as of
+     * the last rollup refresh.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @return aggregated statistics ordered by item_id
+     */
+    public List<MetricAggregate> generateReportFromRollup(
+            Long tenantId,
+            String groupId,
+            int batchSize) {
+
+        return generateReport(tenantId, groupId, BatchSizer.fixed(batchSize),
+                (lastSeenId, limit) -> reportDao.fetchAggregatesFromRollup(tenantId, groupId, lastSeenId, limit));
+    }
+
+    private List<MetricAggregate> generateReport(
+            Long tenantId,
+            String groupId,
+            BatchSizer batchSizer,
+            KeysetBatchQuery query) {
+
         log.info("Starting report generation for tenant={}, group={}, batchSize={}",
-                tenantId, groupId, batchSize);
+                tenantId, groupId, batchSizer.next());
 
         List<MetricAggregate> allResults = new ArrayList<>();
         String lastSeenId = "";  // Start from beginning
         int batchNumber = 0;
         long totalRecords = 0;
+        long dbNanos = 0;
 
         long startTime = System.currentTimeMillis();
 
@@ -70,44 +156,368 @@ public class ReportService {
             batchNumber++;
 
             // Fetch next batch using keyset pagination
-            List<MetricAggregate> batch = reportDao.fetchAggregatesOptimized(
-                    tenantId,
-                    groupId,
-                    lastSeenId,
-                    batchSize
-            );
-
-            if (batch.isEmpty()) {
+            int limit = batchSizer.next();
+            long fetchStart = System.nanoTime();
+            AggregateBatch batch = query.fetch(lastSeenId, limit);
+            long fetchNanos = System.nanoTime() - fetchStart;
+            dbNanos += fetchNanos;
+            batchSizer.observe(limit, batch.itemCount(), fetchNanos);
+
+            if (batch.itemCount() == 0) {
                 // No more data - we've processed everything
                 log.debug("Batch {} returned empty - processing complete", batchNumber);
                 break;
             }
 
             // Accumulate results
-            allResults.addAll(batch);
-            totalRecords += batch.size();
+            allResults.addAll(batch.rows());
+            totalRecords += batch.rows().size();
+            metrics.recordBatch(batch.rows().size());
+            metrics.recordBatchLimit(tenantId, groupId, limit);
 
             // Update cursor for next batch
-            // CRITICAL: Use the last item_id from this batch as the cursor
-            lastSeenId = batch.get(batch.size() - 1).getItemId();
+            // CRITICAL: Use the last catalog item_id of this batch as the
+            // cursor; items without events are covered but have no rows
+            lastSeenId = batch.lastItemId();
 
-            log.debug("Batch {} processed: {} records, lastSeenId={}",
-                    batchNumber, batch.size(), lastSeenId);
+            log.debug("Batch {} processed: {} items, {} records, lastSeenId={}",
+                    batchNumber, batch.itemCount(), batch.rows().size(), lastSeenId);
 
-            // If we got fewer than batchSize, we've reached the end
-            if (batch.size() < batchSize) {
+            // If we got fewer items than requested, we've reached the end
+            if (batch.itemCount() < limit) {
                 log.debug("Partial batch received - processing complete");
                 break;
             }
         }
 
         long duration = System.currentTimeMillis() - startTime;
+        rememberBatchSize(tenantId, batchSizer);
+        metrics.recordReport(tenantId, groupId, batchNumber, dbNanos, 0);
         log.info("Report generation complete: {} batches, {} records, {}ms",
                 batchNumber, totalRecords, duration);
 
         return allResults;
     }
 
+    /**
+     * Aggregates of the item-dimension pairs whose events changed since
+     * {@code since}, plus the watermark to use next time.
+     *
+     * The upper bound of the window is fixed before the first batch, so
+     * events arriving during the run fall into the next delta instead of
+     * being half-included. Pairs are recounted in full and may already
+     * include such newer events; they are then reported again next time,
+     * which is harmless because consumers replace rows.
+     *
+     * The returned watermark lies report.delta.recount-margin before that
+     * upper bound (but never before {@code since}). The bound is a
+     * MAX(updated_at) and MySQL stores whole seconds, so writes landing in
+     * its second after it was read would otherwise never be reported. Pairs
+     * changed within the margin are reported again by the next delta.
+     *
+     * LIMITATIONS:
+     * - Hard-deleted events leave no updated_at behind and are not detected
+     * - A transaction that commits later than the margin, with an
+     *   updated_at before the watermark, is missed; keep writer
+     *   transactions short
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param since watermark from the previous delta, or null for everything
+     * @param batchSize number of changed items per batch
+     * @return changed aggregates ordered by item_id, and the new watermark
+     */
+    public DeltaReport generateDeltaReport(
+            Long tenantId,
+            String groupId,
+            Instant since,
+            int batchSize) {
+
+        Timestamp from = Timestamp.from(since != null ? since : Instant.EPOCH);
+        Timestamp upTo = reportDao.findLatestEventUpdate(tenantId);
+        if (upTo == null || !upTo.after(from)) {
+            log.debug("No changes for tenant={} since {}", tenantId, since);
+            return new DeltaReport(since, since, List.of());
+        }
+
+        log.info("Starting delta report for tenant={}, group={}, window=({}, {}]",
+                tenantId, groupId, from.toInstant(), upTo.toInstant());
+
+        List<MetricAggregate> changes = new ArrayList<>();
+        String lastSeenId = "";
+        int batchNumber = 0;
+        long dbNanos = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        while (true) {
+            batchNumber++;
+
+            long fetchStart = System.nanoTime();
+            List<MetricAggregate> batch = reportDao.fetchChangedAggregates(
+                    tenantId, groupId, from, upTo, lastSeenId, batchSize);
+            dbNanos += System.nanoTime() - fetchStart;
+
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            changes.addAll(batch);
+            metrics.recordBatch(batch.size());
+            lastSeenId = batch.get(batch.size() - 1).getItemId();
+
+            // Several rows per item: the page is full when it held batchSize items
+            long items = batch.stream().map(MetricAggregate::getItemId).distinct().count();
+            if (items < batchSize) {
+                break;
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        metrics.recordReport(tenantId, groupId, batchNumber, dbNanos, 0);
+        log.info("Delta report complete: {} batches, {} changed records, {}ms",
+                batchNumber, changes.size(), duration);
+
+        Instant watermark = upTo.toInstant().minus(properties.getDelta().getRecountMargin());
+        if (since != null && watermark.isBefore(since)) {
+            watermark = since;
+        }
+        return new DeltaReport(since, watermark, changes);
+    }
+
+    /**
+     * Per-bucket pass/fail/error counts over last_seen_time in {@code [from, to)}.
+     *
+     * Same keyset batching as {@link #generateReport(Long, String, int)};
+     * each item contributes one row per dimension and bucket with events, so
+     * a DAY trend over 30 days can return 30x the rows of a plain report -
+     * size batchSize accordingly.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param granularity HOUR or DAY buckets
+     * @param from inclusive start of the window
+     * @param to exclusive end of the window
+     * @param batchSize number of items to process per batch
+     * @return buckets ordered by item_id, dimension_id, bucket start
+     */
+    public List<TrendBucket> generateTrendReport(
+            Long tenantId,
+            String groupId,
+            TrendGranularity granularity,
+            LocalDateTime from,
+            LocalDateTime to,
+            int batchSize) {
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Empty trend window: from=" + from + ", to=" + to);
+        }
+
+        log.info("Starting {} trend report for tenant={}, group={}, window=[{}, {})",
+                granularity, tenantId, groupId, from, to);
+
+        List<TrendBucket> results = new ArrayList<>();
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        String lastSeenId = "";
+        int batchNumber = 0;
+        long dbNanos = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        while (true) {
+            batchNumber++;
+
+            long fetchStart = System.nanoTime();
+            TrendBatch batch = reportDao.fetchTrendBuckets(
+                    tenantId, groupId, granularity, fromTs, toTs, lastSeenId, batchSize);
+            dbNanos += System.nanoTime() - fetchStart;
+
+            if (batch.itemCount() == 0) {
+                break;
+            }
+
+            results.addAll(batch.buckets());
+            metrics.recordBatch(batch.buckets().size());
+            lastSeenId = batch.lastItemId();
+
+            if (batch.itemCount() < batchSize) {
+                break;
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        metrics.recordReport(tenantId, groupId, batchNumber, dbNanos, 0);
+        log.info("Trend report complete: {} batches, {} buckets, {}ms",
+                batchNumber, results.size(), duration);
+
+        return results;
+    }
+
+    /**
+     * Generate a full report into a columnar store instead of a list.
+     *
+     * Same keyset loop and row order as {@link #generateReport(Long, String, int)},
+     * but rows are written straight into primitive arrays with dictionary-
+     * encoded ids, so a multi-million-row report needs a fraction of the heap
+     * and totals are computed over contiguous arrays.
+     *
+     * With report.prefetch.depth above 0 the batches come through the
+     * prefetch pipeline and are encoded while the next ones are fetched; only
+     * the batches in flight exist as MetricAggregate objects. With 0 the
+     * serial loop writes rows straight into the arrays.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @return aggregated statistics ordered by item_id
+     */
+    public ColumnarAggregates generateColumnarReport(
+            Long tenantId,
+            String groupId,
+            int batchSize) {
+
+        ColumnarAggregates results = new ColumnarAggregates();
+        int prefetchDepth = properties.getPrefetch().getDepth();
+        if (prefetchDepth > 0) {
+            runPipeline(tenantId, groupId, BatchSizer.fixed(batchSize), prefetchDepth,
+                    ReportCheckpoint.initial(null, tenantId, groupId),
+                    batch -> batch.forEach(results::add), committed -> { }, () -> false);
+            results.trimToSize();
+            return results;
+        }
+
+        log.info("Starting columnar report for tenant={}, group={}, batchSize={}",
+                tenantId, groupId, batchSize);
+
+        String lastSeenId = "";
+        int batchNumber = 0;
+        long dbNanos = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        while (true) {
+            batchNumber++;
+
+            long fetchStart = System.nanoTime();
+            int before = results.size();
+            KeysetPage page = reportDao.fetchAggregatesOptimizedInto(tenantId, groupId, lastSeenId, batchSize, results);
+            dbNanos += System.nanoTime() - fetchStart;
+
+            if (page.itemCount() == 0) {
+                break;
+            }
+
+            metrics.recordBatch(results.size() - before);
+            // Items without events add no rows but move the cursor
+            lastSeenId = page.lastItemId();
+
+            if (page.itemCount() < batchSize) {
+                break;
+            }
+        }
+
+        results.trimToSize();
+
+        long duration = System.currentTimeMillis() - startTime;
+        metrics.recordReport(tenantId, groupId, batchNumber, dbNanos, 0);
+        log.info("Columnar report complete: {} batches, {} records, {} items, {} dimensions, {}ms",
+                batchNumber, results.size(), results.distinctItems(), results.distinctDimensions(), duration);
+
+        return results;
+    }
+
+    /**
+     * Generate the same group's report for many tenants in one keyset pass.
+     *
+     * Equivalent to calling {@link #generateReport(Long, String, int)} once
+     * per tenant, but every catalog page is read once for all tenants instead
+     * of once per tenant, so a nightly run over N tenants costs one pass and
+     * one set of round-trips (per {@link ReportDao#MAX_TENANTS_PER_QUERY}
+     * tenants) rather than N.
+     *
+     * Each batch returns up to batchSize x tenants x dimensions rows, so
+     * choose a smaller batchSize than for single-tenant reports when the
+     * tenant list is long.
+     *
+     * @param tenantIds the tenant IDs
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @return aggregated statistics per tenant, in tenantIds order, each
+     *         ordered by item_id; tenants without data map to an empty list
+     */
+    public Map<Long, List<MetricAggregate>> generateReportForTenants(
+            Collection<Long> tenantIds,
+            String groupId,
+            int batchSize) {
+
+        Map<Long, List<MetricAggregate>> results = new LinkedHashMap<>();
+        for (Long tenantId : new LinkedHashSet<>(tenantIds)) {
+            results.put(tenantId, new ArrayList<>());
+        }
+
+        List<Long> tenants = List.copyOf(results.keySet());
+        for (int from = 0; from < tenants.size(); from += ReportDao.MAX_TENANTS_PER_QUERY) {
+            List<Long> chunk = tenants.subList(from,
+                    Math.min(tenants.size(), from + ReportDao.MAX_TENANTS_PER_QUERY));
+            collectForTenants(chunk, groupId, batchSize, results);
+        }
+        return results;
+    }
+
+    private void collectForTenants(
+            List<Long> tenantIds,
+            String groupId,
+            int batchSize,
+            Map<Long, List<MetricAggregate>> results) {
+
+        log.info("Starting multi-tenant report for {} tenants, group={}, batchSize={}",
+                tenantIds.size(), groupId, batchSize);
+
+        String lastSeenId = "";
+        int batchNumber = 0;
+        long totalRecords = 0;
+        long dbNanos = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        while (true) {
+            batchNumber++;
+
+            long fetchStart = System.nanoTime();
+            TenantBatch batch = reportDao.fetchAggregatesForTenants(tenantIds, groupId, lastSeenId, batchSize);
+            dbNanos += System.nanoTime() - fetchStart;
+
+            if (batch.itemCount() == 0) {
+                break;
+            }
+
+            int rows = 0;
+            for (Map.Entry<Long, List<MetricAggregate>> tenantRows : batch.rowsByTenant().entrySet()) {
+                results.get(tenantRows.getKey()).addAll(tenantRows.getValue());
+                rows += tenantRows.getValue().size();
+            }
+            totalRecords += rows;
+            metrics.recordBatch(rows);
+
+            // The cursor follows catalog items, not rows: the batch may hold
+            // many rows per item, or none for items without events
+            lastSeenId = batch.lastItemId();
+
+            log.debug("Multi-tenant batch {}: {} items, {} records, lastSeenId={}",
+                    batchNumber, batch.itemCount(), rows, lastSeenId);
+
+            if (batch.itemCount() < batchSize) {
+                break;
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        metrics.recordReport(null, groupId, batchNumber, dbNanos, 0);
+        log.info("Multi-tenant report complete: {} batches, {} records, {}ms",
+                batchNumber, totalRecords, duration);
+    }
+
     /**
      * Generate a report with streaming callback.
      *
@@ -117,7 +527,8 @@ public class ReportService {
      * streaming to client, aggregating summaries).
      *
      * MEMORY EFFICIENCY:
-     * - Only one batch is held in memory at a time
+     * - Only one batch is held in memory at a time, plus the
+     *   report.prefetch.depth batches fetched ahead of the callback
      * - Suitable for groups with 100K+ items
      * - Enables progress reporting to users
      *
@@ -139,8 +550,8 @@ public class ReportService {
             String groupId,
             Consumer<List<MetricAggregate>> batchCallback) {
 
-        return generateReportWithCallback(
-                tenantId, groupId, DEFAULT_BATCH_SIZE, batchCallback);
+        return streamReport(tenantId, groupId, defaultBatchSizer(tenantId),
+                ReportCheckpoint.initial(null, tenantId, groupId), batchCallback, committed -> { });
     }
 
     /**
@@ -158,12 +569,58 @@ public class ReportService {
             int batchSize,
             Consumer<List<MetricAggregate>> batchCallback) {
 
-        log.info("Starting streaming report for tenant={}, group={}",
-                tenantId, groupId);
+        return streamReport(tenantId, groupId, BatchSizer.fixed(batchSize),
+                ReportCheckpoint.initial(null, tenantId, groupId), batchCallback, committed -> { });
+    }
 
-        String lastSeenId = "";
-        int batchNumber = 0;
-        long totalRecords = 0;
+    /**
+     * The streaming loop behind callback and resumable reports, started from
+     * {@code from}.
+     *
+     * With report.prefetch.depth above 0 the next batches are fetched while
+     * the callback writes the current one (see
+     * {@link #generateReportPipelined(Long, String, int, int, Consumer, BooleanSupplier)});
+     * with 0 the serial loop runs. Both deliver the same batches in the same
+     * order.
+     *
+     * {@code afterBatch} is called once the callback has returned for a
+     * batch, with the position that batch reached; resumable reports persist
+     * it (see ResumableReportService).
+     *
+     * @return total number of records, including those before {@code from}
+     */
+    long streamReport(
+            Long tenantId,
+            String groupId,
+            BatchSizer batchSizer,
+            ReportCheckpoint from,
+            Consumer<List<MetricAggregate>> batchCallback,
+            Consumer<ReportCheckpoint> afterBatch) {
+
+        int prefetchDepth = properties.getPrefetch().getDepth();
+        if (prefetchDepth > 0) {
+            return runPipeline(tenantId, groupId, batchSizer, prefetchDepth, from,
+                    batchCallback, afterBatch, () -> false);
+        }
+        return streamReportSerially(tenantId, groupId, batchSizer, from, batchCallback, afterBatch);
+    }
+
+    private long streamReportSerially(
+            Long tenantId,
+            String groupId,
+            BatchSizer batchSizer,
+            ReportCheckpoint from,
+            Consumer<List<MetricAggregate>> batchCallback,
+            Consumer<ReportCheckpoint> afterBatch) {
+
+        log.info("Starting streaming report for tenant={}, group={}, from={}",
+                tenantId, groupId, from.lastSeenId().isEmpty() ? "start" : from.lastSeenId());
+
+        String lastSeenId = from.lastSeenId();
+        int batchNumber = from.batchNumber();
+        long totalRecords = from.totalRecords();
+        long dbNanos = 0;
+        long callbackNanos = 0;
 
         long startTime = System.currentTimeMillis();
 
@@ -171,37 +628,214 @@ public class ReportService {
             batchNumber++;
 
             // Fetch next batch using keyset pagination
-            List<MetricAggregate> batch = reportDao.fetchAggregatesOptimized(
+            int limit = batchSizer.next();
+            long fetchStart = System.nanoTime();
+            AggregateBatch batch = reportDao.fetchAggregatesOptimized(
                     tenantId,
                     groupId,
                     lastSeenId,
-                    batchSize
+                    limit
             );
+            long fetchNanos = System.nanoTime() - fetchStart;
+            dbNanos += fetchNanos;
+            batchSizer.observe(limit, batch.itemCount(), fetchNanos);
 
-            if (batch.isEmpty()) {
+            if (batch.itemCount() == 0) {
                 break;
             }
 
-            // Invoke callback to process this batch
-            batchCallback.accept(batch);
+            // Invoke callback to process this batch; a page of items
+            // without events only moves the cursor
+            List<MetricAggregate> rows = batch.rows();
+            if (!rows.isEmpty()) {
+                long callbackStart = System.nanoTime();
+                batchCallback.accept(rows);
+                callbackNanos += System.nanoTime() - callbackStart;
+            }
 
-            totalRecords += batch.size();
-            lastSeenId = batch.get(batch.size() - 1).getItemId();
+            totalRecords += rows.size();
+            metrics.recordBatch(rows.size());
+            metrics.recordBatchLimit(tenantId, groupId, limit);
+            lastSeenId = batch.lastItemId();
+            afterBatch.accept(from.advance(lastSeenId, batchNumber, totalRecords));
 
-            log.debug("Streamed batch {}: {} records", batchNumber, batch.size());
+            log.debug("Streamed batch {}: {} items, {} records", batchNumber, batch.itemCount(), rows.size());
 
-            if (batch.size() < batchSize) {
+            if (batch.itemCount() < limit) {
                 break;
             }
         }
 
         long duration = System.currentTimeMillis() - startTime;
+        rememberBatchSize(tenantId, batchSizer);
+        metrics.recordReport(tenantId, groupId, batchNumber - from.batchNumber(), dbNanos, callbackNanos);
         log.info("Streaming report complete: {} batches, {} records, {}ms",
                 batchNumber, totalRecords, duration);
 
         return totalRecords;
     }
 
+    /**
+     * Generate a streaming report with the prefetch pipeline, using the
+     * default batch size and the configured prefetch depth.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchCallback consumer function called for each batch
+     * @return total number of records processed
+     * @see #generateReportPipelined(Long, String, int, int, Consumer, BooleanSupplier)
+     */
+    public long generateReportPipelined(
+            Long tenantId,
+            String groupId,
+            Consumer<List<MetricAggregate>> batchCallback) {
+
+        return runPipeline(tenantId, groupId, defaultBatchSizer(tenantId), properties.getPrefetch().getDepth(),
+                ReportCheckpoint.initial(null, tenantId, groupId), batchCallback, committed -> { }, () -> false);
+    }
+
+    /**
+     * Generate a streaming report where the next batch is fetched while the
+     * current one is being consumed.
+     *
+     * A serial keyset loop leaves the database idle while the callback runs
+     * and the callback idle while the query runs. Here a background producer
+     * walks the keyset cursor and queues up to {@code prefetchDepth} batches
+     * ahead, so when the callback does real I/O (file or network writes) the
+     * two overlap and wall-clock time approaches max(db, callback) instead of
+     * db + callback.
+     *
+     * GUARANTEES:
+     * - Batches are delivered in the same item_id order as the serial loop
+     * - The callback always runs on the calling thread
+     * - At most prefetchDepth + 2 batches are in memory at once
+     *   (queued, being fetched, being consumed)
+     *
+     * CANCELLATION:
+     * - {@code cancelled} is checked before every batch and while waiting
+     * - Interrupting the calling thread has the same effect
+     * - Either way the producer is stopped and CancellationException is thrown
+     *
+     * If no prefetch thread is available the report runs through the serial
+     * loop instead, so callers never wait for a pipeline slot.
+     *
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @param prefetchDepth number of batches fetched ahead of the callback
+     * @param batchCallback consumer function called for each batch
+     * @param cancelled polled to find out whether the caller gave up
+     * @return total number of records processed
+     */
+    public long generateReportPipelined(
+            Long tenantId,
+            String groupId,
+            int batchSize,
+            int prefetchDepth,
+            Consumer<List<MetricAggregate>> batchCallback,
+            BooleanSupplier cancelled) {
+
+        return runPipeline(tenantId, groupId, BatchSizer.fixed(batchSize), prefetchDepth,
+                ReportCheckpoint.initial(null, tenantId, groupId), batchCallback, committed -> { }, cancelled);
+    }
+
+    private long runPipeline(
+            Long tenantId,
+            String groupId,
+            BatchSizer batchSizer,
+            int prefetchDepth,
+            ReportCheckpoint from,
+            Consumer<List<MetricAggregate>> batchCallback,
+            Consumer<ReportCheckpoint> afterBatch,
+            BooleanSupplier cancelled) {
+
+        BatchPrefetcher prefetcher = new BatchPrefetcher(
+                reportDao, tenantId, groupId, from.lastSeenId(), batchSizer, prefetchDepth);
+
+        Future<?> producer;
+        try {
+            producer = prefetchExecutor.submit(prefetcher);
+        } catch (TaskRejectedException e) {
+            log.warn("No prefetch thread available for tenant={}, group={} - using serial loop",
+                    tenantId, groupId);
+            return streamReportSerially(tenantId, groupId, batchSizer, from,
+                    batch -> {
+                        if (cancelled.getAsBoolean()) {
+                            throw new CancellationException("Report cancelled");
+                        }
+                        batchCallback.accept(batch);
+                    }, afterBatch);
+        }
+
+        log.info("Starting pipelined report for tenant={}, group={}, prefetchDepth={}",
+                tenantId, groupId, prefetchDepth);
+
+        int batchNumber = from.batchNumber();
+        long totalRecords = from.totalRecords();
+        // Queries run on the producer thread; what the consumer can observe
+        // is how long it sat waiting for them, i.e. the DB time NOT hidden
+        // behind the callback
+        long dbWaitNanos = 0;
+        long callbackNanos = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        try {
+            while (true) {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Report cancelled after " + batchNumber + " batches");
+                }
+
+                long waitStart = System.nanoTime();
+                AggregateBatch batch = prefetcher.poll(PREFETCH_POLL_MS, TimeUnit.MILLISECONDS);
+                dbWaitNanos += System.nanoTime() - waitStart;
+                if (batch == null) {
+                    // Producer is still waiting on the database
+                    continue;
+                }
+                if (batch == BatchPrefetcher.END_OF_STREAM) {
+                    if (prefetcher.failure() != null) {
+                        throw prefetcher.failure();
+                    }
+                    break;
+                }
+
+                batchNumber++;
+                // A page of items without events only moves the cursor
+                List<MetricAggregate> rows = batch.rows();
+                if (!rows.isEmpty()) {
+                    long callbackStart = System.nanoTime();
+                    batchCallback.accept(rows);
+                    callbackNanos += System.nanoTime() - callbackStart;
+                }
+                totalRecords += rows.size();
+                metrics.recordBatch(rows.size());
+                afterBatch.accept(from.advance(batch.lastItemId(), batchNumber, totalRecords));
+
+                log.debug("Pipelined batch {}: {} items, {} records", batchNumber, batch.itemCount(), rows.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Report interrupted after " + batchNumber + " batches");
+        } finally {
+            prefetcher.stop();
+            // No interrupt: interrupting a thread inside a JDBC call can poison
+            // the pooled connection. The stop flag ends the producer after its
+            // current query.
+            producer.cancel(false);
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        // END_OF_STREAM was handed over through the queue, so the producer's
+        // last sizing decision is visible here
+        rememberBatchSize(tenantId, batchSizer);
+        metrics.recordReport(tenantId, groupId, batchNumber - from.batchNumber(), dbWaitNanos, callbackNanos);
+        log.info("Pipelined report complete: {} batches, {} records, {}ms",
+                batchNumber, totalRecords, duration);
+
+        return totalRecords;
+    }
+
     /**
      * Estimate the number of batches needed for a group.
      *
@@ -225,4 +859,25 @@ public class ReportService {
     public long estimateBatchCount(String groupId) {
         return estimateBatchCount(groupId, DEFAULT_BATCH_SIZE);
     }
+
+    /**
+     * Batch sizer for overloads where the caller did not choose a batch size.
+     *
+     * Fixed at DEFAULT_BATCH_SIZE unless report.adaptive.enabled is set; then
+     * adaptive, starting from the size the tenant's previous report ended on.
+     */
+    private BatchSizer defaultBatchSizer(Long tenantId) {
+        ReportProperties.Adaptive adaptive = properties.getAdaptive();
+        if (!adaptive.isEnabled()) {
+            return BatchSizer.fixed(DEFAULT_BATCH_SIZE);
+        }
+        Integer learned = tenantId == null ? null : learnedBatchSizes.getIfPresent(tenantId);
+        return new AdaptiveBatchSizer(adaptive, learned != null ? learned : DEFAULT_BATCH_SIZE);
+    }
+
+    private void rememberBatchSize(Long tenantId, BatchSizer batchSizer) {
+        if (tenantId != null && batchSizer instanceof AdaptiveBatchSizer) {
+            learnedBatchSizes.put(tenantId, batchSizer.next());
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Batch callback of a resumable report.
+ *
+ * A checkpoint is only as good as the output behind it: before a checkpoint
+ * is saved, {@link #commit()} must make every batch accepted so far durable,
+ * so that a resumed run neither loses nor duplicates rows.
+ */
+@FunctionalInterface
+public interface ResumableBatchConsumer extends Consumer<List<MetricAggregate>> {
+
+    /**
+     * Flush everything accepted so far to durable storage.
+     *
+     * @return output position to resume from (e.g. file length), or 0
+     */
+    default long commit() {
+        return 0;
+    }
+}
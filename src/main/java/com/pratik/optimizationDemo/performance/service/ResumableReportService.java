@@ -0,0 +1,94 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Streaming reports that survive a failure half way through.
+ *
+ * The keyset cursor is the whole state of a report run, so persisting it
+ * is enough to continue later:
+ *
+ * 1. Every report.checkpoint.every-batches batches the consumer commits
+ *    its output, then (tenantId, groupId, lastSeenId, batchNumber,
+ *    totalRecords, outputBytes) is saved under the caller's checkpoint ID
+ * 2. Running again with the same ID continues after the saved lastSeenId;
+ *    at most every-batches batches are fetched twice
+ * 3. A completed report deletes its checkpoint
+ *
+ * The consumer decides what "committed" means; for a file, flush and force
+ * to disk, and truncate back to outputBytes when resuming.
+ */
+@Service
+public class ResumableReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableReportService.class);
+
+    private final ReportService reportService;
+    private final ReportCheckpointStore checkpointStore;
+    private final ReportProperties.Checkpoint config;
+
+    public ResumableReportService(
+            ReportService reportService,
+            ReportCheckpointStore checkpointStore,
+            ReportProperties properties) {
+        this.reportService = reportService;
+        this.checkpointStore = checkpointStore;
+        this.config = properties.getCheckpoint();
+    }
+
+    public Optional<ReportCheckpoint> findCheckpoint(String checkpointId) {
+        return checkpointStore.find(checkpointId);
+    }
+
+    /**
+     * Run a streaming report, resuming from the checkpoint if one exists.
+     *
+     * @param checkpointId name the checkpoint is saved under
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param batchSize number of items to process per batch
+     * @param consumer receives each batch; committed before every checkpoint
+     * @return total number of records, including those of earlier attempts
+     * @throws IllegalArgumentException if the checkpoint belongs to another report
+     */
+    public long generateReport(
+            String checkpointId,
+            Long tenantId,
+            String groupId,
+            int batchSize,
+            ResumableBatchConsumer consumer) {
+
+        ReportCheckpoint from = checkpointStore.find(checkpointId)
+                .map(saved -> {
+                    if (!saved.tenantId().equals(tenantId) || !saved.groupId().equals(groupId)) {
+                        throw new IllegalArgumentException("Checkpoint " + checkpointId
+                                + " belongs to tenant=" + saved.tenantId() + ", group=" + saved.groupId());
+                    }
+                    log.info("Resuming report {} after batch {} (lastSeenId={}, {} records)",
+                            checkpointId, saved.batchNumber(), saved.lastSeenId(), saved.totalRecords());
+                    return saved;
+                })
+                .orElseGet(() -> ReportCheckpoint.initial(checkpointId, tenantId, groupId));
+
+        int every = Math.max(1, config.getEveryBatches());
+        long total = reportService.streamReport(tenantId, groupId, BatchSizer.fixed(batchSize), from, consumer,
+                reached -> {
+                    if (reached.batchNumber() % every == 0) {
+                        checkpointStore.save(reached.withOutputBytes(consumer.commit()));
+                    }
+                });
+
+        consumer.commit();
+        checkpointStore.delete(checkpointId);
+        return total;
+    }
+
+    public void discard(String checkpointId) {
+        checkpointStore.delete(checkpointId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds new events into the rollup.
+ *
+ * Disabled by default; enable with {@code report.rollup.refresh-enabled=true}
+ * once the rollup tables from sql/schema.sql exist.
+ */
+@Component
+@ConditionalOnProperty(prefix = "report.rollup", name = "refresh-enabled", havingValue = "true")
+public class RollupRefreshJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupRefreshJob.class);
+
+    private final RollupService rollupService;
+
+    public RollupRefreshJob(RollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @Scheduled(fixedDelayString = "${report.rollup.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            // One transaction per window; keep going so a backlog after
+            // downtime is worked off in one run instead of one window a minute
+            while (!rollupService.refresh().caughtUp()) {
+                log.debug("Rollup still behind, refreshing the next window");
+            }
+        } catch (RuntimeException e) {
+            // Watermark was not advanced; the next run retries the same window
+            log.error("Rollup refresh failed", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The N item-dimension pairs with the lowest pass rate.
+ *
+ * Generating the full report and sorting it holds every aggregate in
+ * memory and sorts all of them to keep a few dozen. Instead:
+ *
+ * 1. STREAM
+ *    - The report is read batch by batch through
+ *      {@link ReportService#generateReportWithCallback}; each batch is
+ *      garbage once it has been offered to the heap
+ *
+ * 2. BOUNDED HEAP
+ *    - A max-heap of at most N entries, ordered by "worseness", so its head
+ *      is the best of the worst kept so far
+ *    - A new pair only enters by evicting the head: O(log N) per pair,
+ *      O(N) memory regardless of report size
+ *
+ * 3. ORDER
+ *    - Lower pass rate first; ties go to more failures, then item_id and
+ *      dimension_id so the result is deterministic
+ *    - Pairs without decided results (passed + failed == 0) have no pass
+ *      rate and are skipped rather than ranked as 0%
+ */
+@Service
+public class WorstItemsReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorstItemsReportService.class);
+
+    public static final int MAX_LIMIT = 10_000;
+
+    /** Ascending: worst pair first. */
+    static final Comparator<MetricAggregate> WORST_FIRST =
+            Comparator.comparingDouble(MetricAggregate::getPassRatePercentage)
+                    .thenComparing(Comparator.comparingLong(MetricAggregate::getFailed).reversed())
+                    .thenComparing(MetricAggregate::getItemId)
+                    .thenComparing(MetricAggregate::getDimensionId);
+
+    private final ReportService reportService;
+
+    public WorstItemsReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    /**
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param limit number of pairs to return, 1 to {@link #MAX_LIMIT}
+     * @param batchSize number of items to read per batch
+     * @return at most {@code limit} pairs, worst pass rate first
+     */
+    public List<MetricAggregate> findWorst(Long tenantId, String groupId, int limit, int batchSize) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+
+        // Reversed so the head is the candidate to evict
+        PriorityQueue<MetricAggregate> heap = new PriorityQueue<>(limit + 1, WORST_FIRST.reversed());
+        long[] skipped = {0};
+        long startTime = System.currentTimeMillis();
+
+        long scanned = reportService.generateReportWithCallback(tenantId, groupId, batchSize, batch -> {
+            for (MetricAggregate aggregate : batch) {
+                if (aggregate.getPassed() + aggregate.getFailed() == 0) {
+                    skipped[0]++;
+                } else if (heap.size() < limit) {
+                    heap.offer(aggregate);
+                } else if (WORST_FIRST.compare(aggregate, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.offer(aggregate);
+                }
+            }
+        });
+
+        List<MetricAggregate> worst = new ArrayList<>(heap);
+        worst.sort(WORST_FIRST);
+
+        log.info("Worst-{} report complete: tenant={}, group={}, {} pairs scanned, {} without decided results, {}ms",
+                limit, tenantId, groupId, scanned, skipped[0], System.currentTimeMillis() - startTime);
+        return worst;
+    }
+}
@@ -0,0 +1,178 @@
+package com.pratik.optimizationDemo.performance.controller;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.config.ReportWebConfig;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.service.ReportExecutor;
+import com.pratik.optimizationDemo.performance.service.ReportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class PerformanceTestControllerTests {
+
+    private static final long REQUEST_TIMEOUT = Duration.ofMinutes(10).toMillis();
+    private static final long STREAM_TIMEOUT = Duration.ofHours(1).toMillis();
+
+    @Test
+    void gzipIsAcceptedOnlyWithNonZeroQuality() {
+        assertTrue(PerformanceTestController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(PerformanceTestController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(PerformanceTestController.acceptsGzip("*"));
+
+        assertFalse(PerformanceTestController.acceptsGzip(""));
+        assertFalse(PerformanceTestController.acceptsGzip("gzip;q=0"));
+        assertFalse(PerformanceTestController.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(PerformanceTestController.acceptsGzip("*;q=1, gzip;q=0"));
+        assertFalse(PerformanceTestController.acceptsGzip("identity, *;q=0"));
+    }
+
+    @Test
+    void exportDownloadRunsUnderTheStreamTimeout() throws Exception {
+        MockMvc mvc = mockMvc();
+
+        // First dispatch only waits for the database
+        MvcResult report = mvc.perform(get("/performance/report/export").param("tenantId", "1").param("groupId", "G"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(REQUEST_TIMEOUT, report.getRequest().getAsyncContext().getTimeout());
+        report.getAsyncResult();
+
+        // Second dispatch writes the body
+        MvcResult download = mvc.perform(asyncDispatch(report))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(STREAM_TIMEOUT, download.getRequest().getAsyncContext().getTimeout());
+        download.getAsyncResult();
+        assertTrue(download.getResponse().getContentAsString().contains("\"I-1\""));
+    }
+
+    @Test
+    void streamRunsUnderTheStreamTimeout() throws Exception {
+        MvcResult download = mockMvc()
+                .perform(get("/performance/report/stream").param("tenantId", "1").param("groupId", "G"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(STREAM_TIMEOUT, download.getRequest().getAsyncContext().getTimeout());
+        download.getAsyncResult();
+        assertTrue(download.getResponse().getContentAsString().contains("\"I-1\""));
+    }
+
+    @Test
+    void optimizedBatchKeepsTheListBodyAndSendsTheCursorInHeaders() {
+        MetricAggregate row = new MetricAggregate("I-1", "D001", 3, 1, 0);
+        ReportDao dao = new ReportDao(null, metrics(), IdentifierDictionaries.disabled(), SqlDialect.H2,
+                SlowQueryLog.disabled()) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                // I-2 is in the catalog but has no events
+                return lastSeenId.isEmpty()
+                        ? new AggregateBatch(List.of(row), 2, "I-2")
+                        : new AggregateBatch(List.of(), 0, null);
+            }
+        };
+        PerformanceTestController controller = new PerformanceTestController(
+                dao, null, null, null, null, null, null, null, null, new ReportProperties());
+
+        ResponseEntity<List<MetricAggregate>> first = controller.optimizedBatch(1L, "G", "", 2);
+        assertEquals(List.of(row), first.getBody());
+        assertEquals("2", first.getHeaders().getFirst(PerformanceTestController.ITEM_COUNT_HEADER));
+        assertEquals("I-2", first.getHeaders().getFirst(PerformanceTestController.LAST_ITEM_ID_HEADER));
+
+        ResponseEntity<List<MetricAggregate>> last = controller.optimizedBatch(1L, "G", "I-2", 2);
+        assertEquals(List.of(), last.getBody());
+        assertEquals("0", last.getHeaders().getFirst(PerformanceTestController.ITEM_COUNT_HEADER));
+        assertNull(last.getHeaders().getFirst(PerformanceTestController.LAST_ITEM_ID_HEADER));
+    }
+
+    private static ReportMetrics metrics() {
+        return new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+    }
+
+    private static MockMvc mockMvc() {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(WebConfig.class, ReportWebConfig.class);
+        context.refresh();
+        return MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    /** The controller over a one-row report, with Boot's async timeout. */
+    @Configuration(proxyBeanMethods = false)
+    @EnableWebMvc
+    static class WebConfig implements WebMvcConfigurer {
+
+        @Bean
+        ReportProperties reportProperties() {
+            ReportProperties properties = new ReportProperties();
+            properties.getExecution().setStreamTimeout(Duration.ofMillis(STREAM_TIMEOUT));
+            return properties;
+        }
+
+        @Bean
+        PerformanceTestController controller(ReportProperties properties) {
+            ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), properties);
+            return new PerformanceTestController(
+                    null, new OneRowReportService(properties, metrics), null, new ReportExecutor(properties),
+                    null, null, null, null, null, properties);
+        }
+
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setDefaultTimeout(REQUEST_TIMEOUT);
+        }
+    }
+
+    /** Every report is the single row I-1/D001. */
+    private static class OneRowReportService extends ReportService {
+
+        OneRowReportService(ReportProperties properties, ReportMetrics metrics) {
+            super(null, properties, null, metrics);
+        }
+
+        @Override
+        public ColumnarAggregates generateColumnarReport(Long tenantId, String groupId, int batchSize) {
+            ColumnarAggregates rows = new ColumnarAggregates();
+            rows.add("I-1", "D001", 3, 1, 0);
+            return rows;
+        }
+
+        @Override
+        public long generateReportWithCallback(
+                Long tenantId, String groupId, Consumer<List<MetricAggregate>> batchCallback) {
+            batchCallback.accept(List.of(new MetricAggregate("I-1", "D001", 3, 1, 0)));
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.model.QueryPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanDaoTests {
+
+    private static final ReportDao.ExplainableQuery OPTIMIZED =
+            new ReportDao.ExplainableQuery("optimized", "SELECT 1", List.of(), "e", true);
+
+    @Test
+    void readsOraclePlanTable() {
+        QueryPlan indexed = QueryPlanDao.analyze(SqlDialect.ORACLE, OPTIMIZED, List.of(
+                "SELECT STATEMENT  ",
+                "  HASH GROUP BY ",
+                "    NESTED LOOPS ",
+                "      VIEW  ",
+                "      TABLE ACCESS BY INDEX ROWID BATCHED ENTITY_EVENT",
+                "        INDEX RANGE SCAN IDX_ENTITY_EVENT_TENANT_ITEM"));
+        QueryPlan scanned = QueryPlanDao.analyze(SqlDialect.ORACLE, OPTIMIZED, List.of(
+                "SELECT STATEMENT  ",
+                "  HASH GROUP BY ",
+                "    HASH JOIN ",
+                "      VIEW  ",
+                "      TABLE ACCESS FULL ENTITY_EVENT"));
+
+        assertFalse(indexed.fullScanOnEvents());
+        assertTrue(indexed.usesTenantItemIndex());
+        assertTrue(scanned.fullScanOnEvents());
+        assertFalse(scanned.usesTenantItemIndex());
+        assertNotEquals(indexed.fingerprint(), scanned.fingerprint());
+    }
+
+    @Test
+    void ignoresPostgresCostEstimatesInFingerprint() {
+        QueryPlan before = QueryPlanDao.analyze(SqlDialect.POSTGRESQL, OPTIMIZED, List.of(
+                "GroupAggregate  (cost=10.00..20.00 rows=5 width=40)",
+                "  ->  Index Scan using idx_entity_event_tenant_item on entity_event e  (cost=0.42..8.44 rows=1 width=24)"));
+        QueryPlan after = QueryPlanDao.analyze(SqlDialect.POSTGRESQL, OPTIMIZED, List.of(
+                "GroupAggregate  (cost=11.00..25.00 rows=9 width=40)",
+                "  ->  Index Scan using idx_entity_event_tenant_item on entity_event e  (cost=0.43..9.10 rows=2 width=24)"));
+        QueryPlan seen = QueryPlanDao.analyze(SqlDialect.POSTGRESQL, OPTIMIZED, List.of(
+                "GroupAggregate  (cost=10.00..20.00 rows=5 width=40)",
+                "  ->  Index Only Scan using idx_entity_event_tenant_item_seen on entity_event e"));
+
+        assertEquals(before.fingerprint(), after.fingerprint());
+        assertTrue(before.usesTenantItemIndex());
+        assertFalse(seen.usesTenantItemIndex());
+        assertFalse(seen.fullScanOnEvents());
+    }
+
+    @Test
+    void matchesMysqlRowsByAlias() {
+        QueryPlan scanned = QueryPlanDao.analyze(SqlDialect.MYSQL, OPTIMIZED, List.of(
+                "ALL on <derived2>",
+                "ALL on e"));
+        QueryPlan indexed = QueryPlanDao.analyze(SqlDialect.MYSQL, OPTIMIZED, List.of(
+                "ALL on <derived2>",
+                "ref on e using idx_entity_event_tenant_item"));
+
+        assertTrue(scanned.fullScanOnEvents());
+        assertFalse(indexed.fullScanOnEvents());
+        assertTrue(indexed.usesTenantItemIndex());
+    }
+}
@@ -0,0 +1,273 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import com.pratik.optimizationDemo.performance.model.KeysetPage;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the DAOs' rendered SQL on an embedded engine per dialect.
+ *
+ * No embedded MySQL, PostgreSQL or Oracle is available, so each dialect runs
+ * on the closest compatibility mode: H2's MySQL and PostgreSQL modes and
+ * HSQLDB's Oracle syntax mode. Statements a mode cannot parse are skipped
+ * per engine; SqlDialectTests still checks their rendering.
+ */
+class SqlDialectIntegrationTests {
+
+    enum Engine {
+        // HSQLDB has no WHERE clause on MERGE's update branch
+        ORACLE(SqlDialect.ORACLE, "jdbc:hsqldb:mem:%s;sql.syntax_ora=true", true, true, false),
+        // H2 has no DATE_FORMAT
+        MYSQL(SqlDialect.MYSQL, "jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE", false, true, true),
+        // H2 has no ON CONFLICT
+        POSTGRESQL(SqlDialect.POSTGRESQL, "jdbc:h2:mem:%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", true, false, false),
+        H2(SqlDialect.H2, "jdbc:h2:mem:%s", true, true, true);
+
+        final SqlDialect dialect;
+        final String url;
+        final boolean trend;
+        final boolean upsert;
+        final boolean guardedUpsert;
+
+        Engine(SqlDialect dialect, String url, boolean trend, boolean upsert, boolean guardedUpsert) {
+            this.dialect = dialect;
+            this.url = url;
+            this.trend = trend;
+            this.upsert = upsert;
+            this.guardedUpsert = guardedUpsert;
+        }
+    }
+
+    private static final Timestamp T0 = Timestamp.valueOf("2026-03-01 10:00:00");
+    private static final Timestamp T1 = Timestamp.valueOf("2026-03-01 11:00:00");
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void closeDatabase() {
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void keysetPagesStartFromEmptyCursor(Engine engine) {
+        ReportDao dao = reportDao(engine);
+
+        AggregateBatch first = dao.fetchAggregatesOptimized(1L, "G001", "", 2);
+        assertEquals(List.of(
+                        new MetricAggregate("I-01", "D1", 1, 1, 0),
+                        new MetricAggregate("I-01", "D2", 0, 1, 0)),
+                sorted(first.rows()));
+        // I-02 has no events for tenant 1 but still fills the page
+        assertEquals(2, first.itemCount());
+        assertEquals("I-02", first.lastItemId());
+
+        AggregateBatch next = dao.fetchAggregatesOptimized(1L, "G001", "I-02", 10);
+        assertEquals(List.of(
+                        new MetricAggregate("I-03", "D1", 0, 0, 1),
+                        new MetricAggregate("I-05", "D1", 1, 0, 0)),
+                sorted(next.rows()));
+        assertEquals(3, next.itemCount());
+        assertEquals("I-05", next.lastItemId());
+        ColumnarAggregates columns = new ColumnarAggregates();
+        KeysetPage page = dao.fetchAggregatesOptimizedInto(1L, "G001", "", 2, columns);
+        assertEquals(first.rows(), sorted(columns.toList()));
+        assertEquals(new KeysetPage(2, "I-02"), page);
+
+        AggregateBatch range = dao.fetchAggregatesInRange(1L, "G001", "I-01", "I-04", 10);
+        assertEquals(List.of(new MetricAggregate("I-03", "D1", 0, 0, 1)), range.rows());
+        assertEquals(3, range.itemCount());
+        assertEquals("I-04", range.lastItemId());
+        assertEquals(List.of("I-01", "I-02"), dao.fetchCatalogItems("G001", "", 2));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void streamedPagesMatchFetchedPages(Engine engine) {
+        ReportDao dao = reportDao(engine);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        // The empty start cursor is Oracle's special case (see SqlDialect.cursor)
+        List<MetricAggregate> first = readOnly.execute(tx -> {
+            try (Stream<MetricAggregate> rows = dao.streamAggregatesOptimized(1L, "G001", "", 2)
+                    .onClose(() -> closed.set(true))) {
+                return rows.toList();
+            }
+        });
+        assertEquals(sorted(dao.fetchAggregatesOptimized(1L, "G001", "", 2).rows()), sorted(first));
+        assertTrue(closed.get());
+
+        List<MetricAggregate> next = readOnly.execute(tx -> {
+            try (Stream<MetricAggregate> rows = dao.streamAggregatesOptimized(1L, "G001", "I-02", 10, 1)) {
+                return rows.toList();
+            }
+        });
+        assertEquals(List.of(
+                        new MetricAggregate("I-03", "D1", 0, 0, 1),
+                        new MetricAggregate("I-05", "D1", 1, 0, 0)),
+                sorted(next));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void multiTenantAndDeltaQueriesCountPerDialect(Engine engine) {
+        ReportDao dao = reportDao(engine);
+
+        TenantBatch batch = dao.fetchAggregatesForTenants(List.of(1L, 2L), "G001", "", 3);
+        assertEquals(3, batch.itemCount());
+        assertEquals("I-03", batch.lastItemId());
+        assertEquals(List.of(new MetricAggregate("I-01", "D1", 0, 1, 0)), batch.rowsByTenant().get(2L));
+
+        // Only I-05 changed after T0; its full count comes back
+        assertEquals(List.of(new MetricAggregate("I-05", "D1", 1, 0, 0)),
+                dao.fetchChangedAggregates(1L, "G001", T0, T1, "", 10));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void trendBucketsTruncatePerDialect(Engine engine) {
+        assumeTrue(engine.trend);
+        ReportDao dao = reportDao(engine);
+
+        TrendBatch batch = dao.fetchTrendBuckets(1L, "G001", TrendGranularity.HOUR,
+                Timestamp.valueOf("2026-03-01 00:00:00"), Timestamp.valueOf("2026-03-02 00:00:00"), "", 2);
+
+        assertEquals(2, batch.itemCount());
+        List<TrendBucket> buckets = new ArrayList<>(batch.buckets());
+        buckets.sort((a, b) -> (a.getDimensionId() + a.getBucketStart())
+                .compareTo(b.getDimensionId() + b.getBucketStart()));
+        assertEquals(List.of(
+                        new TrendBucket("I-01", "D1", LocalDateTime.parse("2026-03-01T09:00"), 1, 0, 0),
+                        new TrendBucket("I-01", "D1", LocalDateTime.parse("2026-03-01T10:00"), 0, 1, 0),
+                        new TrendBucket("I-01", "D2", LocalDateTime.parse("2026-03-01T09:00"), 0, 1, 0)),
+                buckets);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void upsertsInsertThenUpdate(Engine engine) {
+        assumeTrue(engine.upsert);
+        reportDao(engine);
+        RollupDao rollupDao = new RollupDao(jdbc, engine.dialect);
+        EventCounterDao counterDao = new EventCounterDao(jdbc, metrics, engine.dialect);
+
+        assertEquals(5, rollupDao.refreshChangedKeys(Timestamp.valueOf("2026-01-01 00:00:00"), T1));
+        jdbc.update("UPDATE entity_event SET status = 1, updated_at = ? WHERE item_id = 'I-03'", T1);
+        rollupDao.refreshChangedKeys(T0, T1);
+        assertEquals(List.of(1L, 0L, 0L), jdbc.queryForObject(
+                "SELECT passed, failed, error FROM entity_event_rollup WHERE tenant_id = 1 AND item_id = 'I-03'",
+                (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3))));
+
+        counterDao.saveCheckpoint(List.of(new TenantAggregate(1L, new MetricAggregate("I-01", "D1", 1, 2, 3))));
+        counterDao.saveCheckpoint(List.of(
+                new TenantAggregate(1L, new MetricAggregate("I-01", "D1", 4, 5, 6)),
+                new TenantAggregate(1L, new MetricAggregate("I-02", "D1", 1, 0, 0))));
+        List<TenantAggregate> checkpointed = new ArrayList<>();
+        counterDao.forEachCheckpointed(checkpointed::add);
+        checkpointed.sort((a, b) -> a.aggregate().getItemId().compareTo(b.aggregate().getItemId()));
+        assertEquals(List.of(
+                        new TenantAggregate(1L, new MetricAggregate("I-01", "D1", 4, 5, 6)),
+                        new TenantAggregate(1L, new MetricAggregate("I-02", "D1", 1, 0, 0))),
+                checkpointed);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Engine.class)
+    void ingestUpsertIgnoresOlderSubmissions(Engine engine) {
+        assumeTrue(engine.guardedUpsert);
+        reportDao(engine);
+        EventIngestDao ingestDao = new EventIngestDao(jdbc, engine.dialect);
+        Instant seen = Instant.parse("2026-03-02T08:00:00Z");
+
+        ingestDao.upsert(List.of(new EventSubmission(9L, "I-02", "D1", 1L, 1, seen)));
+        ingestDao.upsert(List.of(new EventSubmission(9L, "I-02", "D1", 1L, 0, seen.minusSeconds(60))));
+        assertEquals(1, status("I-02"));
+
+        ingestDao.upsert(List.of(new EventSubmission(9L, "I-02", "D1", 1L, 2, seen.plusSeconds(60))));
+        assertEquals(2, status("I-02"));
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM entity_event WHERE item_id = 'I-02'", Integer.class));
+    }
+
+    /**
+     * Group G001 holds I-01..I-05. Tenant 1 has events on I-01, I-03 and
+     * I-05 (the latter updated at T1), tenant 2 one failure on I-01.
+     */
+    private ReportDao reportDao(Engine engine) {
+        dataSource = new SingleConnectionDataSource(
+                engine.url.formatted(UUID.randomUUID().toString().replace("-", "")), "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("dialect-schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+
+        for (String item : List.of("I-01", "I-02", "I-03", "I-04", "I-05")) {
+            jdbc.update("INSERT INTO entity_catalog (item_id, group_id) VALUES (?, 'G001')", item);
+        }
+        event(1, 1L, "I-01", "D1", 1, "2026-03-01 09:15:00", T0);
+        event(2, 1L, "I-01", "D1", 0, "2026-03-01 10:45:00", T0);
+        event(1, 1L, "I-01", "D2", 0, "2026-03-01 09:30:00", T0);
+        event(1, 1L, "I-03", "D1", 2, "2026-03-01 12:00:00", T0);
+        event(1, 1L, "I-05", "D1", 1, "2026-03-01 13:00:00", T1);
+        event(1, 2L, "I-01", "D1", 0, "2026-03-01 09:00:00", T0);
+
+        return new ReportDao(jdbc, metrics, IdentifierDictionaries.disabled(), engine.dialect,
+                SlowQueryLog.disabled());
+    }
+
+    private void event(long sourceId, long tenantId, String itemId, String dimensionId, int status,
+                       String lastSeen, Timestamp updatedAt) {
+        jdbc.update("""
+                INSERT INTO entity_event
+                    (source_id, item_id, dimension_id, tenant_id, status, last_seen_time, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, sourceId, itemId, dimensionId, tenantId, status, Timestamp.valueOf(lastSeen), updatedAt);
+    }
+
+    private int status(String itemId) {
+        return jdbc.queryForObject("SELECT status FROM entity_event WHERE item_id = ?", Integer.class, itemId);
+    }
+
+    private static List<MetricAggregate> sorted(List<MetricAggregate> rows) {
+        List<MetricAggregate> copy = new ArrayList<>(rows);
+        copy.sort((a, b) -> (a.getItemId() + a.getDimensionId()).compareTo(b.getItemId() + b.getDimensionId()));
+        return copy;
+    }
+}
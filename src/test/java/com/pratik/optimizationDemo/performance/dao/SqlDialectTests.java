@@ -0,0 +1,116 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SqlDialectTests {
+
+    private static final String PAGE = """
+        SELECT {hint:INDEX(e idx)} item_id, {count:status = 1} AS passed
+        FROM entity_event e
+        ORDER BY item_id
+        {limit}""";
+
+    private static final Upsert GUARDED = Upsert.into("entity_event",
+                    List.of("tenant_id", "item_id"),
+                    List.of("status", "last_seen_time"))
+            .touching("updated_at")
+            .creating("created_at")
+            .onlyIf("{t}.last_seen_time <= {s}.last_seen_time");
+
+    @Test
+    void rendersFastestPageAndCountForm() {
+        assertEquals("""
+                SELECT /*+ INDEX(e idx) */ item_id, COUNT(CASE WHEN status = 1 THEN 1 END) AS passed
+                FROM entity_event e
+                ORDER BY item_id
+                FETCH FIRST ? ROWS ONLY""", SqlDialect.ORACLE.render(PAGE));
+        assertEquals("""
+                SELECT /*+ INDEX(e idx) */ item_id, COUNT(CASE WHEN status = 1 THEN 1 END) AS passed
+                FROM entity_event e
+                ORDER BY item_id
+                LIMIT ?""", SqlDialect.MYSQL.render(PAGE));
+        assertEquals("""
+                SELECT  item_id, COUNT(*) FILTER (WHERE status = 1) AS passed
+                FROM entity_event e
+                ORDER BY item_id
+                LIMIT ?""", SqlDialect.POSTGRESQL.render(PAGE));
+        assertEquals("""
+                SELECT  item_id, COUNT(*) FILTER (WHERE status = 1) AS passed
+                FROM entity_event e
+                ORDER BY item_id
+                FETCH FIRST ? ROWS ONLY""", SqlDialect.H2.render(PAGE));
+        assertEquals("LIMIT ?, ?", SqlDialect.MYSQL.render("{offset_limit}"));
+    }
+
+    @Test
+    void mapsEmptyCursorBelowEveryIdOnOracle() {
+        assertEquals("\u0000", SqlDialect.ORACLE.cursor(""));
+        assertEquals("", SqlDialect.POSTGRESQL.cursor(""));
+        assertEquals("I-7", SqlDialect.ORACLE.cursor("I-7"));
+    }
+
+    @Test
+    void truncatesWithEachDatabasesFunction() {
+        assertEquals("TRUNC(c, 'HH')", SqlDialect.ORACLE.truncate(TrendGranularity.HOUR, "c"));
+        assertEquals("CAST(DATE(c) AS DATETIME)", SqlDialect.MYSQL.truncate(TrendGranularity.DAY, "c"));
+        assertEquals("DATE_TRUNC('day', c)", SqlDialect.POSTGRESQL.truncate(TrendGranularity.DAY, "c"));
+    }
+
+    @Test
+    void rendersPostgresUpsertAsOnConflict() {
+        assertEquals("""
+                INSERT INTO entity_event AS t (tenant_id, item_id, status, last_seen_time, updated_at, created_at)
+                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                ON CONFLICT (tenant_id, item_id) DO UPDATE SET
+                    updated_at = CURRENT_TIMESTAMP,
+                    status = EXCLUDED.status,
+                    last_seen_time = EXCLUDED.last_seen_time
+                    WHERE t.last_seen_time <= EXCLUDED.last_seen_time
+                """, SqlDialect.POSTGRESQL.upsert(GUARDED));
+    }
+
+    @Test
+    void rendersMysqlGuardPerColumnWithGuardedColumnLast() {
+        String guard = "CASE WHEN (entity_event.last_seen_time <= VALUES(last_seen_time))";
+        assertEquals("""
+                INSERT INTO entity_event (tenant_id, item_id, status, last_seen_time, updated_at, created_at)
+                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                ON DUPLICATE KEY UPDATE
+                    updated_at = %1$s THEN CURRENT_TIMESTAMP ELSE updated_at END,
+                    status = %1$s THEN VALUES(status) ELSE status END,
+                    last_seen_time = %1$s THEN VALUES(last_seen_time) ELSE last_seen_time END
+                """.formatted(guard), SqlDialect.MYSQL.upsert(GUARDED));
+    }
+
+    @Test
+    void rendersOracleMergeFromDual() {
+        assertEquals("""
+                MERGE INTO entity_event t
+                USING (SELECT ? AS tenant_id, ? AS item_id, ? AS status, ? AS last_seen_time FROM dual) s
+                ON (t.tenant_id = s.tenant_id AND t.item_id = s.item_id)
+                WHEN MATCHED THEN UPDATE SET
+                    t.updated_at = CURRENT_TIMESTAMP,
+                    t.status = s.status,
+                    t.last_seen_time = s.last_seen_time
+                    WHERE t.last_seen_time <= s.last_seen_time
+                WHEN NOT MATCHED THEN INSERT
+                    (tenant_id, item_id, status, last_seen_time, updated_at, created_at)
+                    VALUES (s.tenant_id, s.item_id, s.status, s.last_seen_time, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """, SqlDialect.ORACLE.upsert(GUARDED));
+    }
+
+    @Test
+    void detectsDialectFromProductName() {
+        assertEquals(SqlDialect.ORACLE, SqlDialect.fromProductName("Oracle"));
+        assertEquals(SqlDialect.MYSQL, SqlDialect.fromProductName("MariaDB"));
+        assertEquals(SqlDialect.POSTGRESQL, SqlDialect.fromProductName("PostgreSQL"));
+        assertEquals(SqlDialect.H2, SqlDialect.fromProductName("H2"));
+        assertThrows(IllegalArgumentException.class, () -> SqlDialect.fromProductName("HSQL Database Engine"));
+    }
+}
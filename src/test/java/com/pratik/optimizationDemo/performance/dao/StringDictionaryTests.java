@@ -0,0 +1,33 @@
+package com.pratik.optimizationDemo.performance.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringDictionaryTests {
+
+    @Test
+    void returnsOneInstancePerValue() {
+        StringDictionary dictionary = new StringDictionary(100);
+
+        String first = dictionary.intern(new String("D001"));
+        String second = dictionary.intern(new String("D001"));
+        String third = dictionary.intern(new String("D001"));
+
+        assertSame(first, second);
+        assertSame(first, third);
+        assertEquals(3, dictionary.lookups());
+        assertEquals(2, dictionary.hits());
+        assertEquals(2.0 / 3, dictionary.dedupRatio(), 1e-9);
+    }
+
+    @Test
+    void disabledDictionaryPassesValuesThrough() {
+        StringDictionary dictionary = StringDictionary.disabled();
+        String value = new String("D001");
+
+        assertSame(value, dictionary.intern(value));
+        assertEquals(0, dictionary.lookups());
+    }
+}
@@ -0,0 +1,39 @@
+package com.pratik.optimizationDemo.performance.export;
+
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricAggregateWriterTests {
+
+    @Test
+    void csvPassRateHasOneDecimal() throws IOException {
+        assertEquals("I-1,D001,0,0,4,0.0", csvRow(new MetricAggregate("I-1", "D001", 0, 0, 4)));
+        assertEquals("I-1,D001,5,0,0,100.0", csvRow(new MetricAggregate("I-1", "D001", 5, 0, 0)));
+        assertEquals("I-1,D001,1,2,0,33.3", csvRow(new MetricAggregate("I-1", "D001", 1, 2, 0)));
+        assertEquals("I-1,D001,2,1,0,66.7", csvRow(new MetricAggregate("I-1", "D001", 2, 1, 0)));
+        // 6.25 rounds half-up
+        assertEquals("I-1,D001,1,15,0,6.3", csvRow(new MetricAggregate("I-1", "D001", 1, 15, 0)));
+        assertEquals("I-1,D001,1,999,0,0.1", csvRow(new MetricAggregate("I-1", "D001", 1, 999, 0)));
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparators() throws IOException {
+        assertEquals("\"I,1\",\"D \"\"x\"\"\",3,1,0,75.0",
+                csvRow(new MetricAggregate("I,1", "D \"x\"", 3, 1, 0)));
+    }
+
+    private static String csvRow(MetricAggregate row) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MetricAggregateWriter writer = new MetricAggregateWriter(ReportFormat.CSV, out, true)) {
+            writer.writeBatch(List.of(row));
+        }
+        return out.toString(StandardCharsets.UTF_8).stripTrailing();
+    }
+}
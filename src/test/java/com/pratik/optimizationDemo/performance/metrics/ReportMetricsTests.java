@@ -0,0 +1,63 @@
+package com.pratik.optimizationDemo.performance.metrics;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportMetricsTests {
+
+    @Test
+    void tenantGroupPairsShareOneBudget() {
+        ReportProperties properties = new ReportProperties();
+        properties.getMetrics().setMaxTenantGroupTags(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReportMetrics metrics = new ReportMetrics(registry, properties);
+
+        metrics.timeQuery("optimized", 1L, "G001", () -> null);
+        metrics.timeQuery("optimized", 1L, "G002", () -> null);
+        // Known tenant and known group, but a new pair
+        metrics.timeQuery("optimized", 2L, "G001", () -> null);
+        metrics.timeQuery("optimized", 1L, "G001", () -> null);
+
+        assertEquals(3, registry.get("report.query.tenant").timers().size());
+        assertEquals(1, registry.get("report.query.tenant")
+                .tags("tenant", ReportMetrics.OVERFLOW_TAG, "group", ReportMetrics.OVERFLOW_TAG)
+                .timer().count());
+        assertEquals(2, registry.get("report.query.tenant").tags("tenant", "1", "group", "G001").timer().count());
+    }
+
+    @Test
+    void histogramsCarryNoTenantTags() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReportMetrics metrics = new ReportMetrics(registry, new ReportProperties());
+
+        for (long tenant = 0; tenant < 50; tenant++) {
+            metrics.timeQuery("optimized", tenant, "G001", () -> null);
+            metrics.recordBatch(10);
+        }
+
+        assertEquals(1, registry.get("report.query").timers().size());
+        assertEquals(50, registry.get("report.query").tag("query", "optimized").timer().count());
+        assertEquals(1, registry.get("report.batch.rows").summaries().size());
+    }
+
+    @Test
+    void batchLimitSharesTheTenantGroupBudget() {
+        ReportProperties properties = new ReportProperties();
+        properties.getMetrics().setMaxTenantGroupTags(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReportMetrics metrics = new ReportMetrics(registry, properties);
+
+        metrics.timeQuery("optimized", 1L, "G001", () -> null);
+        metrics.recordBatchLimit(1L, "G001", 500);
+        metrics.recordBatchLimit(2L, "G001", 250);
+
+        assertEquals(500, registry.get("report.batch.limit").tags("tenant", "1", "group", "G001")
+                .summary().totalAmount());
+        assertEquals(250, registry.get("report.batch.limit")
+                .tags("tenant", ReportMetrics.OVERFLOW_TAG, "group", ReportMetrics.OVERFLOW_TAG)
+                .summary().totalAmount());
+    }
+}
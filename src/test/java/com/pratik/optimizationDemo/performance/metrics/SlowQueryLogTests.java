@@ -0,0 +1,126 @@
+package com.pratik.optimizationDemo.performance.metrics;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.model.SlowQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReportProperties properties = new ReportProperties();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:slowqueries", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("dialect-schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        for (String item : List.of("I-01", "I-02", "I-03")) {
+            jdbc.update("INSERT INTO entity_catalog (item_id, group_id) VALUES (?, 'G001')", item);
+            jdbc.update("""
+                    INSERT INTO entity_event (source_id, item_id, dimension_id, tenant_id, status)
+                    VALUES (1, ?, 'D1', 1001, 1)
+                    """, item);
+        }
+        // Record every query
+        properties.getSlowQueries().setThreshold(Duration.ZERO);
+        properties.getSlowQueries().setCapacity(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void recordsBindsRowsAndCallingJob() {
+        SlowQueryLog slowQueryLog = slowQueryLog();
+        ReportDao dao = reportDao(slowQueryLog);
+
+        try (QueryContext.Scope ignored = QueryContext.open("job 42")) {
+            assertEquals(3, dao.fetchAggregatesOptimized(1001L, "G001", "", 10).rows().size());
+        }
+        assertNull(QueryContext.current());
+
+        SlowQuery entry = slowQueryLog.recent().get(0);
+        assertEquals("optimized", entry.query());
+        Map<String, Object> binds = new LinkedHashMap<>();
+        binds.put("tenantId", 1001L);
+        binds.put("groupId", "G001");
+        binds.put("lastSeenId", "");
+        binds.put("limit", 10);
+        assertEquals(binds, entry.binds());
+        assertEquals(3, entry.rows());
+        assertEquals("job 42", entry.context());
+        assertTrue(entry.mappingMillis() <= entry.totalMillis());
+        assertEquals(entry.totalMillis(), entry.fetchMillis() + entry.mappingMillis(), 1e-6);
+        assertNull(entry.error());
+        assertEquals(1, registry.get("report.query.slow").tag("query", "optimized").counter().count());
+    }
+
+    @Test
+    void keepsNewestEntriesAndFailures() {
+        SlowQueryLog slowQueryLog = slowQueryLog();
+        ReportDao dao = reportDao(slowQueryLog);
+
+        dao.fetchCatalogItems("G001", "", 10);
+        dao.getItemCount("G001");
+        jdbc.execute("DROP TABLE entity_event");
+        assertThrows(DataAccessException.class, () -> dao.fetchAggregatesOptimized(1001L, "G001", "", 10));
+
+        List<SlowQuery> recent = slowQueryLog.recent();
+        assertEquals(List.of("optimized", "item_count"), recent.stream().map(SlowQuery::query).toList());
+        assertNotNull(recent.get(0).error());
+        assertEquals(1, recent.get(1).rows());
+
+        slowQueryLog.clear();
+        assertTrue(slowQueryLog.recent().isEmpty());
+    }
+
+    @Test
+    void propagatesContextToWorkerTasks() throws InterruptedException {
+        String[] seen = new String[1];
+        Runnable task;
+        try (QueryContext.Scope ignored = QueryContext.open("job 7")) {
+            task = QueryContext.propagate(() -> seen[0] = QueryContext.current());
+        }
+        Thread worker = new Thread(task);
+        worker.start();
+        worker.join();
+
+        assertEquals("job 7", seen[0]);
+    }
+
+    private SlowQueryLog slowQueryLog() {
+        return new SlowQueryLog(properties, new ReportMetrics(registry, properties));
+    }
+
+    private ReportDao reportDao(SlowQueryLog slowQueryLog) {
+        return new ReportDao(jdbc, new ReportMetrics(registry, properties),
+                IdentifierDictionaries.disabled(), SqlDialect.H2, slowQueryLog);
+    }
+}
@@ -0,0 +1,49 @@
+package com.pratik.optimizationDemo.performance.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnarAggregatesTests {
+
+    @Test
+    void roundTripsRowsInInsertionOrder() {
+        List<MetricAggregate> rows = List.of(
+                new MetricAggregate("I-1", "D1", 3, 1, 0),
+                new MetricAggregate("I-1", "D2", 0, 2, 1),
+                new MetricAggregate("I-2", "D1", 5, 0, 0),
+                new MetricAggregate("I-1", "D3", 1, 1, 1));
+
+        ColumnarAggregates columnar = new ColumnarAggregates(2);
+        rows.forEach(columnar::add);
+
+        assertEquals(rows, columnar.toList());
+        assertEquals(2, columnar.distinctItems());
+        assertEquals(3, columnar.distinctDimensions());
+    }
+
+    @Test
+    void totalsMatchRowSums() {
+        ColumnarAggregates columnar = new ColumnarAggregates();
+        columnar.add("I-1", "D1", 3, 1, 0);
+        columnar.add("I-2", "D1", 4, 2, 5);
+        columnar.trimToSize();
+
+        assertEquals(7, columnar.totalPassed());
+        assertEquals(3, columnar.totalFailed());
+        assertEquals(5, columnar.totalError());
+        assertEquals(75.0, columnar.passRatePercentage(0));
+    }
+
+    @Test
+    void rejectsCountersThatDoNotFitAnInt() {
+        ColumnarAggregates columnar = new ColumnarAggregates();
+
+        assertThrows(ArithmeticException.class,
+                () -> columnar.add("I-1", "D1", Integer.MAX_VALUE + 1L, 0, 0));
+        assertEquals(0, columnar.size());
+    }
+}
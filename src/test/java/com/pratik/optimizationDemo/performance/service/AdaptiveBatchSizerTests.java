@@ -0,0 +1,65 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveBatchSizerTests {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final ReportProperties.Adaptive config = new ReportProperties.Adaptive();
+
+    AdaptiveBatchSizerTests() {
+        config.setTargetBatchLatency(Duration.ofMillis(500));
+        config.setMinBatchSize(100);
+        config.setMaxBatchSize(10_000);
+    }
+
+    @Test
+    void growsFastBatchesAtMostTwofoldPerStep() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(config, 1_000);
+
+        sizer.observe(1_000, 1_000, 50 * MILLIS);
+        assertEquals(2_000, sizer.next());
+
+        sizer.observe(2_000, 2_000, 100 * MILLIS);
+        assertEquals(4_000, sizer.next());
+    }
+
+    @Test
+    void shrinksSlowBatchesAndRespectsBounds() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(config, 1_000);
+
+        sizer.observe(1_000, 1_000, 5_000 * MILLIS);
+        assertEquals(500, sizer.next());
+
+        for (int i = 0; i < 10; i++) {
+            sizer.observe(sizer.next(), sizer.next(), 5_000 * MILLIS);
+        }
+        assertEquals(100, sizer.next());
+    }
+
+    @Test
+    void settlesOnTargetLatency() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(config, 1_000);
+
+        // 0.2 ms per item -> 2,500 items fit in 500 ms
+        for (int i = 0; i < 10; i++) {
+            int limit = sizer.next();
+            sizer.observe(limit, limit, limit * 200_000L);
+        }
+        assertEquals(2_500, sizer.next());
+    }
+
+    @Test
+    void ignoresTheFinalPartialBatch() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(config, 1_000);
+
+        sizer.observe(1_000, 3, 1 * MILLIS);
+        assertEquals(1_000, sizer.next());
+    }
+}
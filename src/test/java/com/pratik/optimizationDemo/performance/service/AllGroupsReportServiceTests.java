@@ -0,0 +1,120 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AllGroupsReportServiceTests {
+
+    private static final MetricAggregate I1 = new MetricAggregate("I-1", "D001", 3, 1, 0);
+    private static final MetricAggregate I2 = new MetricAggregate("I-2", "D001", 0, 2, 0);
+    private static final MetricAggregate I2_D2 = new MetricAggregate("I-2", "D002", 1, 0, 1);
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+
+    @Test
+    void itemInSeveralGroupsIsReportedInEach() {
+        Catalog dao = new Catalog();
+        dao.member("I-1", "G1");
+        dao.member("I-1", "G2");
+        dao.member("I-2", "G2");
+        dao.events(1L, I1, I2, I2_D2);
+
+        Map<String, List<MetricAggregate>> report = new AllGroupsReportService(dao).generateReport(1L);
+
+        assertEquals(Map.of("G1", List.of(I1), "G2", List.of(I1, I2, I2_D2)), report);
+        assertEquals(List.of("G1", "G2"), List.copyOf(report.keySet()));
+        // Shared, not copied, between the groups of an item
+        assertSame(report.get("G1").get(0), report.get("G2").get(0));
+    }
+
+    @Test
+    void groupWithoutEventsMapsToAnEmptyList() {
+        Catalog dao = new Catalog();
+        dao.member("I-1", "G1");
+        dao.member("I-3", "G0");
+        dao.events(1L, I1);
+
+        Map<String, List<MetricAggregate>> report = new AllGroupsReportService(dao).generateReport(1L);
+
+        assertEquals(List.of("G0", "G1"), List.copyOf(report.keySet()));
+        assertEquals(List.of(), report.get("G0"));
+        assertEquals(List.of(I1), report.get("G1"));
+    }
+
+    @Test
+    void itemsWithoutCatalogEntryAreDropped() {
+        Catalog dao = new Catalog();
+        dao.member("I-2", "G1");
+        dao.events(1L, I1, I2);
+
+        Map<String, List<MetricAggregate>> report = new AllGroupsReportService(dao).generateReport(1L);
+
+        assertEquals(Map.of("G1", List.of(I2)), report);
+    }
+
+    @Test
+    void repeatedTenantsAreScannedOnceAgainstOneIndex() {
+        Catalog dao = new Catalog();
+        dao.member("I-1", "G1");
+        dao.member("I-2", "G1");
+        dao.events(1L, I1);
+        dao.events(2L, I2);
+
+        Map<Long, Map<String, List<MetricAggregate>>> report =
+                new AllGroupsReportService(dao).generateReport(List.of(2L, 1L, 2L));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(report.keySet()));
+        assertEquals(Map.of("G1", List.of(I2)), report.get(2L));
+        assertEquals(Map.of("G1", List.of(I1)), report.get(1L));
+        assertEquals(List.of(2L, 1L), dao.scannedTenants);
+        assertEquals(1, dao.indexLoads);
+    }
+
+    /**
+     * Catalog memberships and per-tenant aggregates in memory; records what was read.
+     */
+    private class Catalog extends FakeReportDao {
+
+        final List<String[]> memberships = new ArrayList<>();
+        final Map<Long, List<MetricAggregate>> aggregates = new LinkedHashMap<>();
+        final List<Long> scannedTenants = new ArrayList<>();
+        int indexLoads;
+
+        Catalog() {
+            super(metrics, 0);
+        }
+
+        void member(String itemId, String groupId) {
+            memberships.add(new String[] {itemId, groupId});
+        }
+
+        void events(Long tenantId, MetricAggregate... rows) {
+            aggregates.put(tenantId, List.of(rows));
+        }
+
+        @Override
+        public void forEachItemGroup(BiConsumer<String, String> consumer) {
+            indexLoads++;
+            memberships.forEach(membership -> consumer.accept(membership[0], membership[1]));
+        }
+
+        @Override
+        public void forEachTenantAggregate(Long tenantId, Consumer<MetricAggregate> consumer) {
+            scannedTenants.add(tenantId);
+            aggregates.getOrDefault(tenantId, List.of()).forEach(consumer);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedReportServiceTests {
+
+    private static final int ITEMS = 2_500;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int CALLERS = 8;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ReportProperties properties = new ReportProperties();
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), properties);
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scans = new AtomicInteger();
+        CachedReportService cache = cachedReportService(new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                if (lastSeenId.isEmpty()) {
+                    scans.incrementAndGet();
+                    await(release);
+                }
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+        });
+
+        List<Future<List<MetricAggregate>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> cache.getReport(1L, "G001", BATCH_SIZE)));
+        }
+        // Everyone but the loader has found the in-flight entry
+        waitUntil(() -> (long) cache.stats().get("hits") == CALLERS - 1);
+        release.countDown();
+
+        List<MetricAggregate> first = results.get(0).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        for (Future<List<MetricAggregate>> result : results) {
+            assertSame(first, result.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        }
+        assertEquals(ITEMS, first.size());
+        assertEquals(1, scans.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        AtomicInteger scans = new AtomicInteger();
+        CachedReportService cache = cachedReportService(new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                if (lastSeenId.isEmpty() && scans.incrementAndGet() == 1) {
+                    throw new IllegalStateException("database unavailable");
+                }
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> cache.getReport(1L, "G001", BATCH_SIZE));
+
+        assertEquals(ITEMS, cache.getReport(1L, "G001", BATCH_SIZE).size());
+        assertEquals(2, scans.get());
+    }
+
+    @Test
+    void loaderErrorDoesNotWedgeTheKey() {
+        AtomicInteger scans = new AtomicInteger();
+        CachedReportService cache = cachedReportService(new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                if (lastSeenId.isEmpty() && scans.incrementAndGet() == 1) {
+                    throw new StackOverflowError();
+                }
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+        });
+
+        assertThrows(StackOverflowError.class, () -> cache.getReport(1L, "G001", BATCH_SIZE));
+
+        List<MetricAggregate> report = assertTimeoutPreemptively(TIMEOUT,
+                () -> cache.getReport(1L, "G001", BATCH_SIZE));
+        assertEquals(ITEMS, report.size());
+    }
+
+    @Test
+    void evictsByRowWeight() {
+        // Room for one report, not two
+        properties.getCache().setMaxRows(ITEMS + ITEMS / 2);
+        CachedReportService cache = cachedReportService(new FakeReportDao(metrics, ITEMS));
+
+        cache.getReport(1L, "G001", BATCH_SIZE);
+        cache.getReport(1L, "G002", BATCH_SIZE);
+
+        // Eviction runs as asynchronous cache maintenance
+        waitUntil(() -> (long) cache.stats().get("evictions") == 1);
+        assertEquals(1L, cache.stats().get("entries"));
+        assertEquals((long) ITEMS, cache.stats().get("evictedRows"));
+    }
+
+    private CachedReportService cachedReportService(FakeReportDao dao) {
+        return new CachedReportService(new ReportService(dao, properties, null, metrics), properties);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(10);
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.EventCounterDao;
+import com.pratik.optimizationDemo.performance.dao.EventIngestDao;
+import com.pratik.optimizationDemo.performance.dao.RollupDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCounterServiceTests {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Timestamp WATERMARK = Timestamp.from(T0);
+
+    private final ReportProperties properties = new ReportProperties();
+    private final InMemoryEvents events = new InMemoryEvents();
+    private final InMemoryWatermarks watermarks = new InMemoryWatermarks();
+    private final List<TenantAggregate> checkpoint = new ArrayList<>();
+    private final List<Recount> recount = new ArrayList<>();
+    private boolean failCheckpoint;
+    private EventCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.getCounters().setEnabled(true);
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), properties);
+        service = new EventCounterService(events, new FakeCounterDao(metrics), watermarks, metrics, properties,
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void writeMovesCountFromOldToNewStatus() {
+        service.recover();
+
+        service.write(List.of(submission(7L, 1, T0), submission(8L, 0, T0)));
+        assertEquals(List.of(aggregate(1, 1, 0)), service.item(1L, "I-1"));
+
+        // Source 7 flips to failed, source 8 resends the same result
+        service.write(List.of(submission(7L, 0, T0.plusSeconds(60)), submission(8L, 0, T0.plusSeconds(60))));
+        assertEquals(List.of(aggregate(0, 2, 0)), service.item(1L, "I-1"));
+    }
+
+    @Test
+    void staleSubmissionChangesNothing() {
+        service.recover();
+        service.write(List.of(submission(7L, 1, T0.plusSeconds(60))));
+
+        service.write(List.of(submission(7L, 2, T0)));
+
+        assertEquals(List.of(aggregate(1, 0, 0)), service.item(1L, "I-1"));
+    }
+
+    @Test
+    void recoversFromCheckpointPlusRecount() {
+        watermarks.saveWatermark(EventCounterDao.EVENT_COUNTERS, WATERMARK);
+        checkpoint.add(new TenantAggregate(1L, new MetricAggregate("I-1", "D001", 5, 0, 0)));
+        checkpoint.add(new TenantAggregate(1L, new MetricAggregate("I-2", "D001", 3, 3, 0)));
+        recount.add(new Recount(Timestamp.from(T0.plusSeconds(5)),
+                new TenantAggregate(1L, new MetricAggregate("I-2", "D001", 4, 3, 0))));
+
+        service.recover();
+
+        assertEquals(List.of(new MetricAggregate("I-1", "D001", 5, 0, 0)), service.item(1L, "I-1"));
+        assertEquals(List.of(new MetricAggregate("I-2", "D001", 4, 3, 0)), service.item(1L, "I-2"));
+        // Only the recounted key differs from the stored checkpoint
+        watermarks.latest = WATERMARK;
+        assertEquals(1, service.checkpoint());
+    }
+
+    @Test
+    void writeInTheWatermarkSecondSurvivesRecovery() {
+        // The checkpoint saw the newest update at T0, then a flush in the same
+        // second stored the same updated_at before the process died
+        watermarks.saveWatermark(EventCounterDao.EVENT_COUNTERS, WATERMARK);
+        checkpoint.add(new TenantAggregate(1L, aggregate(1, 0, 0)));
+        recount.add(new Recount(WATERMARK, new TenantAggregate(1L, aggregate(2, 0, 0))));
+        recount.add(new Recount(Timestamp.from(T0.minus(properties.getCounters().getRecountMargin())),
+                new TenantAggregate(1L, new MetricAggregate("I-2", "D001", 9, 0, 0))));
+
+        service.recover();
+
+        assertEquals(List.of(aggregate(2, 0, 0)), service.item(1L, "I-1"));
+        // Older than the margin: trusted to the checkpoint
+        assertTrue(service.item(1L, "I-2").isEmpty());
+    }
+
+    @Test
+    void checkpointWritesChangedKeysOnceAndRetriesThemAfterFailure() {
+        service.recover();
+        service.write(List.of(submission(7L, 1, T0)));
+        watermarks.latest = WATERMARK;
+
+        failCheckpoint = true;
+        assertThrows(IllegalStateException.class, service::checkpoint);
+        assertEquals(null, watermarks.findWatermark(EventCounterDao.EVENT_COUNTERS));
+
+        failCheckpoint = false;
+        assertEquals(1, service.checkpoint());
+        assertEquals(0, service.checkpoint());
+        assertEquals(WATERMARK, watermarks.findWatermark(EventCounterDao.EVENT_COUNTERS));
+        assertEquals(List.of(new TenantAggregate(1L, aggregate(1, 0, 0))), checkpoint);
+    }
+
+    @Test
+    void countsOnlyOnceReady() {
+        service.write(List.of(submission(7L, 1, T0)));
+
+        assertTrue(service.item(1L, "I-1").isEmpty());
+        assertEquals(1, events.rows.size());
+    }
+
+    private static EventSubmission submission(Long sourceId, int status, Instant lastSeen) {
+        return new EventSubmission(sourceId, "I-1", "D001", 1L, status, lastSeen);
+    }
+
+    private static MetricAggregate aggregate(long passed, long failed, long error) {
+        return new MetricAggregate("I-1", "D001", passed, failed, error);
+    }
+
+    /** A recount row with the newest updated_at among its events. */
+    private record Recount(Timestamp updatedAt, TenantAggregate entry) {
+    }
+
+    /** entity_event reduced to the upsert key and the MERGE rule. */
+    private static class InMemoryEvents extends EventIngestDao {
+
+        final Map<EventSubmission.Key, EventSubmission> rows = new HashMap<>();
+
+        InMemoryEvents() {
+            super(null, SqlDialect.H2);
+        }
+
+        @Override
+        public void upsert(List<EventSubmission> submissions) {
+            for (EventSubmission s : submissions) {
+                rows.merge(s.key(), s, (stored, next) ->
+                        stored.lastSeenTime().isAfter(next.lastSeenTime()) ? stored : next);
+            }
+        }
+    }
+
+    private static class InMemoryWatermarks extends RollupDao {
+
+        final Map<String, Timestamp> saved = new HashMap<>();
+        Timestamp latest;
+
+        InMemoryWatermarks() {
+            super(null, SqlDialect.H2);
+        }
+
+        @Override
+        public Timestamp findWatermark(String rollupName) {
+            return saved.get(rollupName);
+        }
+
+        @Override
+        public void saveWatermark(String rollupName, Timestamp watermark) {
+            saved.put(rollupName, watermark);
+        }
+
+        @Override
+        public Timestamp findLatestEventUpdate(Timestamp since) {
+            return latest;
+        }
+    }
+
+    private class FakeCounterDao extends EventCounterDao {
+
+        FakeCounterDao(ReportMetrics metrics) {
+            super(null, metrics, SqlDialect.H2);
+        }
+
+        @Override
+        public Map<EventSubmission.Key, StoredStatus> findCurrentStatuses(List<EventSubmission> submissions) {
+            Map<EventSubmission.Key, StoredStatus> statuses = new HashMap<>();
+            for (EventSubmission s : submissions) {
+                EventSubmission stored = events.rows.get(s.key());
+                if (stored != null) {
+                    statuses.put(s.key(), new StoredStatus(stored.status(), stored.lastSeenTime()));
+                }
+            }
+            return statuses;
+        }
+
+        @Override
+        public void forEachCheckpointed(Consumer<TenantAggregate> action) {
+            checkpoint.forEach(action);
+        }
+
+        @Override
+        public void forEachRecount(Timestamp since, Consumer<TenantAggregate> action) {
+            // Same filter as RECOUNT_CHANGED_SQL: updated_at > since
+            for (Recount r : recount) {
+                if (since == null || r.updatedAt().after(since)) {
+                    action.accept(r.entry());
+                }
+            }
+        }
+
+        @Override
+        public void saveCheckpoint(List<TenantAggregate> entries) {
+            if (failCheckpoint) {
+                throw new IllegalStateException("database down");
+            }
+            checkpoint.addAll(entries);
+        }
+    }
+}
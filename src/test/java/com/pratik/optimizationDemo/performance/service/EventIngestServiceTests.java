@@ -0,0 +1,204 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.EventIngestDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.EventSubmission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventIngestServiceTests {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReportProperties properties = new ReportProperties();
+    private final List<List<EventSubmission>> flushes = new CopyOnWriteArrayList<>();
+    private EventIngestService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null && service.isRunning()) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void flushesFullBatchesAndTheRemainderAfterTheInterval() {
+        properties.getIngest().setBatchSize(100);
+        properties.getIngest().setFlushInterval(Duration.ofMillis(50));
+        service = start(new CapturingDao(null));
+
+        service.submit(submissions(250));
+        service.stop();
+
+        assertEquals(List.of(100, 100, 50), flushes.stream().map(List::size).toList());
+        assertEquals(0, service.buffered());
+        assertEquals(250, registry.counter("ingest.events", "outcome", "written").count());
+    }
+
+    @Test
+    void coalescesToTheMostRecentSubmissionPerKey() {
+        List<EventSubmission> batch = List.of(
+                new EventSubmission(1L, "I-1", "D001", 1L, 1, T0.plusSeconds(10)),
+                new EventSubmission(1L, "I-2", "D001", 1L, 1, T0),
+                new EventSubmission(1L, "I-1", "D001", 1L, 0, T0),
+                new EventSubmission(1L, "I-1", "D001", 1L, 2, T0.plusSeconds(20)),
+                new EventSubmission(2L, "I-1", "D001", 1L, 0, T0));
+
+        List<EventSubmission> rows = EventIngestService.coalesce(batch);
+
+        assertEquals(List.of(batch.get(3), batch.get(1), batch.get(4)), rows);
+    }
+
+    @Test
+    void rejectsWholeRequestWhenQueueIsFull() throws InterruptedException {
+        properties.getIngest().setQueueCapacity(10);
+        properties.getIngest().setBatchSize(10);
+        properties.getIngest().setFlushInterval(Duration.ofMillis(10));
+        CountDownLatch release = new CountDownLatch(1);
+        service = start(new CapturingDao(release));
+
+        service.submit(submissions(8));
+        assertThrows(IngestQueueFullException.class, () -> service.submit(submissions(3)));
+        assertEquals(3, registry.counter("ingest.events", "outcome", "rejected").count());
+
+        // Room comes back once the blocked flush is written
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.buffered() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, service.submit(submissions(3)));
+    }
+
+    @Test
+    void validatesBeforeAcceptingAnything() {
+        service = start(new CapturingDao(null));
+        List<EventSubmission> request = new ArrayList<>(submissions(3));
+        request.add(new EventSubmission(1L, "I-9", "D001", 1L, 7, T0));
+
+        assertThrows(InvalidEventSubmissionException.class, () -> service.submit(request));
+        assertEquals(0, service.buffered());
+    }
+
+    @Test
+    void rejectsSubmissionWithoutStatus() {
+        service = start(new CapturingDao(null));
+
+        assertThrows(InvalidEventSubmissionException.class, () -> service.submit(
+                List.of(new EventSubmission(1L, "I-9", "D001", 1L, null, T0))));
+        assertEquals(0, service.buffered());
+    }
+
+    @Test
+    void flusherSurvivesAnError() throws InterruptedException {
+        properties.getIngest().setFlushInterval(Duration.ofMillis(10));
+        AtomicInteger upserts = new AtomicInteger();
+        service = start(new CapturingDao(null) {
+            @Override
+            public void upsert(List<EventSubmission> submissions) {
+                if (upserts.incrementAndGet() == 1) {
+                    throw new StackOverflowError();
+                }
+                super.upsert(submissions);
+            }
+        });
+
+        service.submit(submissions(3));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.buffered() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, service.buffered());
+        assertEquals(3, registry.counter("ingest.events", "outcome", "dropped").count());
+
+        service.submit(submissions(2));
+        service.stop();
+
+        assertEquals(List.of(2), flushes.stream().map(List::size).toList());
+    }
+
+    @Test
+    void dropsBatchAfterLastFailedAttempt() {
+        properties.getIngest().setMaxAttempts(2);
+        properties.getIngest().setRetryBackoff(Duration.ofMillis(1));
+        service = new EventIngestService(new EventIngestDao(null, SqlDialect.H2) {
+            @Override
+            public void upsert(List<EventSubmission> submissions) {
+                throw new IllegalStateException("database down");
+            }
+        }, counters(), new ReportMetrics(registry, properties), properties);
+
+        service.flush(submissions(5));
+
+        assertEquals(2, registry.timer("ingest.flush", "outcome", "failure").count());
+        assertEquals(5, registry.counter("ingest.events", "outcome", "dropped").count());
+    }
+
+    @Test
+    void refusesSubmissionsWhenStopped() {
+        service = new EventIngestService(new CapturingDao(null), counters(), new ReportMetrics(registry, properties), properties);
+
+        assertThrows(IngestUnavailableException.class, () -> service.submit(submissions(1)));
+        assertTrue(flushes.isEmpty());
+    }
+
+    private EventIngestService start(EventIngestDao dao) {
+        EventIngestService started = new EventIngestService(dao, counters(), new ReportMetrics(registry, properties), properties);
+        started.start();
+        return started;
+    }
+
+    /** Counters disabled: flushes go straight to the DAO. */
+    private EventCounterService counters() {
+        return new EventCounterService(null, null, null, new ReportMetrics(registry, properties), properties,
+                TransactionOperations.withoutTransaction());
+    }
+
+    private static List<EventSubmission> submissions(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new EventSubmission(1L, String.format("I-%05d", i), "D001", 1L, 1, T0))
+                .toList();
+    }
+
+    /** Records flushed batches; optionally blocks each flush until released. */
+    private class CapturingDao extends EventIngestDao {
+
+        private final CountDownLatch release;
+
+        CapturingDao(CountDownLatch release) {
+            super(null, SqlDialect.H2);
+            this.release = release;
+        }
+
+        @Override
+        public void upsert(List<EventSubmission> submissions) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            flushes.add(List.copyOf(submissions));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.ColumnarAggregates;
+import com.pratik.optimizationDemo.performance.model.KeysetPage;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TrendBatch;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves {@code items} synthetic items (I-00000, I-00001, ...) with one
+ * dimension each, honoring the keyset cursor. No database involved.
+ * Items for which {@link #hasEvents} is false are in the catalog but have
+ * no aggregates, like items a tenant never reported on.
+ * For trends, only even-numbered items have events: one bucket at {@code from}.
+ * Split points cut the items into equal slices, like NTILE.
+ */
+class FakeReportDao extends ReportDao {
+
+    private final int items;
+
+    FakeReportDao(ReportMetrics metrics, int items) {
+        super(null, metrics, IdentifierDictionaries.disabled(), SqlDialect.H2, SlowQueryLog.disabled());
+        this.items = items;
+    }
+
+    /**
+     * @return whether item {@code i} has events; all items do by default
+     */
+    boolean hasEvents(int i) {
+        return true;
+    }
+
+    @Override
+    public AggregateBatch fetchAggregatesOptimized(
+            Long tenantId, String groupId, String lastSeenId, int limit) {
+        return page(lastSeenId, items, limit);
+    }
+
+    @Override
+    public KeysetPage fetchAggregatesOptimizedInto(
+            Long tenantId, String groupId, String lastSeenId, int limit, ColumnarAggregates target) {
+        AggregateBatch batch = page(lastSeenId, items, limit);
+        batch.rows().forEach(target::add);
+        return new KeysetPage(batch.itemCount(), batch.lastItemId());
+    }
+
+    @Override
+    public AggregateBatch fetchAggregatesInRange(
+            Long tenantId, String groupId, String lastSeenId, String upperBound, int limit) {
+        return page(lastSeenId, Math.min(items, Integer.parseInt(upperBound.substring(2)) + 1), limit);
+    }
+
+    @Override
+    public List<String> findSplitPoints(String groupId, int partitions) {
+        List<String> splitPoints = new ArrayList<>();
+        for (int bucket = 1; bucket <= Math.min(items, partitions); bucket++) {
+            int end = (int) Math.ceil((double) items * bucket / Math.min(items, partitions));
+            splitPoints.add(String.format("I-%05d", end - 1));
+        }
+        return splitPoints;
+    }
+
+    @Override
+    public TrendBatch fetchTrendBuckets(
+            Long tenantId, String groupId, TrendGranularity granularity,
+            Timestamp from, Timestamp to, String lastSeenId, int limit) {
+        int start = lastSeenId.isEmpty() ? 0 : Integer.parseInt(lastSeenId.substring(2)) + 1;
+        int end = Math.min(items, start + limit);
+        List<TrendBucket> buckets = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            if (i % 2 == 0) {
+                buckets.add(new TrendBucket(String.format("I-%05d", i), "D001", from.toLocalDateTime(), 1, 0, 0));
+            }
+        }
+        return new TrendBatch(buckets, end - start, end > start ? String.format("I-%05d", end - 1) : null);
+    }
+
+    @Override
+    public long getItemCount(String groupId) {
+        return items;
+    }
+
+    /**
+     * Items after {@code lastSeenId} and before {@code endExclusive}, at most {@code limit}.
+     */
+    private AggregateBatch page(String lastSeenId, int endExclusive, int limit) {
+        int start = lastSeenId.isEmpty() ? 0 : Integer.parseInt(lastSeenId.substring(2)) + 1;
+        int end = Math.min(endExclusive, start + limit);
+        List<MetricAggregate> rows = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            if (hasEvents(i)) {
+                rows.add(new MetricAggregate(String.format("I-%05d", i), "D001", i, 1, 0));
+            }
+        }
+        return new AggregateBatch(rows, Math.max(0, end - start), end > start ? String.format("I-%05d", end - 1) : null);
+    }
+}
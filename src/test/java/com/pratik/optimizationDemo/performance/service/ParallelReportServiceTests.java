@@ -0,0 +1,100 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelReportServiceTests {
+
+    private static final int ITEMS = 2_500;
+    // Does not divide the range sizes, so every range ends on a partial batch
+    private static final int BATCH_SIZE = 300;
+
+    private ThreadPoolTaskExecutor workers;
+    private SimpleMeterRegistry registry;
+    private ReportService reportService;
+    private ParallelReportService parallelReportService;
+
+    @BeforeEach
+    void setUp() {
+        workers = new ThreadPoolTaskExecutor();
+        workers.setCorePoolSize(4);
+        workers.initialize();
+
+        ReportProperties properties = new ReportProperties();
+        properties.getParallel().setPartitions(4);
+        properties.getParallel().setMinItemsPerPartition(100);
+        registry = new SimpleMeterRegistry();
+        ReportMetrics metrics = new ReportMetrics(registry, properties);
+        FakeReportDao dao = new FakeReportDao(metrics, ITEMS);
+
+        reportService = new ReportService(dao, properties, null, metrics);
+        parallelReportService = new ParallelReportService(dao, reportService, properties, workers, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdown();
+    }
+
+    @Test
+    void parallelReportMatchesSerialReport() {
+        List<MetricAggregate> serial = reportService.generateReport(1L, "G001", BATCH_SIZE);
+        registry.clear();
+
+        List<MetricAggregate> parallel = parallelReportService.generateReport(1L, "G001", BATCH_SIZE);
+
+        assertEquals(ITEMS, parallel.size());
+        assertEquals(serial, parallel);
+        // 625 items per range: 3 batches each, the last one partial
+        assertEquals(4 * 3, registry.get("report.batch.rows").summary().count());
+        assertEquals(ITEMS, registry.get("report.batch.rows").summary().totalAmount());
+    }
+
+    @Test
+    void sparseRangesMatchSerialReport() {
+        ReportProperties properties = new ReportProperties();
+        properties.getParallel().setPartitions(4);
+        properties.getParallel().setMinItemsPerPartition(100);
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), properties);
+        FakeReportDao dao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            boolean hasEvents(int i) {
+                // The first batch of every range is mostly items without events
+                return i % 625 >= BATCH_SIZE || i % 7 == 0;
+            }
+        };
+        ReportService serial = new ReportService(dao, properties, null, metrics);
+        ParallelReportService parallel = new ParallelReportService(dao, serial, properties, workers, metrics);
+
+        List<MetricAggregate> expected = serial.generateReport(1L, "G001", BATCH_SIZE);
+
+        assertEquals(expected, parallel.generateReport(1L, "G001", BATCH_SIZE));
+        assertEquals("I-02499", expected.get(expected.size() - 1).getItemId());
+    }
+
+    @Test
+    void smallGroupUsesSerialLoop() {
+        ReportProperties properties = new ReportProperties();
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), properties);
+        FakeReportDao dao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public List<String> findSplitPoints(String groupId, int partitions) {
+                throw new AssertionError("A group below min-items-per-partition must not be split");
+            }
+        };
+        ReportService serial = new ReportService(dao, properties, null, metrics);
+        ParallelReportService parallel = new ParallelReportService(dao, serial, properties, workers, metrics);
+
+        assertEquals(ITEMS, parallel.generateReport(1L, "G001", BATCH_SIZE).size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.IdentifierDictionaries;
+import com.pratik.optimizationDemo.performance.dao.QueryPlanDao;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.metrics.SlowQueryLog;
+import com.pratik.optimizationDemo.performance.model.QueryPlanCheck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanServiceTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReportProperties properties = new ReportProperties();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private QueryPlanService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:plans", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("dialect-schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        ReportMetrics metrics = new ReportMetrics(registry, properties);
+        ReportDao reportDao = new ReportDao(jdbc, metrics, IdentifierDictionaries.disabled(), SqlDialect.H2, SlowQueryLog.disabled());
+        service = new QueryPlanService(reportDao, new QueryPlanDao(jdbc, SqlDialect.H2), metrics, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void flagsOptimizedQueryWhenIndexIsDropped() {
+        Map<String, QueryPlanCheck> first = byQuery(service.capture());
+        assertEquals(3, first.size());
+        assertTrue(first.get("optimized").plan().usesTenantItemIndex());
+        assertNull(first.get("optimized").regression());
+        assertEquals(0, regressed("optimized"));
+
+        jdbc.execute("DROP INDEX idx_entity_event_tenant_item");
+        Map<String, QueryPlanCheck> second = byQuery(service.capture());
+
+        // H2 falls back to the tenant_id prefix of uk_entity_event_source
+        QueryPlanCheck optimized = second.get("optimized");
+        assertTrue(optimized.changed());
+        assertFalse(optimized.plan().usesTenantItemIndex());
+        assertEquals("no longer uses idx_entity_event_tenant_item", optimized.regression());
+        assertEquals(1, regressed("optimized"));
+        assertEquals(1, registry.get("report.plan.regressions").tag("query", "optimized").counter().count());
+        assertFalse(second.get("item_count").changed());
+        assertNull(second.get("item_count").regression());
+
+        // Without any tenant_id index the probe becomes a full scan; still
+        // one regression, not a second alert
+        jdbc.execute("ALTER TABLE entity_event DROP CONSTRAINT uk_entity_event_source");
+        QueryPlanCheck scanned = byQuery(service.capture()).get("optimized");
+        assertTrue(scanned.plan().fullScanOnEvents());
+        assertEquals("full scan on entity_event", scanned.regression());
+        assertEquals(1, registry.get("report.plan.regressions").tag("query", "optimized").counter().count());
+
+        jdbc.execute("CREATE INDEX idx_entity_event_tenant_item ON entity_event (tenant_id, item_id)");
+        assertNull(byQuery(service.capture()).get("optimized").regression());
+        assertEquals(0, regressed("optimized"));
+    }
+
+    private double regressed(String query) {
+        return registry.get("report.plan.regressed").tag("query", query).gauge().value();
+    }
+
+    private static Map<String, QueryPlanCheck> byQuery(List<QueryPlanCheck> checks) {
+        return checks.stream().collect(Collectors.toMap(check -> check.plan().query(), check -> check));
+    }
+}
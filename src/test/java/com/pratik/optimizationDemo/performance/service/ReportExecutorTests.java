@@ -0,0 +1,141 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.QueryContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportExecutorTests {
+
+    @Test
+    void workRunsUnderTheGivenContextInBothModes() {
+        for (ReportProperties.Execution.Mode mode : ReportProperties.Execution.Mode.values()) {
+            ReportExecutor executor = executor(mode);
+
+            assertEquals("report/optimized tenant=1 group=G",
+                    executor.submit("report/optimized tenant=1 group=G", QueryContext::current).join(), mode.name());
+            assertEquals("report/stream tenant=1 group=G",
+                    executor.call("report/stream tenant=1 group=G", QueryContext::current), mode.name());
+            assertNull(QueryContext.current(), mode.name());
+        }
+    }
+
+    @Test
+    void submitCarriesTheCallersContext() {
+        for (ReportProperties.Execution.Mode mode : ReportProperties.Execution.Mode.values()) {
+            ReportExecutor executor = executor(mode);
+
+            try (QueryContext.Scope ignored = QueryContext.open("job 7")) {
+                assertEquals("job 7", executor.submit(QueryContext::current).join(), mode.name());
+                assertEquals("job 7", executor.call(QueryContext::current), mode.name());
+            }
+            assertNull(QueryContext.current(), mode.name());
+        }
+    }
+
+    @Test
+    void exhaustedPermitsFailAfterTheAcquireTimeout() throws Exception {
+        ReportProperties properties = new ReportProperties();
+        properties.getExecution().setMaxConcurrentDbWork(1);
+        properties.getExecution().setAcquireTimeout(Duration.ofMillis(50));
+        ReportExecutor platform = new ReportExecutor(properties);
+        properties.getExecution().setMode(ReportProperties.Execution.Mode.VIRTUAL);
+        ReportExecutor virtual = new ReportExecutor(properties, SimpleAsyncTaskExecutor::new);
+
+        for (ReportExecutor executor : List.of(platform, virtual)) {
+            CountDownLatch holding = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread holder = new Thread(() -> executor.call(() -> {
+                holding.countDown();
+                return await(release);
+            }));
+            holder.start();
+            assertTrue(holding.await(10, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(ReportCapacityExceededException.class, () -> executor.call(() -> "late"));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertEquals(1, executor.activeDbWork());
+
+            release.countDown();
+            holder.join(10_000);
+            assertEquals(0, executor.activeDbWork());
+        }
+
+        // VIRTUAL mode reports the rejection through the future
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> held = virtual.submit(() -> await(release));
+        for (int i = 0; i < 500 && virtual.activeDbWork() == 0; i++) {
+            Thread.sleep(10);
+        }
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> virtual.submit(() -> "late").join());
+        assertInstanceOf(ReportCapacityExceededException.class, rejected.getCause());
+        release.countDown();
+        assertTrue(held.join());
+    }
+
+    @Test
+    void permitIsReleasedWhenTheWorkThrows() {
+        ReportProperties properties = new ReportProperties();
+        properties.getExecution().setMaxConcurrentDbWork(1);
+        properties.getExecution().setAcquireTimeout(Duration.ofMillis(50));
+        ReportExecutor executor = new ReportExecutor(properties);
+
+        assertThrows(IllegalStateException.class, () -> executor.call(() -> {
+            throw new IllegalStateException("query failed");
+        }));
+        // PLATFORM mode runs submitted work on the caller, so this throws directly
+        assertThrows(StackOverflowError.class, () -> executor.submit(() -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(0, executor.activeDbWork());
+        assertEquals("next", executor.call(() -> "next"));
+    }
+
+    @Test
+    void virtualModeFallsBackToPlatformWithoutVirtualThreads() {
+        ReportProperties properties = new ReportProperties();
+        properties.getExecution().setMode(ReportProperties.Execution.Mode.VIRTUAL);
+        ReportExecutor executor = new ReportExecutor(properties, () -> {
+            // What VirtualThreadTaskExecutor does before Java 21
+            throw new UnsupportedOperationException("Virtual threads not supported");
+        });
+
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> ranOn = executor.submit(Thread::currentThread);
+
+        assertTrue(ranOn.isDone());
+        assertSame(caller, ranOn.join());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ReportExecutor executor(ReportProperties.Execution.Mode mode) {
+        ReportProperties properties = new ReportProperties();
+        properties.getExecution().setMode(mode);
+        return new ReportExecutor(properties);
+    }
+}
@@ -0,0 +1,316 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.export.ReportFormat;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportJobServiceTests {
+
+    private static final int ITEMS = 2_500;
+
+    @TempDir
+    Path spoolDir;
+
+    @TempDir
+    Path checkpointDir;
+
+    // Fetch number that fails once, simulating a dropped connection; 0 = never
+    private final AtomicInteger failAtFetch = new AtomicInteger();
+    private final AtomicInteger fetches = new AtomicInteger();
+    // Fetch number that dies with an Error once; 0 = never
+    private final AtomicInteger errorAtFetch = new AtomicInteger();
+    // Holds every fetch until released, to keep the single worker busy
+    private final CountDownLatch fetchesReleased = new CountDownLatch(1);
+    private volatile boolean holdFetches;
+    // Holds the worker in estimateBatchCount, after run() has the job
+    private final CountDownLatch counting = new CountDownLatch(1);
+    private final CountDownLatch countReleased = new CountDownLatch(1);
+    private volatile boolean holdItemCount;
+
+    // Names of the threads the report queries ran on
+    private final Set<String> fetchThreads = ConcurrentHashMap.newKeySet();
+
+    private ReportProperties properties;
+    private SimpleMeterRegistry registry;
+    private ThreadPoolTaskExecutor jobExecutor;
+    private ReportJobService jobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new ReportProperties();
+        properties.getJobs().setSpoolDir(spoolDir.toString());
+        properties.getCheckpoint().setDir(checkpointDir.toString());
+        properties.getCheckpoint().setEveryBatches(2);
+
+        jobExecutor = new ThreadPoolTaskExecutor();
+        jobExecutor.setCorePoolSize(1);
+        jobExecutor.setQueueCapacity(1);
+        jobExecutor.initialize();
+
+        registry = new SimpleMeterRegistry();
+        jobService = jobService();
+    }
+
+    private ReportJobService jobService() throws IOException {
+        ReportMetrics metrics = new ReportMetrics(registry, properties);
+        FakeReportDao dao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                fetchThreads.add(Thread.currentThread().getName());
+                if (holdFetches) {
+                    awaitRelease();
+                }
+                int fetch = fetches.incrementAndGet();
+                if (fetch == failAtFetch.get()) {
+                    throw new DataAccessResourceFailureException("Connection reset");
+                }
+                if (fetch == errorAtFetch.get()) {
+                    throw new StackOverflowError();
+                }
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+
+            @Override
+            public long getItemCount(String groupId) {
+                if (holdItemCount) {
+                    counting.countDown();
+                    awaitQuietly(countReleased);
+                }
+                return super.getItemCount(groupId);
+            }
+        };
+        ReportService reportService = new ReportService(
+                dao, properties, new SimpleAsyncTaskExecutor("report-prefetch-"), metrics);
+        ResumableReportService resumable = new ResumableReportService(
+                reportService, new ReportCheckpointStore(properties), properties);
+        return new ReportJobService(
+                reportService, resumable, new ReportExecutor(properties), jobExecutor, metrics, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchesReleased.countDown();
+        countReleased.countDown();
+        jobExecutor.shutdown();
+    }
+
+    @Test
+    void completedJobSpoolsTheWholeReport() throws Exception {
+        ReportJob job = jobService.submit(1L, "G001", 1_000, ReportFormat.NDJSON);
+        awaitFinished(job);
+
+        assertEquals(ReportJob.State.COMPLETED, job.getState());
+        assertEquals(3, job.getEstimatedBatches());
+        assertEquals(ITEMS, job.getRecords());
+        assertEquals(100, job.getProgressPercent());
+
+        Path file = jobService.resultFile(job.getId());
+        assertNotNull(file);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(ITEMS, lines.size());
+        assertEquals(job.getResultBytes(), Files.size(file));
+    }
+
+    @Test
+    void jobFetchesAheadOnThePrefetchPipeline() throws Exception {
+        ReportJob job = jobService.submit(1L, "G001", 100, ReportFormat.NDJSON);
+        awaitFinished(job);
+
+        assertEquals(ITEMS, Files.readAllLines(jobService.resultFile(job.getId())).size());
+        assertFalse(fetchThreads.isEmpty());
+        assertTrue(fetchThreads.stream().allMatch(name -> name.startsWith("report-prefetch-")),
+                fetchThreads::toString);
+    }
+
+    @Test
+    void jobWithoutPrefetchDepthRunsTheSerialLoop() throws Exception {
+        properties.getPrefetch().setDepth(0);
+        jobService = jobService();
+
+        ReportJob job = jobService.submit(1L, "G001", 100, ReportFormat.NDJSON);
+        awaitFinished(job);
+
+        assertEquals(ITEMS, Files.readAllLines(jobService.resultFile(job.getId())).size());
+        assertFalse(fetchThreads.isEmpty());
+        assertTrue(fetchThreads.stream().noneMatch(name -> name.startsWith("report-prefetch-")),
+                fetchThreads::toString);
+    }
+
+    @Test
+    void failedJobResumesFromItsLastCheckpoint() throws Exception {
+        // 100-item batches, checkpoint every 2: batches 1-4 are committed,
+        // batch 5 is written but not committed, fetch 6 fails
+        failAtFetch.set(6);
+        ReportJob job = jobService.submit(1L, "G001", 100, ReportFormat.CSV);
+        awaitFinished(job, ReportJob.State.FAILED);
+
+        jobService.resume(job.getId());
+        awaitFinished(job, ReportJob.State.COMPLETED);
+
+        List<String> lines = Files.readAllLines(jobService.resultFile(job.getId()));
+        assertEquals(ITEMS + 1, lines.size());
+        assertEquals("item_id,dimension_id,passed,failed,error,pass_rate", lines.get(0));
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals(String.format("I-%05d", i), lines.get(i + 1).split(",")[0]);
+        }
+        assertEquals(ITEMS, job.getRecords());
+        // 5 successful fetches + 1 failure, then batches 5..25 plus the final empty fetch
+        assertEquals(6 + 22, fetches.get());
+    }
+
+    @Test
+    void concurrentResumesRunTheJobOnce() throws Exception {
+        failAtFetch.set(1);
+        ReportJob job = jobService.submit(1L, "G001", 1_000, ReportFormat.NDJSON);
+        awaitFinished(job, ReportJob.State.FAILED);
+
+        // Keep the resumed job from finishing, so it cannot fail again and
+        // become resumable a second time
+        holdFetches = true;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger resumed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread caller = new Thread(() -> {
+                awaitQuietly(start);
+                try {
+                    jobService.resume(job.getId());
+                    resumed.incrementAndGet();
+                } catch (ReportJobStateException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        start.countDown();
+        for (Thread caller : callers) {
+            caller.join(10_000);
+        }
+
+        assertEquals(1, resumed.get());
+        assertEquals(3, rejected.get());
+
+        holdFetches = false;
+        fetchesReleased.countDown();
+        awaitFinished(job);
+        assertEquals(ITEMS, Files.readAllLines(jobService.resultFile(job.getId())).size());
+    }
+
+    @Test
+    void jobKilledByAnErrorFailsAndCanBeResumed() throws Exception {
+        errorAtFetch.set(2);
+        ReportJob job = jobService.submit(1L, "G001", 1_000, ReportFormat.NDJSON);
+        awaitFinished(job, ReportJob.State.FAILED);
+        assertNotNull(job.getError());
+        assertEquals(1, registry.get("report.jobs").tag("outcome", "failed").counter().count());
+
+        jobService.resume(job.getId());
+        awaitFinished(job);
+        assertEquals(ITEMS, Files.readAllLines(jobService.resultFile(job.getId())).size());
+    }
+
+    @Test
+    void cancellingAQueuedJobCountsIt() throws Exception {
+        holdFetches = true;
+        ReportJob running = jobService.submit(1L, "G001", 1_000, ReportFormat.NDJSON);
+        ReportJob queued = jobService.submit(1L, "G002", 1_000, ReportFormat.NDJSON);
+
+        jobService.cancel(queued.getId());
+
+        assertEquals(ReportJob.State.CANCELLED, queued.getState());
+        assertEquals(1, registry.get("report.jobs").tag("outcome", "cancelled").counter().count());
+
+        holdFetches = false;
+        fetchesReleased.countDown();
+        awaitFinished(running);
+        assertEquals(1, registry.get("report.jobs").tag("outcome", "cancelled").counter().count());
+    }
+
+    @Test
+    void cancelRacingTheWorkerStartIsCountedOnce() throws Exception {
+        holdItemCount = true;
+        ReportJob job = jobService.submit(1L, "G001", 1_000, ReportFormat.NDJSON);
+        awaitQuietly(counting);
+
+        // The worker owns the job although its FutureTask is still cancellable
+        jobService.cancel(job.getId());
+        assertEquals(ReportJob.State.RUNNING, job.getState());
+
+        countReleased.countDown();
+        awaitFinished(job, ReportJob.State.CANCELLED);
+        assertEquals(1, registry.get("report.jobs").tag("outcome", "cancelled").counter().count());
+        assertEquals(false, Files.exists(job.resultFile()));
+    }
+
+    @Test
+    void deletingAFinishedJobRemovesItsFile() throws Exception {
+        ReportJob job = jobService.submit(1L, "G001", 1_000, ReportFormat.CSV);
+        awaitFinished(job);
+        Path file = jobService.resultFile(job.getId());
+
+        jobService.cancel(job.getId());
+
+        assertEquals(false, Files.exists(file));
+        assertThrows(ReportJobNotFoundException.class, () -> jobService.get(job.getId()));
+    }
+
+    @Test
+    void resultIsUnavailableForUnknownJobs() {
+        assertThrows(ReportJobNotFoundException.class, () -> jobService.resultFile("missing"));
+    }
+
+    private void awaitRelease() {
+        awaitQuietly(fetchesReleased);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitFinished(ReportJob job) throws InterruptedException {
+        awaitFinished(job, ReportJob.State.COMPLETED);
+        assertNull(job.getError());
+    }
+
+    private static void awaitFinished(ReportJob job, ReportJob.State expected) throws InterruptedException {
+        for (int i = 0; i < 500 && !job.getState().isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, job.getState());
+    }
+}
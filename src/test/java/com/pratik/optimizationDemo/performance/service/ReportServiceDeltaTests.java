@@ -0,0 +1,205 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.DeltaReport;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportServiceDeltaTests {
+
+    private static final Instant T1 = Instant.parse("2026-03-01T10:00:00Z");
+    private static final Instant T2 = Instant.parse("2026-03-01T11:00:00Z");
+    private static final Instant T3 = Instant.parse("2026-03-01T12:00:00Z");
+    // Default report.delta.recount-margin
+    private static final Duration MARGIN = Duration.ofSeconds(30);
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+
+    @Test
+    void nothingChangedReturnsTheSameWatermarkWithoutPaging() {
+        EventLog events = new EventLog();
+        events.add("I-1", "D1", T1);
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", T2, 100);
+
+        assertEquals(new DeltaReport(T2, T2, List.of()), delta);
+        assertEquals(0, events.pages.size());
+    }
+
+    @Test
+    void tenantWithoutEventsReturnsAnEmptyInitialDelta() {
+        EventLog events = new EventLog();
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", null, 100);
+
+        assertEquals(new DeltaReport(null, null, List.of()), delta);
+        assertEquals(0, events.pages.size());
+    }
+
+    @Test
+    void nullSinceReturnsEveryPair() {
+        EventLog events = new EventLog();
+        events.add("I-1", "D1", T1);
+        events.add("I-2", "D1", T2);
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", null, 100);
+
+        assertNull(delta.since());
+        assertEquals(T2.minus(MARGIN), delta.watermark());
+        assertEquals(List.of("I-1", "I-2"), itemIds(delta));
+        assertEquals(Timestamp.from(Instant.EPOCH), events.pages.get(0).since());
+    }
+
+    @Test
+    void onlyPairsChangedAfterSinceAreReported() {
+        EventLog events = new EventLog();
+        events.add("I-1", "D1", T1);
+        events.add("I-2", "D1", T2);
+        events.add("I-3", "D1", T3);
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", T1, 100);
+
+        assertEquals(List.of("I-2", "I-3"), itemIds(delta));
+        assertEquals(T3.minus(MARGIN), delta.watermark());
+    }
+
+    @Test
+    void writeInTheWatermarkSecondIsReportedByTheNextDelta() {
+        EventLog events = new EventLog();
+        events.add("I-1", "D1", T2);
+        ReportService service = reportService(events);
+
+        DeltaReport first = service.generateDeltaReport(1L, "G001", null, 100);
+        // Same whole second as the newest change, committed after it was read
+        events.add("I-2", "D1", T2);
+        DeltaReport next = service.generateDeltaReport(1L, "G001", first.watermark(), 100);
+
+        assertEquals(List.of("I-1", "I-2"), itemIds(next));
+        assertEquals(first.watermark(), next.watermark());
+    }
+
+    @Test
+    void watermarkNeverMovesBeforeSince() {
+        EventLog events = new EventLog();
+        events.add("I-1", "D1", T2);
+        Instant since = T2.minusSeconds(10);
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", since, 100);
+
+        assertEquals(List.of("I-1"), itemIds(delta));
+        assertEquals(since, delta.watermark());
+    }
+
+    @Test
+    void upperBoundIsFixedBeforeTheFirstPage() {
+        EventLog events = new EventLog() {
+            @Override
+            public List<MetricAggregate> fetchChangedAggregates(
+                    Long tenantId, String groupId, Timestamp since, Timestamp upTo, String lastSeenId, int limit) {
+                List<MetricAggregate> page = super.fetchChangedAggregates(
+                        tenantId, groupId, since, upTo, lastSeenId, limit);
+                // A writer commits while the report is paging
+                if (pages.size() == 1) {
+                    add("I-9", "D1", T3);
+                }
+                return page;
+            }
+        };
+        for (int i = 1; i <= 5; i++) {
+            events.add("I-" + i, "D1", T2);
+        }
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", T1, 2);
+
+        assertEquals(List.of("I-1", "I-2", "I-3", "I-4", "I-5"), itemIds(delta));
+        assertEquals(T2.minus(MARGIN), delta.watermark());
+        assertTrue(events.pages.stream().allMatch(page -> page.upTo().equals(Timestamp.from(T2))));
+    }
+
+    @Test
+    void pagesEndOnItemCountNotRowCount() {
+        EventLog events = new EventLog();
+        for (int i = 1; i <= 5; i++) {
+            for (String dimension : List.of("D1", "D2", "D3")) {
+                events.add("I-" + i, dimension, T2);
+            }
+        }
+
+        DeltaReport delta = reportService(events).generateDeltaReport(1L, "G001", T1, 2);
+
+        assertEquals(15, delta.changes().size());
+        // 2 + 2 + 1 items; the partial third page ends the loop even though
+        // every page held more rows than batchSize
+        assertEquals(3, events.pages.size());
+    }
+
+    private ReportService reportService(EventLog events) {
+        return new ReportService(events, new ReportProperties(), null, metrics);
+    }
+
+    private static List<String> itemIds(DeltaReport delta) {
+        return delta.changes().stream().map(MetricAggregate::getItemId).distinct().toList();
+    }
+
+    private record Event(String itemId, String dimensionId, Timestamp updatedAt) {
+    }
+
+    private record Page(Timestamp since, Timestamp upTo, String lastSeenId) {
+    }
+
+    /**
+     * One tenant's events in memory; records the window of every page asked for.
+     */
+    private class EventLog extends FakeReportDao {
+
+        final List<Event> events = new ArrayList<>();
+        final List<Page> pages = new ArrayList<>();
+
+        EventLog() {
+            super(metrics, 0);
+        }
+
+        void add(String itemId, String dimensionId, Instant updatedAt) {
+            events.add(new Event(itemId, dimensionId, Timestamp.from(updatedAt)));
+        }
+
+        @Override
+        public Timestamp findLatestEventUpdate(Long tenantId) {
+            return events.stream().map(Event::updatedAt).max(Comparator.naturalOrder()).orElse(null);
+        }
+
+        @Override
+        public List<MetricAggregate> fetchChangedAggregates(
+                Long tenantId, String groupId, Timestamp since, Timestamp upTo, String lastSeenId, int limit) {
+            pages.add(new Page(since, upTo, lastSeenId));
+            Set<String> pageItems = events.stream()
+                    .filter(e -> e.updatedAt().after(since) && !e.updatedAt().after(upTo))
+                    .map(Event::itemId)
+                    .filter(itemId -> itemId.compareTo(lastSeenId) > 0)
+                    .distinct()
+                    .sorted()
+                    .limit(limit)
+                    .collect(Collectors.toSet());
+            return events.stream()
+                    .filter(e -> pageItems.contains(e.itemId()))
+                    .sorted(Comparator.comparing(Event::itemId).thenComparing(Event::dimensionId))
+                    .map(e -> new MetricAggregate(e.itemId(), e.dimensionId(), 1, 0, 0))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import com.pratik.optimizationDemo.performance.model.TenantBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportServiceMultiTenantTests {
+
+    private static final int ITEMS = 250;
+    private static final int BATCH_SIZE = 100;
+    // Tenants from here on have no events at all
+    private static final long SILENT_TENANTS = 2_000;
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+    private final TenantCatalog dao = new TenantCatalog();
+    private final ReportService reportService = new ReportService(dao, new ReportProperties(), null, metrics);
+
+    @Test
+    void manyTenantsAreScannedInChunksAndKeepTheRequestedOrder() {
+        List<Long> requested = new ArrayList<>();
+        for (long tenant = 1_500; tenant >= 1; tenant--) {
+            requested.add(tenant);
+        }
+        requested.add(700, 42L);
+        requested.add(1_500L);
+
+        Map<Long, List<MetricAggregate>> report =
+                reportService.generateReportForTenants(requested, "G001", BATCH_SIZE);
+
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(requested));
+        assertEquals(1_500, distinct.size());
+        assertEquals(distinct, List.copyOf(report.keySet()));
+        // One pass of 3 pages per chunk of at most MAX_TENANTS_PER_QUERY
+        List<Long> firstChunk = distinct.subList(0, ReportDao.MAX_TENANTS_PER_QUERY);
+        List<Long> secondChunk = distinct.subList(ReportDao.MAX_TENANTS_PER_QUERY, distinct.size());
+        assertEquals(List.of(firstChunk, firstChunk, firstChunk, secondChunk, secondChunk, secondChunk),
+                dao.fetchedChunks);
+        for (Long tenant : distinct) {
+            assertEquals(expected(tenant), report.get(tenant), "tenant " + tenant);
+        }
+    }
+
+    @Test
+    void tenantsWithoutEventsMapToEmptyLists() {
+        Map<Long, List<MetricAggregate>> report = reportService.generateReportForTenants(
+                List.of(SILENT_TENANTS + 1, 5L, SILENT_TENANTS + 2), "G001", BATCH_SIZE);
+
+        assertEquals(List.of(SILENT_TENANTS + 1, 5L, SILENT_TENANTS + 2), List.copyOf(report.keySet()));
+        assertEquals(List.of(), report.get(SILENT_TENANTS + 1));
+        assertEquals(List.of(), report.get(SILENT_TENANTS + 2));
+        assertEquals(expected(5L), report.get(5L));
+    }
+
+    @Test
+    void pageWithoutEventsDoesNotEndTheReport() {
+        Map<Long, List<MetricAggregate>> report = reportService.generateReportForTenants(
+                List.of(1L, 2L), "G001", BATCH_SIZE);
+
+        for (List<MetricAggregate> rows : report.values()) {
+            assertFalse(rows.isEmpty());
+            // Items after the silent second page are still reported
+            assertTrue(rows.get(rows.size() - 1).getItemId().compareTo(itemId(2 * BATCH_SIZE)) >= 0);
+        }
+        assertEquals(expected(1L), report.get(1L));
+        assertEquals(expected(2L), report.get(2L));
+    }
+
+    /**
+     * A tenant has events on every seventh item, offset by its id, except
+     * on the second page (items 100-199), where no tenant has any.
+     */
+    private static boolean tenantHasEvents(long tenant, int item) {
+        boolean silentPage = item >= BATCH_SIZE && item < 2 * BATCH_SIZE;
+        return tenant < SILENT_TENANTS && !silentPage && (item + tenant) % 7 == 0;
+    }
+
+    private static MetricAggregate row(long tenant, int item) {
+        return new MetricAggregate(itemId(item), "D001", tenant, 1, 0);
+    }
+
+    private static List<MetricAggregate> expected(long tenant) {
+        List<MetricAggregate> rows = new ArrayList<>();
+        for (int item = 0; item < ITEMS; item++) {
+            if (tenantHasEvents(tenant, item)) {
+                rows.add(row(tenant, item));
+            }
+        }
+        return rows;
+    }
+
+    private static String itemId(int item) {
+        return String.format("I-%05d", item);
+    }
+
+    /**
+     * The same catalog for every tenant; records the tenants of every query.
+     */
+    private class TenantCatalog extends FakeReportDao {
+
+        final List<List<Long>> fetchedChunks = new ArrayList<>();
+
+        TenantCatalog() {
+            super(metrics, ITEMS);
+        }
+
+        @Override
+        public TenantBatch fetchAggregatesForTenants(
+                Collection<Long> tenantIds, String groupId, String lastSeenId, int limit) {
+            fetchedChunks.add(List.copyOf(tenantIds));
+            int start = lastSeenId.isEmpty() ? 0 : Integer.parseInt(lastSeenId.substring(2)) + 1;
+            int end = Math.min(ITEMS, start + limit);
+            Map<Long, List<MetricAggregate>> rowsByTenant = new LinkedHashMap<>();
+            for (Long tenant : tenantIds) {
+                for (int item = start; item < end; item++) {
+                    if (tenantHasEvents(tenant, item)) {
+                        rowsByTenant.computeIfAbsent(tenant, t -> new ArrayList<>()).add(row(tenant, item));
+                    }
+                }
+            }
+            return new TenantBatch(rowsByTenant, Math.max(0, end - start), end > start ? itemId(end - 1) : null);
+        }
+    }
+}
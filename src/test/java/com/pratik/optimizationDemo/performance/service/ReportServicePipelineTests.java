@@ -0,0 +1,163 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportServicePipelineTests {
+
+    private static final int ITEMS = 2_500;
+    private static final int BATCH_SIZE = 1_000;
+
+    private ThreadPoolTaskExecutor executor;
+    private ReportService reportService;
+    private ReportService serialService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("report-prefetch-");
+        executor.initialize();
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+        reportService = new ReportService(new FakeReportDao(metrics, ITEMS), new ReportProperties(), executor, metrics);
+        serialService = new ReportService(new FakeReportDao(metrics, ITEMS), serial(), executor, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void pipelinedReportMatchesSerialOrder() {
+        List<MetricAggregate> serial = new ArrayList<>();
+        serialService.generateReportWithCallback(1L, "G001", BATCH_SIZE, serial::addAll);
+
+        List<MetricAggregate> pipelined = new ArrayList<>();
+        long total = reportService.generateReportPipelined(
+                1L, "G001", BATCH_SIZE, 1, pipelined::addAll, () -> false);
+
+        assertEquals(ITEMS, total);
+        assertEquals(serial, pipelined);
+    }
+
+    @Test
+    void callbackAndColumnarReportsUseThePipelineWhenPrefetchIsOn() {
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+        Set<String> fetchThreads = ConcurrentHashMap.newKeySet();
+        FakeReportDao dao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                fetchThreads.add(Thread.currentThread().getName());
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+        };
+        ReportService pipelined = new ReportService(dao, new ReportProperties(), executor, metrics);
+
+        List<MetricAggregate> streamed = new ArrayList<>();
+        assertEquals(ITEMS, pipelined.generateReportWithCallback(1L, "G001", BATCH_SIZE, streamed::addAll));
+        assertEquals(ITEMS, pipelined.generateColumnarReport(1L, "G001", BATCH_SIZE).size());
+
+        assertEquals(serialService.generateReport(1L, "G001", BATCH_SIZE), streamed);
+        assertTrue(fetchThreads.stream().allMatch(name -> name.startsWith("report-prefetch-")),
+                fetchThreads::toString);
+    }
+
+    @Test
+    void sparseEventsDoNotEndTheReportEarly() {
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+        FakeReportDao sparseDao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            boolean hasEvents(int i) {
+                // Every third item of the first page, none of the second
+                return i < BATCH_SIZE ? i % 3 == 0 : i >= 2 * BATCH_SIZE;
+            }
+        };
+        ReportService sparse = new ReportService(sparseDao, new ReportProperties(), executor, metrics);
+        ReportService sparseSerial = new ReportService(sparseDao, serial(), executor, metrics);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            if (sparseDao.hasEvents(i)) {
+                expected.add(String.format("I-%05d", i));
+            }
+        }
+
+        List<MetricAggregate> streamed = new ArrayList<>();
+        sparseSerial.generateReportWithCallback(1L, "G001", BATCH_SIZE, streamed::addAll);
+        List<MetricAggregate> pipelined = new ArrayList<>();
+        sparse.generateReportWithCallback(1L, "G001", BATCH_SIZE, pipelined::addAll);
+
+        assertEquals(expected, itemIds(sparse.generateReport(1L, "G001", BATCH_SIZE)));
+        assertEquals(expected, itemIds(streamed));
+        assertEquals(expected, itemIds(pipelined));
+        assertEquals(expected, itemIds(sparseSerial.generateColumnarReport(1L, "G001", BATCH_SIZE).toList()));
+        assertEquals(expected, itemIds(sparse.generateColumnarReport(1L, "G001", BATCH_SIZE).toList()));
+    }
+
+    @Test
+    void cancellationStopsThePipeline() {
+        AtomicInteger batches = new AtomicInteger();
+
+        assertThrows(CancellationException.class, () -> reportService.generateReportPipelined(
+                1L, "G001", BATCH_SIZE, 2, batch -> batches.incrementAndGet(), () -> batches.get() >= 1));
+
+        assertEquals(1, batches.get());
+    }
+
+    @Test
+    void producerErrorFailsTheReport() {
+        ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+        FakeReportDao failingDao = new FakeReportDao(metrics, ITEMS) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                if (!lastSeenId.isEmpty()) {
+                    throw new StackOverflowError();
+                }
+                return super.fetchAggregatesOptimized(tenantId, groupId, lastSeenId, limit);
+            }
+        };
+        ReportService failing = new ReportService(failingDao, new ReportProperties(), executor, metrics);
+        List<MetricAggregate> rows = new ArrayList<>();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> failing.generateReportPipelined(
+                1L, "G001", BATCH_SIZE, 1, rows::addAll, () -> false));
+
+        assertInstanceOf(StackOverflowError.class, e.getCause());
+        assertEquals(BATCH_SIZE, rows.size());
+    }
+
+    /**
+     * Properties with the prefetch pipeline turned off.
+     */
+    private static ReportProperties serial() {
+        ReportProperties properties = new ReportProperties();
+        properties.getPrefetch().setDepth(0);
+        return properties;
+    }
+
+    private static List<String> itemIds(List<MetricAggregate> rows) {
+        return rows.stream().map(MetricAggregate::getItemId).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.TrendBucket;
+import com.pratik.optimizationDemo.performance.model.TrendGranularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReportServiceTrendTests {
+
+    private static final int ITEMS = 2_500;
+    private static final int BATCH_SIZE = 1_000;
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+    private final ReportService reportService =
+            new ReportService(new FakeReportDao(metrics, ITEMS), new ReportProperties(), null, metrics);
+
+    @Test
+    void trendReportWalksPastItemsWithoutEventsInWindow() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<TrendBucket> buckets = reportService.generateTrendReport(
+                1L, "G001", TrendGranularity.DAY, from, from.plusDays(1), BATCH_SIZE);
+
+        assertEquals((ITEMS + 1) / 2, buckets.size());
+        assertEquals(String.format("I-%05d", ITEMS - 2), buckets.get(buckets.size() - 1).getItemId());
+    }
+
+    @Test
+    void trendReportRejectsEmptyWindow() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> reportService.generateTrendReport(
+                1L, "G001", TrendGranularity.HOUR, at, at, BATCH_SIZE));
+    }
+}
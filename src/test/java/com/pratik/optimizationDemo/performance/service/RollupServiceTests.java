@@ -0,0 +1,94 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.RollupDao;
+import com.pratik.optimizationDemo.performance.dao.SqlDialect;
+import com.pratik.optimizationDemo.performance.model.RollupRefresh;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollupServiceTests {
+
+    private static final Timestamp T0 = Timestamp.valueOf("2026-03-01 10:00:00");
+    private static final Timestamp T1 = Timestamp.valueOf("2026-03-03 10:00:00");
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private RollupService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:rollup", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("dialect-schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        service = new RollupService(new RollupDao(jdbc, SqlDialect.H2), new ReportProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void firstBuildSkipsIdleTimeAndReportsCatchUp() {
+        event("I-01", T0);
+        // Two days later: well beyond the 6h max window
+        event("I-02", T1);
+
+        RollupRefresh first = service.refresh();
+        assertEquals(1, first.rows());
+        assertFalse(first.caughtUp());
+        assertEquals(Timestamp.valueOf("2026-03-01 16:00:00"), first.to());
+
+        RollupRefresh second = service.refresh();
+        assertEquals(1, second.rows());
+        assertTrue(second.caughtUp());
+        assertEquals(T1, second.to());
+
+        // Nothing new: only the margin behind the watermark is recounted
+        RollupRefresh third = service.refresh();
+        assertEquals(Timestamp.valueOf("2026-03-03 09:59:30"), third.from());
+        assertEquals(T1, third.to());
+        assertEquals(1, third.rows());
+        assertTrue(third.caughtUp());
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM entity_event_rollup", Integer.class));
+    }
+
+    @Test
+    void writeInTheWatermarkSecondIsFoldedInByTheNextRefresh() {
+        event("I-01", T0);
+        assertEquals(T0, service.refresh().to());
+
+        // Same whole second as the watermark, committed after the MAX read
+        event("I-02", T0);
+
+        RollupRefresh next = service.refresh();
+        assertEquals(T0, next.to());
+        assertEquals(2, next.rows());
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM entity_event_rollup", Integer.class));
+    }
+
+    @Test
+    void emptyTableIsUpToDate() {
+        assertEquals(RollupRefresh.upToDate(), service.refresh());
+    }
+
+    private void event(String itemId, Timestamp updatedAt) {
+        jdbc.update("""
+                INSERT INTO entity_event (source_id, item_id, dimension_id, tenant_id, status, updated_at)
+                VALUES (1, ?, 'D1', 1001, 1, ?)
+                """, itemId, updatedAt);
+    }
+}
@@ -0,0 +1,70 @@
+package com.pratik.optimizationDemo.performance.service;
+
+import com.pratik.optimizationDemo.performance.config.ReportProperties;
+import com.pratik.optimizationDemo.performance.dao.ReportDao;
+import com.pratik.optimizationDemo.performance.metrics.ReportMetrics;
+import com.pratik.optimizationDemo.performance.model.AggregateBatch;
+import com.pratik.optimizationDemo.performance.model.MetricAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorstItemsReportServiceTests {
+
+    private final ReportMetrics metrics = new ReportMetrics(new SimpleMeterRegistry(), new ReportProperties());
+
+    @Test
+    void boundedHeapMatchesFullSort() {
+        ReportService reportService = reportService(new FakeReportDao(metrics, 2_500));
+        WorstItemsReportService worstItems = new WorstItemsReportService(reportService);
+
+        List<MetricAggregate> all = reportService.generateReport(1L, "G001", 700);
+        List<MetricAggregate> sorted = new ArrayList<>(all);
+        sorted.sort(WorstItemsReportService.WORST_FIRST);
+
+        assertEquals(sorted.subList(0, 50), worstItems.findWorst(1L, "G001", 50, 700));
+    }
+
+    @Test
+    void skipsPairsWithoutDecidedResultsAndBreaksTies() {
+        ReportDao dao = new FakeReportDao(metrics, 0) {
+            @Override
+            public AggregateBatch fetchAggregatesOptimized(
+                    Long tenantId, String groupId, String lastSeenId, int limit) {
+                if (!lastSeenId.isEmpty()) {
+                    return new AggregateBatch(List.of(), 0, null);
+                }
+                return new AggregateBatch(List.of(
+                        new MetricAggregate("I-1", "D001", 0, 0, 7),
+                        new MetricAggregate("I-2", "D001", 1, 1, 0),
+                        new MetricAggregate("I-3", "D001", 5, 5, 0),
+                        new MetricAggregate("I-4", "D001", 9, 1, 0)), 4, "I-4");
+            }
+        };
+        WorstItemsReportService worstItems = new WorstItemsReportService(reportService(dao));
+
+        List<MetricAggregate> worst = worstItems.findWorst(1L, "G001", 2, 100);
+
+        assertEquals(List.of("I-3", "I-2"), worst.stream().map(MetricAggregate::getItemId).toList());
+    }
+
+    @Test
+    void rejectsLimitOutOfRange() {
+        WorstItemsReportService worstItems = new WorstItemsReportService(
+                reportService(new FakeReportDao(metrics, 10)));
+
+        assertThrows(IllegalArgumentException.class, () -> worstItems.findWorst(1L, "G001", 0, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> worstItems.findWorst(1L, "G001", WorstItemsReportService.MAX_LIMIT + 1, 100));
+    }
+
+    private ReportService reportService(ReportDao dao) {
+        return new ReportService(dao, new ReportProperties(), new SimpleAsyncTaskExecutor(), metrics);
+    }
+}
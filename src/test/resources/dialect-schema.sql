@@ -0,0 +1,51 @@
+-- =============================================================================
+-- Subset of sql/schema.sql in syntax every embedded test engine accepts,
+-- for the per-dialect DAO tests (SqlDialectIntegrationTests)
+-- =============================================================================
+
+CREATE TABLE entity_catalog (
+    item_id         VARCHAR(50) NOT NULL,
+    group_id        VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE entity_event (
+    source_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    tenant_id       BIGINT NOT NULL,
+    status          SMALLINT DEFAULT 0 NOT NULL,
+    last_seen_time  TIMESTAMP,
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_entity_event_source UNIQUE (tenant_id, source_id, item_id, dimension_id)
+);
+
+CREATE INDEX idx_entity_catalog_group_item ON entity_catalog (group_id, item_id);
+CREATE INDEX idx_entity_event_tenant_item ON entity_event (tenant_id, item_id);
+
+CREATE TABLE entity_event_rollup (
+    tenant_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    passed          BIGINT DEFAULT 0 NOT NULL,
+    failed          BIGINT DEFAULT 0 NOT NULL,
+    error           BIGINT DEFAULT 0 NOT NULL,
+    refreshed_at    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, item_id, dimension_id)
+);
+
+CREATE TABLE rollup_watermark (
+    rollup_name     VARCHAR(50) PRIMARY KEY,
+    last_updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE entity_event_counter (
+    tenant_id       BIGINT NOT NULL,
+    item_id         VARCHAR(50) NOT NULL,
+    dimension_id    VARCHAR(50) NOT NULL,
+    passed          BIGINT DEFAULT 0 NOT NULL,
+    failed          BIGINT DEFAULT 0 NOT NULL,
+    error           BIGINT DEFAULT 0 NOT NULL,
+    checkpointed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, item_id, dimension_id)
+);